@@ -0,0 +1,103 @@
+package art.org.example.gestion_des_conges;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rafale de requêtes simultanées sur l'application démarrée (profil test, H2) :
+ * threads de plateforme (pool Tomcat de 200) contre threads virtuels (spring.threads.virtual.enabled).
+ * Chaque opération envoie "concurrency" requêtes authentifiées en même temps et attend toutes les réponses.
+ *
+ * Nécessite un JDK 21 pour le mode virtuel :
+ * JAVA_HOME=/chemin/jdk-21 mvn -Pjmh clean test-compile exec:exec -Djmh.args="ConcurrentRequestsBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ConcurrentRequestsBenchmark {
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param({"1000", "2000"})
+    public int concurrency;
+
+    @Param({"/api/leave-balances/me", "/api/leave-types"})
+    public String path;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        if (virtualThreads && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Le mode threads virtuels nécessite un JDK 21");
+        }
+        context = new SpringApplicationBuilder(GestionDesCongesApplication.class)
+                .profiles("test")
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "server.tomcat.max-connections=" + (concurrency * 2),
+                        "app.rate-limit.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        HttpResponse<String> login = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"username\":\"employe\",\"password\":\"employe123\"}"))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        String token = new ObjectMapper().readTree(login.body()).get("token").asText();
+
+        request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public int burst() {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+        int ok = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            if (response.join().statusCode() == 200) {
+                ok++;
+            }
+        }
+        if (ok != concurrency) {
+            throw new IllegalStateException((concurrency - ok) + " requêtes en échec sur " + concurrency);
+        }
+        return ok;
+    }
+}
@@ -0,0 +1,92 @@
+package art.org.example.gestion_des_conges.dto;
+
+import art.org.example.gestion_des_conges.entity.LeaveDays;
+import art.org.example.gestion_des_conges.entity.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sérialisation JSON (corps de réponse, en octets) de listes de 1000 DTO :
+ * utilisateurs, équipes (projection sans membres, comme GET /api/teams) et soldes (LeaveDays en jours).
+ * ObjectMapper construit comme celui de Spring Boot (Jackson2ObjectMapperBuilder, dates ISO-8601).
+ *
+ * mvn -Pjmh clean test-compile exec:exec -Djmh.args="DtoSerializationBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoSerializationBenchmark {
+
+    private static final int SIZE = 1000;
+
+    private ObjectMapper objectMapper;
+    private List<UserDTO> users;
+    private List<TeamDTO> teams;
+    private List<LeaveBalanceDTO> balances;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        LocalDateTime now = LocalDateTime.now();
+        users = new ArrayList<>(SIZE);
+        teams = new ArrayList<>(SIZE);
+        balances = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            users.add(new UserDTO((long) i, "Nom" + i, "Prénom" + i, "user" + i, "user" + i + "@conges.com",
+                    User.Role.EMPLOYE, true, (long) (i % 50), "Équipe " + (i % 50)));
+
+            TeamDTO team = new TeamDTO();
+            team.setId((long) i);
+            team.setNom("Équipe " + i);
+            team.setDescription("Description de l'équipe " + i);
+            team.setValidateurId((long) i);
+            team.setValidateurNom("Prénom" + i + " Nom" + i);
+            team.setNombreMembres(20);
+            team.setCreatedAt(now);
+            team.setUpdatedAt(now);
+            teams.add(team);
+
+            LeaveBalanceDTO balance = new LeaveBalanceDTO();
+            balance.setId((long) i);
+            balance.setUserId((long) i);
+            balance.setUserName("Prénom" + i + " Nom" + i);
+            balance.setLeaveTypeId(1L);
+            balance.setLeaveTypeName("Congé payé");
+            balance.setLeaveTypeColor("#4CAF50");
+            balance.setYear(2026);
+            balance.setTotalAllowance(LeaveDays.of(25));
+            balance.setUsedDays(LeaveDays.of(10.5));
+            balance.setPendingDays(LeaveDays.of(2));
+            balance.setRemainingDays(LeaveDays.of(12.5));
+            balance.setCarriedOverDays(LeaveDays.of(3));
+            balance.setAvailableDays(LeaveDays.of(12.5));
+            balance.setPercentageUsed(42);
+            balances.add(balance);
+        }
+    }
+
+    @Benchmark
+    public byte[] users() throws Exception {
+        return objectMapper.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public byte[] teams() throws Exception {
+        return objectMapper.writeValueAsBytes(teams);
+    }
+
+    @Benchmark
+    public byte[] leaveBalances() throws Exception {
+        return objectMapper.writeValueAsBytes(balances);
+    }
+}
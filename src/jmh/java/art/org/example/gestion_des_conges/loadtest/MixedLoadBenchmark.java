@@ -0,0 +1,199 @@
+package art.org.example.gestion_des_conges.loadtest;
+
+import art.org.example.gestion_des_conges.GestionDesCongesApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test de charge HTTP de bout en bout : l'application démarre (profil test, H2 en mode PostgreSQL),
+ * SyntheticOrg la peuple (par défaut 50k utilisateurs, 2k équipes, 10 types, 5 années de soldes),
+ * puis un mélange de requêtes s'exécute en parallèle (groupe JMH "mix") :
+ * connexions, consultation de ses soldes, recherche d'utilisateurs (admin) et traitements d'administration
+ * (initialisation des soldes de l'année, recalcul des soldes de la plus ancienne année depuis le journal),
+ * ces derniers espacés de adminPauseMs.
+ *
+ * JMH rapporte pour chaque type de requête et pour le mélange le débit (ops/ms) et la distribution
+ * des latences (p0.50, p0.99...). La proportion du mélange se règle par le nombre de threads : -tg login,soldes,recherche,admin
+ *
+ * mvn -Pjmh clean test-compile exec:exec -Djmh.args="MixedLoadBenchmark -tg 1,6,2,1"
+ * mvn -Pjmh clean test-compile exec:exec -Djmh.args="MixedLoadBenchmark -p users=5000 -p teams=200 -prof gc"
+ *
+ * Contre un PostgreSQL local (base vide, migrée au démarrage) :
+ * -jvmArgsAppend "-Dspring.datasource.url=jdbc:postgresql://localhost:5432/conges_load -Dspring.datasource.username=...
+ *  -Dspring.datasource.password=... -Dspring.datasource.driver-class-name=org.postgresql.Driver
+ *  -Dspring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MixedLoadBenchmark {
+
+    private static final int SEARCH_LIMIT = 50;
+
+    @Param({"50000"})
+    public int users;
+
+    @Param({"2000"})
+    public int teams;
+
+    @Param({"10"})
+    public int leaveTypes;
+
+    @Param({"5"})
+    public int years;
+
+    @Param({"1000"})
+    public long adminPauseMs;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private String adminToken;
+    private List<Integer> balanceYears;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        context = new SpringApplicationBuilder(GestionDesCongesApplication.class)
+                .profiles("test")
+                .properties("server.port=0",
+                        "app.rate-limit.enabled=false",
+                        "logging.level.root=WARN",
+                        "logging.level.art.org.example.gestion_des_conges.loadtest=INFO")
+                .run();
+        SyntheticOrg.Spec spec = new SyntheticOrg.Spec(users, teams, leaveTypes, years);
+        new SyntheticOrg(context).seed(spec);
+        balanceYears = spec.balanceYears();
+
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        adminToken = authenticate("admin", "admin123");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    /**
+     * Utilisateur simulé par un thread : connecté une fois, puis réutilise son token
+     */
+    @State(Scope.Thread)
+    public static class Session {
+
+        private static final AtomicInteger THREADS = new AtomicInteger();
+
+        SplittableRandom random;
+        String token;
+
+        @Setup(Level.Trial)
+        public void login(MixedLoadBenchmark load) throws Exception {
+            random = new SplittableRandom(THREADS.incrementAndGet());
+            token = load.authenticate(SyntheticOrg.username(random.nextInt(load.users)), SyntheticOrg.PASSWORD);
+        }
+    }
+
+    /**
+     * Espacement des traitements d'administration (hors mesure)
+     */
+    @State(Scope.Thread)
+    public static class AdminPacer {
+
+        int calls;
+
+        @Setup(Level.Invocation)
+        public void pause(MixedLoadBenchmark load) throws InterruptedException {
+            Thread.sleep(load.adminPauseMs);
+        }
+    }
+
+    @Benchmark
+    @Group("mix")
+    @GroupThreads(1)
+    public String login(Session session) throws Exception {
+        return authenticate(SyntheticOrg.username(session.random.nextInt(users)), SyntheticOrg.PASSWORD);
+    }
+
+    @Benchmark
+    @Group("mix")
+    @GroupThreads(6)
+    public int myBalances(Session session) throws Exception {
+        int year = balanceYears.get(session.random.nextInt(balanceYears.size()));
+        return send(get("/api/leave-balances/me?year=" + year, session.token));
+    }
+
+    @Benchmark
+    @Group("mix")
+    @GroupThreads(2)
+    public int searchUsers(Session session) throws Exception {
+        String term = session.random.nextBoolean()
+                ? SyntheticOrg.LAST_NAMES[session.random.nextInt(SyntheticOrg.LAST_NAMES.length)]
+                : SyntheticOrg.FIRST_NAMES[session.random.nextInt(SyntheticOrg.FIRST_NAMES.length)];
+        String prefix = URLEncoder.encode(term.substring(0, Math.min(4, term.length())), StandardCharsets.UTF_8);
+        return send(get("/api/users?search=" + prefix + "&limit=" + SEARCH_LIMIT, adminToken));
+    }
+
+    @Benchmark
+    @Group("mix")
+    @GroupThreads(1)
+    public int adminBatch(AdminPacer pacer) throws Exception {
+        String path = pacer.calls++ % 2 == 0
+                ? "/api/leave-balances/initialize-all?year=" + balanceYears.get(balanceYears.size() - 1)
+                : "/api/leave-balances/ledger/rebuild?year=" + balanceYears.get(0);
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + adminToken)
+                .timeout(Duration.ofMinutes(5))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build());
+    }
+
+    String authenticate(String username, String password) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                        .header("Content-Type", "application/json")
+                        .timeout(Duration.ofSeconds(60))
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}"))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Connexion refusée pour " + username + " : " + response.statusCode());
+        }
+        return new ObjectMapper().readTree(response.body()).get("token").asText();
+    }
+
+    private HttpRequest get(String path, String token) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request.uri().getPath() + " : " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,175 @@
+package art.org.example.gestion_des_conges.loadtest;
+
+import art.org.example.gestion_des_conges.service.CatalogVersions;
+import art.org.example.gestion_des_conges.service.LeaveBalanceService;
+import art.org.example.gestion_des_conges.service.LeaveTypeCatalog;
+import art.org.example.gestion_des_conges.service.SearchIndexService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Organisation synthétique pour les tests de charge, ajoutée à ce que crée DataInitializer
+ * (admin, employe, validateur et 4 types de congés) : types de congés, équipes avec leur validateur,
+ * utilisateurs répartis dans les équipes, puis soldes de plusieurs années.
+ *
+ * Utilisateurs, équipes et types sont insérés par lots JDBC dans une transaction (un seul hash BCrypt
+ * partagé : l'import unitaire hacherait chaque mot de passe), avec les versions de catalogue.
+ * Les soldes passent par LeaveBalanceService.initializeAllUsersForYear, comme en production.
+ * Génération déterministe : l'utilisateur n a toujours le même nom, la même équipe et le même rôle.
+ */
+public class SyntheticOrg {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticOrg.class);
+
+    public static final String PASSWORD = "loadtest123";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String USER_INSERT = "INSERT INTO users (username, email, password, first_name, last_name, "
+            + "role, active, team_id, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Noms combinés (prénom x nom) : la recherche trouve plusieurs dizaines d'utilisateurs par terme
+    static final String[] FIRST_NAMES = {"Jean", "Marie", "Pierre", "Sophie", "Luc", "Camille", "Paul", "Julie",
+            "Nicolas", "Claire", "Thomas", "Laura", "Antoine", "Emma", "Hugo", "Chloé", "Louis", "Léa", "Arthur", "Manon"};
+    static final String[] LAST_NAMES = {"Martin", "Bernard", "Dubois", "Thomas", "Robert", "Richard", "Petit",
+            "Durand", "Leroy", "Moreau", "Simon", "Laurent", "Lefebvre", "Michel", "Garcia", "David", "Bertrand",
+            "Roux", "Vincent", "Fournier", "Morel", "Girard", "André", "Mercier", "Dupont", "Lambert", "Bonnet",
+            "François", "Martinez", "Legrand"};
+
+    /**
+     * Taille de l'organisation : utilisateurs (dont un validateur par équipe), équipes,
+     * types de congés au total, et années de soldes (l'année courante et les précédentes)
+     */
+    public record Spec(int users, int teams, int leaveTypes, int years) {
+
+        public Spec {
+            if (users < teams) {
+                throw new IllegalArgumentException("Il faut au moins un utilisateur (validateur) par équipe");
+            }
+        }
+
+        public List<Integer> balanceYears() {
+            int currentYear = LocalDate.now().getYear();
+            List<Integer> result = new ArrayList<>(years);
+            for (int year = currentYear - years + 1; year <= currentYear; year++) {
+                result.add(year);
+            }
+            return result;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final PasswordEncoder passwordEncoder;
+    private final CatalogVersions catalogVersions;
+    private final LeaveTypeCatalog leaveTypeCatalog;
+    private final SearchIndexService searchIndexService;
+    private final LeaveBalanceService leaveBalanceService;
+
+    public SyntheticOrg(ApplicationContext context) {
+        this.jdbcTemplate = context.getBean(JdbcTemplate.class);
+        this.transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        this.passwordEncoder = context.getBean(PasswordEncoder.class);
+        this.catalogVersions = context.getBean(CatalogVersions.class);
+        this.leaveTypeCatalog = context.getBean(LeaveTypeCatalog.class);
+        this.searchIndexService = context.getBean(SearchIndexService.class);
+        this.leaveBalanceService = context.getBean(LeaveBalanceService.class);
+    }
+
+    public static String username(int index) {
+        return "lt" + index;
+    }
+
+    public static String firstName(int index) {
+        return FIRST_NAMES[index % FIRST_NAMES.length];
+    }
+
+    public static String lastName(int index) {
+        return LAST_NAMES[(index / FIRST_NAMES.length) % LAST_NAMES.length];
+    }
+
+    public void seed(Spec spec) {
+        long start = System.currentTimeMillis();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String passwordHash = passwordEncoder.encode(PASSWORD);
+
+        transaction.executeWithoutResult(status -> {
+            insertLeaveTypes(spec, now);
+            List<Long> teamIds = insertTeams(spec, now);
+            insertUsers(spec, teamIds, passwordHash, now);
+            catalogVersions.increment(CatalogVersions.LEAVE_TYPES);
+            catalogVersions.increment(CatalogVersions.TEAMS);
+        });
+        leaveTypeCatalog.reload();
+        searchIndexService.rebuildAll();
+        log.info("Organisation synthétique : {} utilisateurs, {} équipes, {} types en {} ms",
+                spec.users(), spec.teams(), spec.leaveTypes(), System.currentTimeMillis() - start);
+
+        for (Integer year : spec.balanceYears()) {
+            long yearStart = System.currentTimeMillis();
+            int created = leaveBalanceService.initializeAllUsersForYear(year);
+            log.info("Soldes {} : {} créés en {} ms", year, created, System.currentTimeMillis() - yearStart);
+        }
+    }
+
+    private void insertLeaveTypes(Spec spec, Timestamp now) {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM leave_types", Integer.class);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = existing != null ? existing : 0; i < spec.leaveTypes(); i++) {
+            rows.add(new Object[]{"LT_TYPE_" + i, "Type de congé synthétique " + i, i % 2 == 0, i % 3 != 0,
+                    true, 30.0, (double) (5 + i % 4 * 5) / 2, i % 2 == 0, 5, true, "#6366F1", 100 + i, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO leave_types (name, description, requires_approval, is_paid, "
+                + "deducts_from_balance, max_days_per_year, default_annual_allowance, allow_carry_over, "
+                + "max_carry_over_days, is_active, color, display_order, created_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    private List<Long> insertTeams(Spec spec, Timestamp now) {
+        List<Object[]> rows = new ArrayList<>(spec.teams());
+        for (int t = 0; t < spec.teams(); t++) {
+            rows.add(new Object[]{"Équipe LT " + t, "Équipe synthétique " + t, now});
+        }
+        batch("INSERT INTO teams (name, description, created_at) VALUES (?, ?, ?)", rows);
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM teams WHERE name LIKE 'Équipe LT %' ORDER BY id", Long.class);
+    }
+
+    /**
+     * Les spec.teams() premiers utilisateurs sont les validateurs (un par équipe), les autres des employés
+     * répartis à tour de rôle dans les équipes
+     */
+    private void insertUsers(Spec spec, List<Long> teamIds, String passwordHash, Timestamp now) {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < spec.users(); i++) {
+            String role = i < spec.teams() ? "VALIDATEUR" : "EMPLOYE";
+            rows.add(new Object[]{username(i), username(i) + "@conges.test", passwordHash,
+                    firstName(i), lastName(i), role, true, teamIds.get(i % teamIds.size()), now});
+            if (rows.size() == BATCH_SIZE) {
+                batch(USER_INSERT, rows);
+                rows.clear();
+            }
+        }
+        batch(USER_INSERT, rows);
+
+        jdbcTemplate.update("UPDATE teams t SET validator_id = (SELECT MIN(u.id) FROM users u "
+                + "WHERE u.team_id = t.id AND u.role = 'VALIDATEUR') WHERE t.name LIKE 'Équipe LT %'");
+    }
+
+    private void batch(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+    }
+}
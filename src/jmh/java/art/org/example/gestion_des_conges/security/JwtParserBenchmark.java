@@ -0,0 +1,88 @@
+package art.org.example.gestion_des_conges.security;
+
+import art.org.example.gestion_des_conges.config.JwtConfig;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût d'un parsing/signature JWT : ancienne API (parser et clé reconstruits à chaque appel)
+ * contre parser et clé construits une seule fois, puis avec le cache des tokens vérifiés.
+ *
+ * mvn -Pjmh clean test-compile exec:exec -Djmh.args="JwtParserBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtParserBenchmark {
+
+    private static final String SECRET =
+            "VoiciUneCleSuperLongueEtTresSecureQuiDepasse512BitsPourHS512Algorithm123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    private SecretKey key;
+    private JwtParser parser;
+    private JwtTokenProvider provider;
+    private String token;
+
+    @Setup
+    public void setup() {
+        key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        parser = Jwts.parserBuilder().setSigningKey(key).build();
+
+        JwtConfig config = new JwtConfig();
+        config.setSecret(SECRET);
+        config.setExpiration(86_400_000L);
+        provider = new JwtTokenProvider(config);
+
+        token = provider.generateTokenWithCustomClaims("employe", "ROLE_EMPLOYE", 2L);
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public Claims parsePerCall() {
+        return Jwts.parser()
+                .setSigningKey(SECRET)
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    @Benchmark
+    public Claims parsePrebuilt() {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    @Benchmark
+    public boolean validateWithProviderCache() {
+        return provider.validateToken(token);
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public String signPerCall() {
+        return Jwts.builder()
+                .setSubject("employe")
+                .setExpiration(new Date(System.currentTimeMillis() + 86_400_000L))
+                .signWith(SignatureAlgorithm.HS512, SECRET)
+                .compact();
+    }
+
+    @Benchmark
+    public String signPrebuiltKey() {
+        return Jwts.builder()
+                .setSubject("employe")
+                .setExpiration(new Date(System.currentTimeMillis() + 86_400_000L))
+                .signWith(key, SignatureAlgorithm.HS512)
+                .compact();
+    }
+}
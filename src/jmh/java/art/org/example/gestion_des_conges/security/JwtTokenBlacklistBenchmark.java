@@ -0,0 +1,77 @@
+package art.org.example.gestion_des_conges.security;
+
+import art.org.example.gestion_des_conges.config.JwtConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtTokenBlacklist.isBlacklisted sous contention : 7 threads consultent la blacklist (une fois par
+ * requête authentifiée) pendant qu'un thread révoque des tokens (déconnexions), avec et sans filtre de Bloom.
+ * La blacklist contient déjà "revoked" tokens ; les tokens consultés ne sont pas révoqués (cas courant).
+ *
+ * mvn -Pjmh clean test-compile exec:exec -Djmh.args="JwtTokenBlacklistBenchmark -prof gc"
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenBlacklistBenchmark {
+
+    private static final String SECRET =
+            "VoiciUneCleSuperLongueEtTresSecureQuiDepasse512BitsPourHS512Algorithm123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    private static final int ACTIVE_TOKENS = 1024;
+
+    @Param({"true", "false"})
+    public boolean bloomEnabled;
+
+    @Param({"10000"})
+    public int revoked;
+
+    private JwtTokenBlacklist blacklist;
+    private String[] activeTokens;
+    private String[] revokedTokens;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        JwtConfig config = new JwtConfig();
+        config.setSecret(SECRET);
+        config.setExpiration(86_400_000L);
+        config.getBlacklist().setBloomEnabled(bloomEnabled);
+        JwtTokenProvider provider = new JwtTokenProvider(config);
+        blacklist = new JwtTokenBlacklist(new InMemoryTokenBlacklistStore(), provider, config);
+
+        revokedTokens = new String[revoked];
+        for (int i = 0; i < revoked; i++) {
+            revokedTokens[i] = provider.generateTokenWithCustomClaims("revoque" + i, "ROLE_EMPLOYE", (long) i);
+            blacklist.addToBlacklist(revokedTokens[i]);
+        }
+        activeTokens = new String[ACTIVE_TOKENS];
+        for (int i = 0; i < ACTIVE_TOKENS; i++) {
+            activeTokens[i] = provider.generateTokenWithCustomClaims("actif" + i, "ROLE_EMPLOYE", (long) i);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    @Group("contention")
+    @GroupThreads(7)
+    public boolean isBlacklisted(Cursor cursor) {
+        return blacklist.isBlacklisted(activeTokens[cursor.next++ & (ACTIVE_TOKENS - 1)]);
+    }
+
+    @Benchmark
+    @Group("contention")
+    @GroupThreads(1)
+    public void addToBlacklist(Cursor cursor) {
+        // Révocations déjà présentes : même chemin d'écriture (store + filtre), sans faire grossir le store
+        blacklist.addToBlacklist(revokedTokens[cursor.next++ % revokedTokens.length]);
+    }
+}
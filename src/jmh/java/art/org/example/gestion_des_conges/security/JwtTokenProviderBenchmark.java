@@ -0,0 +1,79 @@
+package art.org.example.gestion_des_conges.security;
+
+import art.org.example.gestion_des_conges.config.JwtConfig;
+import art.org.example.gestion_des_conges.entity.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût par requête de l'API publique de JwtTokenProvider : émission d'un token à la connexion,
+ * vérification par le filtre (token déjà vu, servi par le cache des tokens vérifiés, ou cache désactivé)
+ * et lecture du username.
+ *
+ * mvn -Pjmh clean test-compile exec:exec -Djmh.args="JwtTokenProviderBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private static final String SECRET =
+            "VoiciUneCleSuperLongueEtTresSecureQuiDepasse512BitsPourHS512Algorithm123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    private JwtTokenProvider provider;
+    private JwtTokenProvider uncachedProvider;
+    private Authentication authentication;
+    private String token;
+
+    @Setup
+    public void setup() {
+        provider = new JwtTokenProvider(config(10_000));
+        uncachedProvider = new JwtTokenProvider(config(0));
+
+        User user = new User();
+        user.setId(2L);
+        user.setUsername("employe");
+        user.setEmail("employe@conges.com");
+        user.setFirstName("Jean");
+        user.setLastName("Dupont");
+        user.setRole(User.Role.EMPLOYE);
+        authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+
+        token = provider.generateToken(authentication);
+        provider.validateToken(token);
+    }
+
+    private static JwtConfig config(long verifiedCacheSize) {
+        JwtConfig config = new JwtConfig();
+        config.setSecret(SECRET);
+        config.setExpiration(86_400_000L);
+        config.setVerifiedCacheSize(verifiedCacheSize);
+        return config;
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return provider.generateToken(authentication);
+    }
+
+    @Benchmark
+    public boolean validateTokenCached() {
+        return provider.validateToken(token);
+    }
+
+    @Benchmark
+    public boolean validateTokenUncached() {
+        return uncachedProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public String getUsernameFromToken() {
+        return provider.getUsernameFromToken(token);
+    }
+}
@@ -0,0 +1,116 @@
+package art.org.example.gestion_des_conges.service;
+
+import art.org.example.gestion_des_conges.dto.LeaveBalanceDTO;
+import art.org.example.gestion_des_conges.dto.TeamDTO;
+import art.org.example.gestion_des_conges.dto.UserDTO;
+import art.org.example.gestion_des_conges.entity.LeaveType;
+import art.org.example.gestion_des_conges.entity.Team;
+import art.org.example.gestion_des_conges.entity.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion entité/ligne -> DTO des listes renvoyées par l'API, 1000 éléments par opération :
+ * UserService.convertToDTO, TeamService.convertToDTO (équipe chargée avec ses membres) et rowToDTO
+ * (projection de la liste des équipes), LeaveBalanceReadModel.fromRow (soldes de GET /api/leave-balances/me).
+ * Les services sont instanciés sans contexte Spring : les conversions ne touchent à aucun bean.
+ *
+ * mvn -Pjmh clean test-compile exec:exec -Djmh.args="DtoMappingBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    private static final int SIZE = 1000;
+    private static final int TEAM_SIZE = 20;
+
+    private final UserService userService = new UserService();
+    private final TeamService teamService = new TeamService();
+    private LeaveBalanceReadModel readModel;
+
+    private List<User> users;
+    private List<Team> teams;
+    private List<Object[]> teamRows;
+    private List<Object[]> balanceRows;
+
+    @Setup
+    public void setup() {
+        LeaveType leaveType = new LeaveType();
+        leaveType.setId(1L);
+        leaveType.setName("Congé payé");
+        leaveType.setColor("#4CAF50");
+        // Catalogue figé : fromRow n'y lit que le nom et la couleur du type
+        LeaveTypeCatalog catalog = new LeaveTypeCatalog() {
+            @Override
+            public Optional<LeaveType> findById(Long id) {
+                return Optional.of(leaveType);
+            }
+        };
+        readModel = new LeaveBalanceReadModel(null, catalog, 1, 60);
+
+        LocalDateTime now = LocalDateTime.now();
+        users = new ArrayList<>(SIZE);
+        teams = new ArrayList<>(SIZE);
+        teamRows = new ArrayList<>(SIZE);
+        balanceRows = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            Team team = new Team();
+            team.setId((long) i);
+            team.setName("Équipe " + i);
+            team.setDescription("Description de l'équipe " + i);
+            team.setUpdatedAt(now);
+            User validator = user(i, team);
+            team.setValidator(validator);
+            for (int m = 0; m < TEAM_SIZE; m++) {
+                team.getMembers().add(user(i * TEAM_SIZE + m, team));
+            }
+            teams.add(team);
+            users.add(validator);
+
+            teamRows.add(new Object[]{(long) i, team.getName(), team.getDescription(), now, now,
+                    validator.getId(), validator.getFirstName(), validator.getLastName(), (long) TEAM_SIZE});
+            balanceRows.add(new Object[]{(long) i, (long) i, "Prénom" + i, "Nom" + i, 1L, 2026,
+                    100L, 40L, 8L, 52L, 12L});
+        }
+    }
+
+    private static User user(int i, Team team) {
+        User user = new User();
+        user.setId((long) i);
+        user.setUsername("user" + i);
+        user.setEmail("user" + i + "@conges.com");
+        user.setFirstName("Prénom" + i);
+        user.setLastName("Nom" + i);
+        user.setTeam(team);
+        return user;
+    }
+
+    @Benchmark
+    public List<UserDTO> userConvertToDTO() {
+        return users.stream().map(userService::convertToDTO).toList();
+    }
+
+    @Benchmark
+    public List<TeamDTO> teamConvertToDTO() {
+        return teams.stream().map(teamService::convertToDTO).toList();
+    }
+
+    @Benchmark
+    public List<TeamDTO> teamRowToDTO() {
+        return teamRows.stream().map(teamService::rowToDTO).toList();
+    }
+
+    @Benchmark
+    public List<LeaveBalanceDTO> leaveBalanceFromRow() {
+        return balanceRows.stream().map(readModel::fromRow).toList();
+    }
+}
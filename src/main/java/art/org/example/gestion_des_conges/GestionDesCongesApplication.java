@@ -4,10 +4,12 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EntityScan("art.org.example.gestion_des_conges.entity")
 @EnableJpaRepositories("art.org.example.gestion_des_conges.repository")
+@EnableScheduling
 public class GestionDesCongesApplication {
 
     public static void main(String[] args) {
@@ -5,6 +5,7 @@ import art.org.example.gestion_des_conges.entity.User;
 import art.org.example.gestion_des_conges.repository.LeaveTypeRepository;
 import art.org.example.gestion_des_conges.repository.UserRepository;
 import art.org.example.gestion_des_conges.service.LeaveBalanceService;
+import art.org.example.gestion_des_conges.service.LeaveTypeCatalog;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -20,7 +21,8 @@ public class DataInitializer {
     public CommandLineRunner initData(UserRepository userRepository,
                                       PasswordEncoder passwordEncoder,
                                       LeaveTypeRepository leaveTypeRepository,
-                                      LeaveBalanceService leaveBalanceService) {
+                                      LeaveBalanceService leaveBalanceService,
+                                      LeaveTypeCatalog leaveTypeCatalog) {
         return args -> {
             // ========== ÉTAPE 1 : CRÉER LES UTILISATEURS ==========
             if (userRepository.count() == 0) {
@@ -130,6 +132,7 @@ public class DataInitializer {
                 exceptionnel.setDisplayOrder(4);
                 exceptionnel.setIsActive(true);
                 leaveTypeRepository.save(exceptionnel);
+                leaveTypeCatalog.markChanged();
 
                 System.out.println("✅ 4 types de congés créés");
 
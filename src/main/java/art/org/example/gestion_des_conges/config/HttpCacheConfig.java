@@ -0,0 +1,65 @@
+package art.org.example.gestion_des_conges.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+
+import java.time.Duration;
+
+/**
+ * Politique Cache-Control des listes interrogées en boucle par le front (app.http-cache.*).
+ * Durées en secondes : 0 = le navigateur revalide à chaque appel (réponse 304 si rien n'a changé),
+ * au-delà il réutilise sa copie sans appel pendant cette durée. Réponses toujours "private" (données authentifiées).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.http-cache")
+public class HttpCacheConfig {
+
+    private long leaveTypesMaxAge = 60;  // catalogue modifié quelques fois par an
+    private long teamsMaxAge = 0;
+    private long balancesMaxAge = 0;     // doit refléter une validation immédiatement
+
+    public CacheControl leaveTypes() {
+        return cacheControl(leaveTypesMaxAge);
+    }
+
+    public CacheControl teams() {
+        return cacheControl(teamsMaxAge);
+    }
+
+    public CacheControl balances() {
+        return cacheControl(balancesMaxAge);
+    }
+
+    private static CacheControl cacheControl(long maxAgeSeconds) {
+        if (maxAgeSeconds <= 0) {
+            return CacheControl.noCache().cachePrivate();
+        }
+        return CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePrivate();
+    }
+
+    // Getters et Setters
+    public long getLeaveTypesMaxAge() {
+        return leaveTypesMaxAge;
+    }
+
+    public void setLeaveTypesMaxAge(long leaveTypesMaxAge) {
+        this.leaveTypesMaxAge = leaveTypesMaxAge;
+    }
+
+    public long getTeamsMaxAge() {
+        return teamsMaxAge;
+    }
+
+    public void setTeamsMaxAge(long teamsMaxAge) {
+        this.teamsMaxAge = teamsMaxAge;
+    }
+
+    public long getBalancesMaxAge() {
+        return balancesMaxAge;
+    }
+
+    public void setBalancesMaxAge(long balancesMaxAge) {
+        this.balancesMaxAge = balancesMaxAge;
+    }
+}
@@ -0,0 +1,64 @@
+package art.org.example.gestion_des_conges.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class JobConfig {
+
+    /**
+     * Exécuteur des traitements de fond lancés depuis l'API (report des soldes...) :
+     * un seul job à la fois, les suivants attendent dans la file
+     */
+    @Bean
+    public ThreadPoolTaskExecutor jobExecutor(Environment environment) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("job-");
+        useVirtualThreads(executor, environment, "job-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool borné pour le hachage BCrypt en parallèle (import en masse) :
+     * un import ne peut pas monopoliser tous les coeurs du serveur.
+     * File bornée : quand des imports simultanés la remplissent, l'import appelant hache lui-même ses tranches
+     * (CallerRunsPolicy) au lieu d'accumuler des tâches sans limite.
+     * Threads de plateforme même en mode threads virtuels : le hachage est du calcul pur.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor passwordHashExecutor(
+            @Value("${app.bulk-import.hash-threads:0}") int hashThreads) {
+        int threads = hashThreads > 0 ? hashThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("password-hash-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Mode threads virtuels (spring.threads.virtual.enabled, Java 21+) : les workers d'un pool borné
+     * qui attendent surtout des I/O (JDBC, SMTP) deviennent des threads virtuels. La taille du pool
+     * reste la limite de concurrence voulue. Sans effet hors de ce mode.
+     */
+    static void useVirtualThreads(ThreadPoolTaskExecutor executor, Environment environment, String namePrefix) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            executor.setThreadFactory(new VirtualThreadTaskExecutor(namePrefix).getVirtualThreadFactory());
+        }
+    }
+}
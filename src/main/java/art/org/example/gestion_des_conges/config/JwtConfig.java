@@ -4,6 +4,9 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @Configuration
 @EnableConfigurationProperties
 @ConfigurationProperties(prefix = "jwt")
@@ -12,6 +15,17 @@ public class JwtConfig {
     private String secret;
     private long expiration; // en millisecondes
     private long refreshExpiration; // pour les refresh tokens
+    private PrincipalMode principalMode = PrincipalMode.DATABASE; // source du principal à chaque requête
+    private long verifiedCacheSize = 10_000; // nombre max de tokens vérifiés gardés en cache
+    private long stampCacheSize = 10_000; // nombre max d'utilisateurs dont la version de tokens est en cache
+    private long stampCacheTtlMs = 2_000; // durée de cache des versions de tokens lues en base
+
+    // Rotation des clés : kid -> secret (base64). Les tokens sont signés avec activeKeyId,
+    // et vérifiés avec la clé correspondant au header "kid" (jwt.secret si absent)
+    private Map<String, String> keys = new LinkedHashMap<>();
+    private String activeKeyId;
+
+    private final Blacklist blacklist = new Blacklist();
 
     // Getters et Setters
     public String getSecret() {
@@ -37,4 +51,109 @@ public class JwtConfig {
     public void setRefreshExpiration(long refreshExpiration) {
         this.refreshExpiration = refreshExpiration;
     }
-}
\ No newline at end of file
+
+    public Map<String, String> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(Map<String, String> keys) {
+        this.keys = keys;
+    }
+
+    public String getActiveKeyId() {
+        return activeKeyId;
+    }
+
+    public void setActiveKeyId(String activeKeyId) {
+        this.activeKeyId = activeKeyId;
+    }
+
+    public Blacklist getBlacklist() {
+        return blacklist;
+    }
+
+    public long getVerifiedCacheSize() {
+        return verifiedCacheSize;
+    }
+
+    public void setVerifiedCacheSize(long verifiedCacheSize) {
+        this.verifiedCacheSize = verifiedCacheSize;
+    }
+
+    public long getStampCacheSize() {
+        return stampCacheSize;
+    }
+
+    public void setStampCacheSize(long stampCacheSize) {
+        this.stampCacheSize = stampCacheSize;
+    }
+
+    public long getStampCacheTtlMs() {
+        return stampCacheTtlMs;
+    }
+
+    public void setStampCacheTtlMs(long stampCacheTtlMs) {
+        this.stampCacheTtlMs = stampCacheTtlMs;
+    }
+
+    public PrincipalMode getPrincipalMode() {
+        return principalMode;
+    }
+
+    public void setPrincipalMode(PrincipalMode principalMode) {
+        this.principalMode = principalMode;
+    }
+
+    /**
+     * DATABASE : le principal est rechargé depuis la table users à chaque requête
+     * TOKEN : le principal est reconstruit depuis les claims vérifiés du token,
+     * et rechargé uniquement si l'utilisateur a été modifié depuis l'émission du token (version en base)
+     */
+    public enum PrincipalMode {
+        DATABASE,
+        TOKEN
+    }
+
+    /**
+     * Configuration de la blacklist des tokens (jwt.blacklist.*)
+     */
+    public static class Blacklist {
+
+        private String store = "memory"; // memory | jdbc
+        private boolean bloomEnabled = true; // filtre de Bloom devant le store (non partagé uniquement)
+        private long expectedEntries = 100_000; // dimensionnement du filtre de Bloom
+        private long sweepIntervalMs = 60_000; // purge des tokens expirés
+
+        public String getStore() {
+            return store;
+        }
+
+        public void setStore(String store) {
+            this.store = store;
+        }
+
+        public boolean isBloomEnabled() {
+            return bloomEnabled;
+        }
+
+        public void setBloomEnabled(boolean bloomEnabled) {
+            this.bloomEnabled = bloomEnabled;
+        }
+
+        public long getExpectedEntries() {
+            return expectedEntries;
+        }
+
+        public void setExpectedEntries(long expectedEntries) {
+            this.expectedEntries = expectedEntries;
+        }
+
+        public long getSweepIntervalMs() {
+            return sweepIntervalMs;
+        }
+
+        public void setSweepIntervalMs(long sweepIntervalMs) {
+            this.sweepIntervalMs = sweepIntervalMs;
+        }
+    }
+}
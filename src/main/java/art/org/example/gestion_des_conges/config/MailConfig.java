@@ -1,10 +1,13 @@
 package art.org.example.gestion_des_conges.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.Properties;
 
@@ -27,6 +30,14 @@ public class MailConfig {
                         "Content:\n" + simpleMessage.getText() + "\n" +
                         "═══════════════════════════════════════════════════\n");
             }
+
+            // Envoi par lot (outbox) : même affichage pour chaque message
+            @Override
+            public void send(SimpleMailMessage... simpleMessages) {
+                for (SimpleMailMessage simpleMessage : simpleMessages) {
+                    send(simpleMessage);
+                }
+            }
         };
 
         // Basic configuration (not really used since we override send)
@@ -39,4 +50,20 @@ public class MailConfig {
 
         return mailSender;
     }
+
+    /**
+     * Pool borné des workers d'envoi de l'outbox (un lot = une connexion SMTP)
+     */
+    @Bean
+    public ThreadPoolTaskExecutor mailExecutor(@Value("${app.mail.outbox.workers:2}") int workers,
+                                               Environment environment) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers);
+        executor.setThreadNamePrefix("mail-outbox-");
+        JobConfig.useVirtualThreads(executor, environment, "mail-outbox-");
+        executor.initialize();
+        return executor;
+    }
 }
\ No newline at end of file
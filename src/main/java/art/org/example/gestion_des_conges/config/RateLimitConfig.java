@@ -0,0 +1,113 @@
+package art.org.example.gestion_des_conges.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Limitation de débit des routes publiques coûteuses (app.rate-limit.*).
+ * Chaque règle limite une route POST par clé : l'adresse IP ("ip") ou un champ du corps JSON ("username", "email"...).
+ * Les règles définies dans les propriétés remplacent les règles par défaut.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitConfig {
+
+    private boolean enabled = true;
+    private long maxKeys = 100_000; // nombre max de compteurs gardés en mémoire
+    private List<Rule> rules = defaultRules();
+
+    private static List<Rule> defaultRules() {
+        List<Rule> rules = new ArrayList<>();
+        rules.add(new Rule("/api/auth/login", "ip", 20, 60));
+        rules.add(new Rule("/api/auth/login", "username", 5, 60));
+        rules.add(new Rule("/api/auth/reset-password-request", "ip", 5, 60));
+        rules.add(new Rule("/api/auth/reset-password-request", "email", 3, 900));
+        rules.add(new Rule("/api/auth/reset-password", "ip", 10, 60));
+        return rules;
+    }
+
+    // Getters et Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaxKeys() {
+        return maxKeys;
+    }
+
+    public void setMaxKeys(long maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    public void setRules(List<Rule> rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Une règle : au plus "capacity" requêtes par "periodSeconds" pour une même clé
+     */
+    public static class Rule {
+
+        private String path;
+        private String key = "ip"; // "ip" ou nom d'un champ du corps JSON
+        private int capacity;
+        private long periodSeconds;
+
+        public Rule() {
+        }
+
+        public Rule(String path, String key, int capacity, long periodSeconds) {
+            this.path = path;
+            this.key = key;
+            this.capacity = capacity;
+            this.periodSeconds = periodSeconds;
+        }
+
+        public boolean isPerIp() {
+            return "ip".equalsIgnoreCase(key);
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public void setKey(String key) {
+            this.key = key;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public long getPeriodSeconds() {
+            return periodSeconds;
+        }
+
+        public void setPeriodSeconds(long periodSeconds) {
+            this.periodSeconds = periodSeconds;
+        }
+    }
+}
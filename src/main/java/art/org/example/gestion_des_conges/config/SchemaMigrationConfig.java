@@ -0,0 +1,26 @@
+package art.org.example.gestion_des_conges.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(name = "app.schema.migrate", havingValue = "true", matchIfMissing = true)
+public class SchemaMigrationConfig {
+
+    /**
+     * Les migrations possèdent le schéma : elles passent avant Hibernate (ddl-auto=validate)
+     */
+    @Bean
+    public SchemaMigrator schemaMigrator(DataSource dataSource) {
+        return new SchemaMigrator(dataSource);
+    }
+
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor schemaMigratorDependsOnPostProcessor() {
+        return new EntityManagerFactoryDependsOnPostProcessor("schemaMigrator");
+    }
+}
@@ -0,0 +1,207 @@
+package art.org.example.gestion_des_conges.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Migrations versionnées du schéma, même disposition que Flyway :
+ * classpath:db/migration/common puis classpath:db/migration/{vendor} (postgresql, h2),
+ * fichiers V<version>__<description>.sql appliqués une seule fois, dans l'ordre des versions.
+ * Chaque migration est exécutée dans sa transaction et enregistrée dans schema_history avec sa somme
+ * de contrôle : un script déjà appliqué puis modifié bloque le démarrage.
+ * Une base existante sans historique (créée par ddl-auto=update) est marquée en V1 sans l'exécuter.
+ */
+public class SchemaMigrator implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaMigrator.class);
+
+    private static final Pattern MIGRATION_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+    private static final String HISTORY_TABLE = "schema_history";
+    private static final int BASELINE_VERSION = 1;
+    // Verrou consultatif PostgreSQL : une seule instance migre à la fois
+    private static final long ADVISORY_LOCK_KEY = 0x636f6e676573L;
+
+    private final DataSource dataSource;
+    private final PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+
+    record Migration(int version, String description, String script, Resource resource, long checksum) {
+    }
+
+    public SchemaMigrator(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        migrate();
+    }
+
+    /**
+     * Applique les migrations en attente et retourne leur nombre
+     */
+    public int migrate() throws SQLException, IOException {
+        try (Connection connection = dataSource.getConnection()) {
+            String vendor = DatabaseDriver.fromJdbcUrl(connection.getMetaData().getURL()).getId();
+            boolean postgres = DatabaseDriver.POSTGRESQL.getId().equals(vendor);
+            if (postgres) {
+                try (PreparedStatement lock = connection.prepareStatement("SELECT pg_advisory_lock(?)")) {
+                    lock.setLong(1, ADVISORY_LOCK_KEY);
+                    lock.execute();
+                }
+            }
+            try {
+                return migrate(connection, findMigrations(vendor));
+            } finally {
+                if (postgres) {
+                    try (PreparedStatement unlock = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+                        unlock.setLong(1, ADVISORY_LOCK_KEY);
+                        unlock.execute();
+                    }
+                }
+            }
+        }
+    }
+
+    List<Migration> findMigrations(String vendor) throws IOException {
+        Map<Integer, Migration> migrations = new TreeMap<>();
+        for (String location : List.of("common", vendor)) {
+            for (Resource resource : resolver.getResources("classpath*:db/migration/" + location + "/V*__*.sql")) {
+                Matcher matcher = MIGRATION_NAME.matcher(Objects.requireNonNull(resource.getFilename()));
+                if (!matcher.matches()) {
+                    throw new IllegalStateException("Nom de migration invalide : " + resource.getFilename());
+                }
+                int version = Integer.parseInt(matcher.group(1));
+                String script = location + "/" + resource.getFilename();
+                Migration migration = new Migration(version, matcher.group(2).replace('_', ' '),
+                        script, resource, checksum(resource));
+                Migration duplicate = migrations.put(version, migration);
+                if (duplicate != null) {
+                    throw new IllegalStateException("Version de migration en double : "
+                            + duplicate.script() + " et " + script);
+                }
+            }
+        }
+        return new ArrayList<>(migrations.values());
+    }
+
+    private int migrate(Connection connection, List<Migration> migrations) throws SQLException {
+        Map<Integer, Long> applied = loadHistory(connection);
+
+        int count = 0;
+        for (Migration migration : migrations) {
+            if (applied.containsKey(migration.version())) {
+                Long checksum = applied.get(migration.version());
+                if (checksum != null && checksum != migration.checksum()) {
+                    throw new IllegalStateException("La migration " + migration.script()
+                            + " a été modifiée après avoir été appliquée");
+                }
+                continue;
+            }
+            apply(connection, migration);
+            count++;
+        }
+        if (count > 0) {
+            log.info("Schéma migré : {} migration(s) appliquée(s)", count);
+        }
+        return count;
+    }
+
+    private void apply(Connection connection, Migration migration) throws SQLException {
+        log.info("Migration V{} : {}", migration.version(), migration.description());
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            ScriptUtils.executeSqlScript(connection, new EncodedResource(migration.resource(), StandardCharsets.UTF_8));
+            recordHistory(connection, migration.version(), migration.description(), migration.script(),
+                    migration.checksum());
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw new IllegalStateException("Échec de la migration " + migration.script(), e);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    // Versions appliquées et leur somme de contrôle (null pour la version de référence)
+    private Map<Integer, Long> loadHistory(Connection connection) throws SQLException {
+        if (!tableExists(connection, HISTORY_TABLE)) {
+            boolean existingSchema = tableExists(connection, "users");
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE " + HISTORY_TABLE + " (" +
+                        "version INTEGER PRIMARY KEY, " +
+                        "description VARCHAR(200) NOT NULL, " +
+                        "script VARCHAR(1000) NOT NULL, " +
+                        "checksum BIGINT, " +
+                        "installed_at TIMESTAMP NOT NULL)");
+            }
+            if (existingSchema) {
+                log.info("Schéma existant sans historique : marqué en V{}", BASELINE_VERSION);
+                recordHistory(connection, BASELINE_VERSION, "<< baseline >>", "<< baseline >>", null);
+            }
+        }
+
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT version, checksum FROM " + HISTORY_TABLE)) {
+            while (rs.next()) {
+                long checksum = rs.getLong("checksum");
+                applied.put(rs.getInt("version"), rs.wasNull() ? null : checksum);
+            }
+        }
+        return applied;
+    }
+
+    private void recordHistory(Connection connection, int version, String description,
+                               String script, Long checksum) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + HISTORY_TABLE +
+                " (version, description, script, checksum, installed_at) VALUES (?, ?, ?, ?, ?)")) {
+            insert.setInt(1, version);
+            insert.setString(2, description);
+            insert.setString(3, script);
+            if (checksum != null) {
+                insert.setLong(4, checksum);
+            } else {
+                insert.setNull(4, Types.BIGINT);
+            }
+            insert.setTimestamp(5, new Timestamp(System.currentTimeMillis()));
+            insert.executeUpdate();
+        }
+    }
+
+    private static boolean tableExists(Connection connection, String table) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (String name : List.of(table, table.toUpperCase(Locale.ROOT))) {
+            try (ResultSet rs = metaData.getTables(connection.getCatalog(), connection.getSchema(), name, new String[]{"TABLE"})) {
+                if (rs.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Somme de contrôle indépendante des fins de ligne (checkout Windows ou Unix)
+    private static long checksum(Resource resource) throws IOException {
+        String content = new String(resource.getInputStream().readAllBytes(), StandardCharsets.UTF_8)
+                .replace("\r\n", "\n");
+        CRC32 crc = new CRC32();
+        crc.update(content.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+}
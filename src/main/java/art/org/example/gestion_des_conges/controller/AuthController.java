@@ -70,7 +70,8 @@ public class AuthController {
      * GET /api/auth/validate
      */
     @GetMapping("/validate")
-    public ResponseEntity<?> validateToken(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+    public ResponseEntity<?> validateToken(@RequestHeader(value = "Authorization", required = false) String authHeader,
+                                           HttpServletRequest request) {
         Map<String, Object> response = new HashMap<>();
 
         // 1. Vérifier si le header Authorization est présent
@@ -97,8 +98,9 @@ public class AuthController {
             return ResponseEntity.status(401).body(response);
         }
 
-        // 5. Vérifier la validité technique du token
-        if (!tokenProvider.validateToken(token)) {
+        // 5. Vérifier la validité technique du token (déjà faite par le filtre si les claims sont présents)
+        boolean verifiedByFilter = request.getAttribute(JwtTokenProvider.CLAIMS_ATTRIBUTE) != null;
+        if (!verifiedByFilter && !tokenProvider.validateToken(token)) {
             response.put("valid", false);
             response.put("message", "Token expiré ou invalide");
             return ResponseEntity.status(401).body(response);
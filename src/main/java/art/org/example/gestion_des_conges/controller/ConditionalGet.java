@@ -0,0 +1,33 @@
+package art.org.example.gestion_des_conges.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * GET conditionnel : l'ETag est calculé à partir d'une version peu coûteuse, et si le client
+ * a déjà cette version (If-None-Match) on répond 304 sans lire les données ni sérialiser le JSON
+ */
+final class ConditionalGet {
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * @param etag version des données (null : pas d'ETag, réponse toujours complète)
+     * @param body lecture des données, appelée seulement si le client n'est pas à jour
+     */
+    static <T> ResponseEntity<T> respond(WebRequest request, String etag, CacheControl cacheControl,
+                                         Supplier<T> body) {
+        if (etag == null) {
+            return ResponseEntity.ok().cacheControl(cacheControl).body(body.get());
+        }
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(body.get());
+    }
+}
@@ -1,16 +1,25 @@
 package art.org.example.gestion_des_conges.controller;
 
+import art.org.example.gestion_des_conges.config.HttpCacheConfig;
+import art.org.example.gestion_des_conges.dto.CarryOverJobDTO;
 import art.org.example.gestion_des_conges.dto.LeaveBalanceDTO;
+import art.org.example.gestion_des_conges.dto.LeaveMovementDTO;
+import art.org.example.gestion_des_conges.entity.LeaveDays;
 import art.org.example.gestion_des_conges.service.AuthService;
+import art.org.example.gestion_des_conges.service.CarryOverJobService;
 import art.org.example.gestion_des_conges.service.LeaveBalanceService;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/leave-balances")
@@ -22,19 +31,29 @@ public class LeaveBalanceController {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private CarryOverJobService carryOverJobService;
+
+    @Autowired
+    private HttpCacheConfig httpCacheConfig;
+
     /**
      * US-03.5 : Consulter son solde (employé)
      */
     @GetMapping("/me")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<List<LeaveBalanceDTO>> getMyBalances(
-            @RequestParam(required = false) Integer year) {
+            @RequestParam(required = false) Integer year,
+            WebRequest webRequest) {
 
         Long userId = authService.getCurrentUser().getId();
         Integer targetYear = year != null ? year : LocalDate.now().getYear();
 
-        List<LeaveBalanceDTO> balances = leaveBalanceService.getUserBalances(userId, targetYear);
-        return ResponseEntity.ok(balances);
+        // Empreinte des soldes en une requête agrégée : 304 si rien n'a changé,
+        // sinon la même empreinte sert la vue lecture en mémoire (projection relue seulement si elle a changé)
+        String etag = leaveBalanceService.getUserBalancesTag(userId, targetYear);
+        return ConditionalGet.respond(webRequest, etag, httpCacheConfig.balances(),
+                () -> leaveBalanceService.getUserBalances(userId, targetYear, etag));
     }
 
     /**
@@ -82,12 +101,22 @@ public class LeaveBalanceController {
 
     /**
      * US-03.4 : Reporter les soldes (admin)
+     * Le report s'exécute en tâche de fond : suivre son avancement via GET /carry-over/{jobId}
      */
     @PostMapping("/carry-over")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Void> carryOverBalances(@RequestBody CarryOverRequest request) {
-        leaveBalanceService.carryOverBalances(request.getFromYear(), request.getToYear());
-        return ResponseEntity.ok().build();
+    public ResponseEntity<CarryOverJobDTO> carryOverBalances(@RequestBody CarryOverRequest request) {
+        CarryOverJobDTO job = carryOverJobService.startCarryOver(request.getFromYear(), request.getToYear());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    /**
+     * US-03.4 : Avancement d'un report (admin)
+     */
+    @GetMapping("/carry-over/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CarryOverJobDTO> getCarryOverJob(@PathVariable Long jobId) {
+        return ResponseEntity.ok(carryOverJobService.getJob(jobId));
     }
 
     /**
@@ -95,9 +124,38 @@ public class LeaveBalanceController {
      */
     @PostMapping("/initialize-all")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Void> initializeAllUsersForYear(@RequestParam Integer year) {
-        leaveBalanceService.initializeAllUsersForYear(year);
-        return ResponseEntity.ok().build();
+    public ResponseEntity<Map<String, Integer>> initializeAllUsersForYear(@RequestParam Integer year) {
+        int created = leaveBalanceService.initializeAllUsersForYear(year);
+        Map<String, Integer> response = new HashMap<>();
+        response.put("year", year);
+        response.put("created", created);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Journal des mouvements de soldes d'un utilisateur pour une année (admin)
+     */
+    @GetMapping("/ledger/{userId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<LeaveMovementDTO>> getUserLedger(
+            @PathVariable Long userId,
+            @RequestParam(required = false) Integer year) {
+
+        Integer targetYear = year != null ? year : LocalDate.now().getYear();
+        return ResponseEntity.ok(leaveBalanceService.getUserLedger(userId, targetYear));
+    }
+
+    /**
+     * Recalculer les soldes d'une année à partir du journal (admin)
+     */
+    @PostMapping("/ledger/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Integer>> rebuildBalances(@RequestParam Integer year) {
+        int corrected = leaveBalanceService.rebuildBalances(year);
+        Map<String, Integer> response = new HashMap<>();
+        response.put("year", year);
+        response.put("corrected", corrected);
+        return ResponseEntity.ok(response);
     }
 
     // ========== DTOs pour les requêtes ==========
@@ -107,7 +165,7 @@ public class LeaveBalanceController {
         private Long userId;
         private Long leaveTypeId;
         private Integer year;
-        private Double allowance;
+        private LeaveDays allowance; // en jours, par quarts de journée
     }
 
     @Data
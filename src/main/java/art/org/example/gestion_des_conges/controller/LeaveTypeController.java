@@ -1,5 +1,6 @@
 package art.org.example.gestion_des_conges.controller;
 
+import art.org.example.gestion_des_conges.config.HttpCacheConfig;
 import art.org.example.gestion_des_conges.dto.CreateLeaveTypeRequest;
 import art.org.example.gestion_des_conges.dto.LeaveTypeDTO;
 import art.org.example.gestion_des_conges.dto.UpdateLeaveTypeRequest;
@@ -10,6 +11,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.List;
@@ -23,6 +25,9 @@ public class LeaveTypeController {
     @Autowired
     private LeaveTypeService leaveTypeService;
 
+    @Autowired
+    private HttpCacheConfig httpCacheConfig;
+
     /**
      * US-03.1 : Créer un type de congé
      */
@@ -54,24 +59,24 @@ public class LeaveTypeController {
 
     /**
      * Récupérer tous les types de congés
+     * ETag = version du catalogue : 304 sans lecture ni sérialisation si le client est à jour
      */
     @GetMapping
     @PreAuthorize("isAuthenticated()") // Tous les utilisateurs connectés
     public ResponseEntity<List<LeaveTypeDTO>> getAllLeaveTypes(
             @RequestParam(required = false, defaultValue = "false") Boolean activeOnly,
-            @RequestParam(required = false) String search) {
-
-        List<LeaveTypeDTO> leaveTypes;
-
-        if (search != null && !search.trim().isEmpty()) {
-            leaveTypes = leaveTypeService.searchLeaveTypes(search);
-        } else if (activeOnly) {
-            leaveTypes = leaveTypeService.getActiveLeaveTypes();
-        } else {
-            leaveTypes = leaveTypeService.getAllLeaveTypes();
-        }
+            @RequestParam(required = false) String search,
+            WebRequest webRequest) {
 
-        return ResponseEntity.ok(leaveTypes);
+        String etag = "lt-" + leaveTypeService.getCatalogVersion();
+        return ConditionalGet.respond(webRequest, etag, httpCacheConfig.leaveTypes(), () -> {
+            if (search != null && !search.trim().isEmpty()) {
+                return leaveTypeService.searchLeaveTypes(search);
+            } else if (activeOnly) {
+                return leaveTypeService.getActiveLeaveTypes();
+            }
+            return leaveTypeService.getAllLeaveTypes();
+        });
     }
 
     /**
@@ -1,5 +1,6 @@
 package art.org.example.gestion_des_conges.controller;
 
+import art.org.example.gestion_des_conges.config.HttpCacheConfig;
 import art.org.example.gestion_des_conges.dto.TeamDTO;
 import art.org.example.gestion_des_conges.service.TeamService;
 import jakarta.validation.Valid;
@@ -10,9 +11,11 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @RestController
@@ -20,9 +23,14 @@ import java.util.Map;
 @PreAuthorize("hasRole('ADMIN')") // Seul ADMIN peut gérer les équipes
 public class TeamController {
 
+    private static final int MAX_MEMBER_PREVIEW = 20;
+
     @Autowired
     private TeamService teamService;
 
+    @Autowired
+    private HttpCacheConfig httpCacheConfig;
+
     /**
      * US-02.5 : Créer une nouvelle équipe
      */
@@ -34,19 +42,34 @@ public class TeamController {
 
     /**
      * US-02.5 : Récupérer toutes les équipes
+     * view=summary : validateur et nombre de membres, plus les preview premiers membres si preview > 0
+     * view=full (par défaut) : avec la liste complète des membres
+     * ETag = version de la liste des équipes : 304 sans lecture des équipes si le client est à jour
      */
     @GetMapping
-    public ResponseEntity<List<TeamDTO>> getAllTeams(
-            @RequestParam(required = false) String search) {
-
-        List<TeamDTO> teams;
-        if (search != null && !search.trim().isEmpty()) {
-            teams = teamService.searchTeams(search);
-        } else {
-            teams = teamService.getAllTeams();
+    public ResponseEntity<?> getAllTeams(
+            @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "full") String view,
+            @RequestParam(defaultValue = "0") int preview,
+            WebRequest webRequest) {
+
+        TeamService.View teamView;
+        try {
+            teamView = TeamService.View.valueOf(view.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Vue inconnue : " + view + " (summary ou full)");
+            return ResponseEntity.badRequest().body(error);
         }
-
-        return ResponseEntity.ok(teams);
+        int previewSize = Math.max(0, Math.min(preview, MAX_MEMBER_PREVIEW));
+
+        String etag = "teams-" + teamService.getTeamsVersion();
+        return ConditionalGet.respond(webRequest, etag, httpCacheConfig.teams(), () -> {
+            if (search != null && !search.trim().isEmpty()) {
+                return teamService.searchTeams(search, teamView, previewSize);
+            }
+            return teamService.getAllTeams(teamView, previewSize);
+        });
     }
 
     /**
@@ -1,22 +1,29 @@
 package art.org.example.gestion_des_conges.controller;
 
+import art.org.example.gestion_des_conges.dto.BulkUserImportResult;
 import art.org.example.gestion_des_conges.dto.CreateUserRequest;
 import art.org.example.gestion_des_conges.dto.UpdateUserRequest;
 import art.org.example.gestion_des_conges.dto.UserDTO;
+import art.org.example.gestion_des_conges.dto.UserPageDTO;
 import art.org.example.gestion_des_conges.entity.User;
 import art.org.example.gestion_des_conges.repository.UserRepository;
+import art.org.example.gestion_des_conges.service.BulkUserImportService;
+import art.org.example.gestion_des_conges.service.CustomUserDetailsService;
 import art.org.example.gestion_des_conges.service.UserService;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,6 +39,12 @@ public class UserController {
     @Autowired // AJOUTER CETTE INJECTION
     private UserRepository userRepository;
 
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private BulkUserImportService bulkUserImportService;
+
     /**
      * US-02.1 : Créer un utilisateur
      */
@@ -42,17 +55,47 @@ public class UserController {
     }
 
     /**
-     * US-02.3 : Liste des utilisateurs avec recherche
+     * Import en masse d'utilisateurs (CSV avec en-tête ou tableau JSON)
+     * Retourne le résultat ligne par ligne : les lignes invalides n'empêchent pas les autres
+     */
+    @PostMapping(value = "/bulk", consumes = {"text/csv", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> bulkImportUsers(HttpServletRequest request) throws IOException {
+        try {
+            String contentType = request.getContentType();
+            BulkUserImportResult result = contentType != null && contentType.startsWith("text/csv")
+                    ? bulkUserImportService.importCsv(request.getInputStream())
+                    : bulkUserImportService.importJson(request.getInputStream());
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * US-02.3 : Liste des utilisateurs avec recherche, paginée par curseur
+     * GET /api/users?limit=50&cursor=...&includeTotal=true
      */
     @GetMapping
-    public ResponseEntity<List<UserDTO>> getAllUsers(
+    public ResponseEntity<?> getAllUsers(
             @RequestParam(required = false) String search,
             @RequestParam(required = false) User.Role role,
-            @RequestParam(required = false) Long teamId) {
-
-        List<UserDTO> users = userService.searchUsers(search, role, teamId);
-        return ResponseEntity.ok(users);
+            @RequestParam(required = false) Long teamId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        try {
+            UserPageDTO users = userService.listUsers(search, role, teamId, cursor, limit, includeTotal);
+            return ResponseEntity.ok(users);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
     }
+
     /**
      * US-02.3 : Recherche avancée d'utilisateurs
      * GET /api/users/search?q=...
@@ -167,6 +210,14 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Statistiques du cache des utilisateurs (hits, misses, évictions)
+     */
+    @GetMapping("/cache-stats")
+    public ResponseEntity<Map<String, Object>> getUserCacheStats() {
+        return ResponseEntity.ok(userDetailsService.getCacheStats());
+    }
+
     /**
      * AJOUTER cette méthode pour permettre aux employés de voir leur propre profil
      */
@@ -0,0 +1,15 @@
+package art.org.example.gestion_des_conges.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class BulkUserImportResult {
+    private int total;
+    private int created;
+    private int rejected;
+    private long durationMs;
+    private List<BulkUserImportRowResult> rows = new ArrayList<>();
+}
@@ -0,0 +1,16 @@
+package art.org.example.gestion_des_conges.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUserImportRowResult {
+    private int line;          // Numéro de ligne (CSV) ou index (JSON), à partir de 1
+    private String username;
+    private String status;     // CREATED ou REJECTED
+    private String message;
+    private Long userId;
+}
@@ -0,0 +1,20 @@
+package art.org.example.gestion_des_conges.dto;
+
+import art.org.example.gestion_des_conges.entity.CarryOverJob;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class CarryOverJobDTO {
+    private Long id;
+    private Integer fromYear;
+    private Integer toYear;
+    private CarryOverJob.Status status;
+    private Integer processedCount;
+    private Integer carriedOverCount;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime finishedAt;
+}
@@ -1,5 +1,6 @@
 package art.org.example.gestion_des_conges.dto;
 
+import art.org.example.gestion_des_conges.entity.LeaveDays;
 import lombok.Data;
 
 @Data
@@ -11,13 +12,13 @@ public class LeaveBalanceDTO {
     private String leaveTypeName;
     private String leaveTypeColor;
     private Integer year;
-    private Double totalAllowance;
-    private Double usedDays;
-    private Double pendingDays;
-    private Double remainingDays;
-    private Double carriedOverDays;
+    private LeaveDays totalAllowance;
+    private LeaveDays usedDays;
+    private LeaveDays pendingDays;
+    private LeaveDays remainingDays;
+    private LeaveDays carriedOverDays;
 
     // Calculés
-    private Double availableDays; // remainingDays (pour l'affichage)
+    private LeaveDays availableDays; // remainingDays (pour l'affichage)
     private Integer percentageUsed; // (usedDays / totalAllowance) * 100
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package art.org.example.gestion_des_conges.dto;
+
+import art.org.example.gestion_des_conges.entity.LeaveDays;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class LeaveMovementDTO {
+    private Long id;
+    private Long userId;
+    private Long leaveTypeId;
+    private Integer year;
+    private String movement; // ALLOCATE, CARRY_OVER, PENDING, APPROVED, REJECTED, CANCELLED
+
+    // Variation de chaque compteur du solde
+    private LeaveDays allowanceDelta;
+    private LeaveDays usedDelta;
+    private LeaveDays pendingDelta;
+    private LeaveDays carriedOverDelta;
+
+    private LocalDateTime createdAt;
+}
@@ -1,9 +1,13 @@
 package art.org.example.gestion_des_conges.dto;
 
 import art.org.example.gestion_des_conges.entity.User;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor // Utilisé par les projections JPQL (SELECT new UserDTO(...))
 public class UserDTO {
     private Long id;
     private String nom;        // lastName
@@ -14,5 +18,4 @@ public class UserDTO {
     private Boolean actif;     // active
     private Long teamId;
     private String teamNom;
-
 }
\ No newline at end of file
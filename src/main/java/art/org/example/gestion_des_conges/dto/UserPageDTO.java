@@ -0,0 +1,16 @@
+package art.org.example.gestion_des_conges.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Page d'utilisateurs (pagination par curseur)
+ */
+@Data
+public class UserPageDTO {
+    private List<UserDTO> items;
+    private String nextCursor; // À renvoyer dans "cursor" pour la page suivante, null si dernière page
+    private boolean hasMore;
+    private Long total;        // Calculé uniquement si includeTotal=true
+}
@@ -0,0 +1,61 @@
+package art.org.example.gestion_des_conges.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Job de report des soldes d'une année sur la suivante.
+ * lastBalanceId sert de point de reprise : il est enregistré dans la même transaction que chaque page traitée.
+ */
+@Entity
+@Table(name = "carry_over_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CarryOverJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Integer fromYear;
+
+    @Column(nullable = false)
+    private Integer toYear;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.RUNNING;
+
+    @Column(nullable = false)
+    private Long lastBalanceId = 0L; // Dernier solde traité (pagination par clé)
+
+    @Column(nullable = false)
+    private Integer processedCount = 0; // Soldes de fromYear examinés
+
+    @Column(nullable = false)
+    private Integer carriedOverCount = 0; // Soldes de toYear créés ou mis à jour
+
+    @Column(length = 1000)
+    private String error;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now(); // Sert aussi de signe de vie
+
+    @Column
+    private LocalDateTime finishedAt;
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -30,20 +30,21 @@ public class LeaveBalance {
     @Column(nullable = false)
     private Integer year; // 2025
 
+    // Jours en quarts de journée entiers (voir LeaveDays)
     @Column(nullable = false)
-    private Double totalAllowance = 0.0; // Droits totaux (initial + reportés)
+    private long totalAllowanceQuarters; // Droits totaux (initial + reportés)
 
     @Column(nullable = false)
-    private Double usedDays = 0.0; // Jours utilisés
+    private long usedQuarters; // Jours utilisés
 
     @Column(nullable = false)
-    private Double pendingDays = 0.0; // Jours en attente de validation
+    private long pendingQuarters; // Jours en attente de validation
 
     @Column(nullable = false)
-    private Double remainingDays = 0.0; // Jours restants
+    private long remainingQuarters; // Jours restants
 
     @Column(nullable = false)
-    private Double carriedOverDays = 0.0; // Jours reportés de l'année précédente
+    private long carriedOverQuarters; // Jours reportés de l'année précédente
 
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
@@ -51,6 +52,11 @@ public class LeaveBalance {
     @Column
     private LocalDateTime updatedAt;
 
+    // Verrouillage optimiste : une sauvegarde d'entité échoue si un autre écrit le solde entre-temps
+    @Version
+    @Column(nullable = false)
+    private Long version = 0L;
+
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
@@ -58,11 +64,11 @@ public class LeaveBalance {
 
     // Méthode utilitaire pour recalculer le solde
     public void recalculateRemaining() {
-        this.remainingDays = this.totalAllowance - this.usedDays - this.pendingDays;
+        this.remainingQuarters = this.totalAllowanceQuarters - this.usedQuarters - this.pendingQuarters;
     }
 
     // Vérifier si assez de solde disponible
-    public boolean hasSufficientBalance(Double requestedDays) {
-        return this.remainingDays >= requestedDays;
+    public boolean hasSufficientBalance(LeaveDays requestedDays) {
+        return this.remainingQuarters >= requestedDays.quarters();
     }
 }
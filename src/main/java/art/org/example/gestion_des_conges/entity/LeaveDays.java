@@ -0,0 +1,96 @@
+package art.org.example.gestion_des_conges.entity;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Durée de congé en quarts de journée entiers (demi-journées et quarts de journée exacts).
+ * Les soldes et le journal stockent ces unités dans des colonnes BIGINT : l'arithmétique est entière,
+ * sans dérive d'arrondi, et les comparaisons SQL portent sur des entiers.
+ * En JSON la durée reste un nombre de jours (2.5, 0.25...).
+ */
+@JsonDeserialize(using = LeaveDays.JsonReader.class)
+public record LeaveDays(long quarters) implements Comparable<LeaveDays> {
+
+    public static final int UNITS_PER_DAY = 4;
+
+    public static final LeaveDays ZERO = new LeaveDays(0);
+
+    public static LeaveDays ofQuarters(long quarters) {
+        return quarters == 0 ? ZERO : new LeaveDays(quarters);
+    }
+
+    /**
+     * Durée en jours, refusée si elle n'est pas un multiple d'un quart de journée
+     */
+    public static LeaveDays of(double days) {
+        double units = days * UNITS_PER_DAY;
+        if (Double.isNaN(units) || Double.isInfinite(units) || units != Math.rint(units)) {
+            throw new IllegalArgumentException("Durée invalide (multiple d'un quart de journée attendu) : " + days);
+        }
+        return ofQuarters((long) units);
+    }
+
+    /**
+     * Conversion d'une valeur historique en jours (type de congé, données migrées) au quart de journée le plus proche
+     */
+    public static LeaveDays rounded(double days) {
+        return ofQuarters(Math.round(days * UNITS_PER_DAY));
+    }
+
+    @JsonValue
+    public double days() {
+        return (double) quarters / UNITS_PER_DAY;
+    }
+
+    public LeaveDays plus(LeaveDays other) {
+        return ofQuarters(Math.addExact(quarters, other.quarters));
+    }
+
+    public LeaveDays minus(LeaveDays other) {
+        return ofQuarters(Math.subtractExact(quarters, other.quarters));
+    }
+
+    public LeaveDays negate() {
+        return ofQuarters(Math.negateExact(quarters));
+    }
+
+    public boolean isNegative() {
+        return quarters < 0;
+    }
+
+    @Override
+    public int compareTo(LeaveDays other) {
+        return Long.compare(quarters, other.quarters);
+    }
+
+    @Override
+    public String toString() {
+        return days() + " j";
+    }
+
+    /**
+     * Lecture JSON d'un nombre de jours (un entier JSON est un nombre de jours, pas de quarts)
+     */
+    static class JsonReader extends StdScalarDeserializer<LeaveDays> {
+
+        JsonReader() {
+            super(LeaveDays.class);
+        }
+
+        @Override
+        public LeaveDays deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            double days = _parseDoublePrimitive(parser, context);
+            try {
+                return of(days);
+            } catch (IllegalArgumentException e) {
+                return (LeaveDays) context.handleWeirdNumberValue(LeaveDays.class, days, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package art.org.example.gestion_des_conges.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Email en attente d'envoi (outbox) : écrit dans la même transaction que l'action métier,
+ * puis envoyé de manière asynchrone par EmailOutboxDispatcher
+ */
+@Entity
+@Table(name = "outbound_emails",
+        indexes = @Index(name = "idx_outbound_emails_status_next", columnList = "status, next_attempt_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboundEmail {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(length = 10000)
+    private String body; // Vidé après envoi ou abandon (peut contenir un mot de passe temporaire)
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column
+    private LocalDateTime sentAt;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public enum Status {
+        PENDING,  // En attente (ou en attente de nouvel essai)
+        SENDING,  // Réservé par un worker jusqu'à nextAttemptAt
+        SENT,
+        DEAD      // Abandonné après le nombre max de tentatives
+    }
+}
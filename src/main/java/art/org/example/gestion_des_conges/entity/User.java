@@ -61,6 +61,10 @@ public class User implements UserDetails {
     @Column
     private LocalDateTime updatedAt;
 
+    // Version des tokens (UserTokenStampRegistry) : modifiée uniquement par UPDATE SQL, jamais par l'entité
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Long tokenVersion;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<LeaveBalance> leaveBalances;
 
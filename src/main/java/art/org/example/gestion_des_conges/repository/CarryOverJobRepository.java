@@ -0,0 +1,31 @@
+package art.org.example.gestion_des_conges.repository;
+
+import art.org.example.gestion_des_conges.entity.CarryOverJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CarryOverJobRepository extends JpaRepository<CarryOverJob, Long> {
+
+    // Job déjà en cours pour les mêmes années (un seul à la fois)
+    Optional<CarryOverJob> findFirstByFromYearAndToYearAndStatus(Integer fromYear, Integer toYear,
+                                                                 CarryOverJob.Status status);
+
+    // Jobs en cours sans signe de vie depuis :before (instance arrêtée ou plantée)
+    List<CarryOverJob> findByStatusAndUpdatedAtBefore(CarryOverJob.Status status, LocalDateTime before);
+
+    // Reprise atomique d'un job abandonné : 1 si cette instance l'a obtenu
+    @Modifying
+    @Transactional
+    @Query("UPDATE CarryOverJob j SET j.updatedAt = :now " +
+            "WHERE j.id = :id AND j.status = 'RUNNING' AND j.updatedAt = :lastSeen")
+    int claim(@Param("id") Long id, @Param("lastSeen") LocalDateTime lastSeen, @Param("now") LocalDateTime now);
+}
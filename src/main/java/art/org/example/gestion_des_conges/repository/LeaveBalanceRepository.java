@@ -1,9 +1,11 @@
 package art.org.example.gestion_des_conges.repository;
 
 import art.org.example.gestion_des_conges.entity.LeaveBalance;
+import art.org.example.gestion_des_conges.entity.LeaveDays;
 import art.org.example.gestion_des_conges.entity.LeaveType;
 import art.org.example.gestion_des_conges.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -27,15 +29,79 @@ public interface LeaveBalanceRepository extends JpaRepository<LeaveBalance, Long
     @Query("SELECT lb FROM LeaveBalance lb WHERE lb.user.id = :userId AND lb.year = :year")
     List<LeaveBalance> findByUserIdAndYear(@Param("userId") Long userId, @Param("year") Integer year);
 
-    // Trouver les utilisateurs avec solde faible
-    @Query("SELECT lb FROM LeaveBalance lb WHERE lb.remainingDays < :threshold AND lb.year = :year")
-    List<LeaveBalance> findUsersWithLowBalance(@Param("threshold") Double threshold, @Param("year") Integer year);
+    // Colonnes d'un solde courant : projection (leave_balances) + somme des mouvements non reportés du journal.
+    // Lignes : id, user_id, first_name, last_name, leave_type_id, year, puis en quarts de journée
+    // total, used, pending, remaining, carried_over
+    String CURRENT_BALANCE_COLUMNS = "SELECT lb.id, u.id, u.first_name, u.last_name, lb.leave_type_id, lb.year, " +
+            "lb.total_allowance_quarters + COALESCE(t.allowance, 0), lb.used_quarters + COALESCE(t.used, 0), " +
+            "lb.pending_quarters + COALESCE(t.pending, 0), " +
+            "lb.remaining_quarters + COALESCE(t.allowance - t.used - t.pending, 0), " +
+            "lb.carried_over_quarters + COALESCE(t.carried_over, 0) " +
+            "FROM leave_balances lb JOIN users u ON u.id = lb.user_id ";
+
+    String LEDGER_TAIL_SUMS = "SUM(allowance_quarters) AS allowance, SUM(used_quarters) AS used, " +
+            "SUM(pending_quarters) AS pending, SUM(carried_over_quarters) AS carried_over FROM leave_ledger ";
+
+    // Droits annuels par défaut d'un type (en jours) convertis au quart de journée le plus proche
+    String DEFAULT_ALLOWANCE_QUARTERS =
+            "CAST(ROUND(lt.defaultAnnualAllowance * " + LeaveDays.UNITS_PER_DAY + ", 0) AS Long)";
+
+    // Empreinte des soldes d'un utilisateur pour une année, sans les charger : nombre, plus grand id,
+    // somme des versions (augmente à chaque report du journal dans un solde), dernière modification
+    // de l'utilisateur, nombre de mouvements non reportés (augmente à chaque écriture)
+    @Query(value = "SELECT COUNT(*), MAX(lb.id), SUM(lb.version), MAX(u.updated_at), " +
+            "(SELECT COUNT(*) FROM leave_ledger l WHERE l.user_id = :userId AND l.year = :year AND l.folded = FALSE) " +
+            "FROM leave_balances lb JOIN users u ON u.id = lb.user_id " +
+            "WHERE lb.user_id = :userId AND lb.year = :year", nativeQuery = true)
+    List<Object[]> findBalanceStamp(@Param("userId") Long userId, @Param("year") Integer year);
+
+    // Soldes courants d'un utilisateur pour une année en projection (sans charger les entités),
+    // type de congé par sa clé étrangère : nom et couleur viennent du catalogue
+    @Query(value = CURRENT_BALANCE_COLUMNS +
+            "LEFT JOIN (SELECT leave_type_id, " + LEDGER_TAIL_SUMS +
+            "WHERE user_id = :userId AND year = :year AND folded = FALSE GROUP BY leave_type_id) t " +
+            "ON t.leave_type_id = lb.leave_type_id " +
+            "WHERE lb.user_id = :userId AND lb.year = :year ORDER BY lb.id", nativeQuery = true)
+    List<Object[]> findBalanceRowsByUserIdAndYear(@Param("userId") Long userId, @Param("year") Integer year);
+
+    // Solde courant d'un utilisateur pour un type et une année (mêmes colonnes)
+    @Query(value = CURRENT_BALANCE_COLUMNS +
+            "LEFT JOIN (SELECT leave_type_id, " + LEDGER_TAIL_SUMS +
+            "WHERE user_id = :userId AND year = :year AND leave_type_id = :leaveTypeId AND folded = FALSE " +
+            "GROUP BY leave_type_id) t ON t.leave_type_id = lb.leave_type_id " +
+            "WHERE lb.user_id = :userId AND lb.leave_type_id = :leaveTypeId AND lb.year = :year", nativeQuery = true)
+    List<Object[]> findBalanceRow(@Param("userId") Long userId, @Param("leaveTypeId") Long leaveTypeId,
+                                  @Param("year") Integer year);
+
+    // Verrou sur un solde, pour les écritures absolues (droits redéfinis) calculées sur le solde courant
+    @Query(value = "SELECT lb.id FROM leave_balances lb " +
+            "WHERE lb.user_id = :userId AND lb.leave_type_id = :leaveTypeId AND lb.year = :year FOR UPDATE",
+            nativeQuery = true)
+    Optional<Long> lockBalance(@Param("userId") Long userId, @Param("leaveTypeId") Long leaveTypeId,
+                               @Param("year") Integer year);
+
+    // Trouver les utilisateurs avec solde faible (solde courant, mêmes colonnes ; seuil en quarts de journée)
+    @Query(value = CURRENT_BALANCE_COLUMNS +
+            "LEFT JOIN (SELECT user_id, leave_type_id, " + LEDGER_TAIL_SUMS +
+            "WHERE year = :year AND folded = FALSE GROUP BY user_id, leave_type_id) t " +
+            "ON t.user_id = lb.user_id AND t.leave_type_id = lb.leave_type_id " +
+            "WHERE lb.year = :year " +
+            "AND lb.remaining_quarters + COALESCE(t.allowance - t.used - t.pending, 0) < :threshold " +
+            "ORDER BY lb.id", nativeQuery = true)
+    List<Object[]> findUsersWithLowBalance(@Param("threshold") long threshold, @Param("year") Integer year);
 
     // Trouver les soldes à reporter (année précédente)
-    @Query("SELECT lb FROM LeaveBalance lb WHERE lb.year = :year AND lb.remainingDays > 0 " +
+    @Query("SELECT lb FROM LeaveBalance lb WHERE lb.year = :year AND lb.remainingQuarters > 0 " +
             "AND lb.leaveType.allowCarryOver = true")
     List<LeaveBalance> findBalancesToCarryOver(@Param("year") Integer year);
 
+    // Solde d'un utilisateur pour un type et une année, par identifiants
+    @Query("SELECT lb FROM LeaveBalance lb " +
+            "WHERE lb.user.id = :userId AND lb.leaveType.id = :leaveTypeId AND lb.year = :year")
+    Optional<LeaveBalance> findByUserIdAndLeaveTypeIdAndYear(@Param("userId") Long userId,
+                                                             @Param("leaveTypeId") Long leaveTypeId,
+                                                             @Param("year") Integer year);
+
     // Vérifier si un solde existe
     @Query("SELECT CASE WHEN COUNT(lb) > 0 THEN true ELSE false END " +
             "FROM LeaveBalance lb WHERE lb.user.id = :userId AND lb.leaveType.id = :leaveTypeId AND lb.year = :year")
@@ -43,10 +109,33 @@ public interface LeaveBalanceRepository extends JpaRepository<LeaveBalance, Long
                                                 @Param("leaveTypeId") Long leaveTypeId,
                                                 @Param("year") Integer year);
 
-    // Statistiques : Total jours utilisés par équipe
-    @Query("SELECT SUM(lb.usedDays) FROM LeaveBalance lb " +
+    // Initialisation d'une année en une seule requête : tous les utilisateurs x types actifs,
+    // sans toucher aux soldes déjà existants. Retourne le nombre de soldes créés.
+    @Modifying
+    @Query("INSERT INTO LeaveBalance (user, leaveType, year, totalAllowanceQuarters, usedQuarters, " +
+            "pendingQuarters, remainingQuarters, carriedOverQuarters, createdAt) " +
+            "SELECT u, lt, :year, " + DEFAULT_ALLOWANCE_QUARTERS + ", 0, 0, " + DEFAULT_ALLOWANCE_QUARTERS +
+            ", 0, LOCAL DATETIME " +
+            "FROM User u, LeaveType lt WHERE lt.isActive = true " +
+            "AND NOT EXISTS (SELECT 1 FROM LeaveBalance lb " +
+            "WHERE lb.user = u AND lb.leaveType = lt AND lb.year = :year)")
+    int insertMissingBalancesForYear(@Param("year") Integer year);
+
+    // Même initialisation limitée à un utilisateur
+    @Modifying
+    @Query("INSERT INTO LeaveBalance (user, leaveType, year, totalAllowanceQuarters, usedQuarters, " +
+            "pendingQuarters, remainingQuarters, carriedOverQuarters, createdAt) " +
+            "SELECT u, lt, :year, " + DEFAULT_ALLOWANCE_QUARTERS + ", 0, 0, " + DEFAULT_ALLOWANCE_QUARTERS +
+            ", 0, LOCAL DATETIME " +
+            "FROM User u, LeaveType lt WHERE u.id = :userId AND lt.isActive = true " +
+            "AND NOT EXISTS (SELECT 1 FROM LeaveBalance lb " +
+            "WHERE lb.user = u AND lb.leaveType = lt AND lb.year = :year)")
+    int insertMissingBalancesForUser(@Param("userId") Long userId, @Param("year") Integer year);
+
+    // Statistiques : Total jours utilisés par équipe (en quarts de journée)
+    @Query("SELECT SUM(lb.usedQuarters) FROM LeaveBalance lb " +
             "WHERE lb.user.team.id = :teamId AND lb.year = :year")
-    Double getTotalUsedDaysByTeam(@Param("teamId") Long teamId, @Param("year") Integer year);
+    Long getTotalUsedQuartersByTeam(@Param("teamId") Long teamId, @Param("year") Integer year);
 
     // Supprimer les soldes d'un utilisateur
     void deleteByUser(User user);
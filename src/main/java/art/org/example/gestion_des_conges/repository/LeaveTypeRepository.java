@@ -27,12 +27,6 @@ public interface LeaveTypeRepository extends JpaRepository<LeaveType, Long> {
     // Trouver les types actifs par ordre d'affichage
     List<LeaveType> findByIsActiveTrueOrderByDisplayOrderAsc();
 
-    // Recherche par nom ou description
-    @Query("SELECT lt FROM LeaveType lt WHERE " +
-            "LOWER(lt.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-            "LOWER(lt.description) LIKE LOWER(CONCAT('%', :search, '%'))")
-    List<LeaveType> searchLeaveTypes(@Param("search") String search);
-
     // Vérifier unicité du nom (sauf pour l'ID courant)
     @Query("SELECT CASE WHEN COUNT(lt) > 0 THEN true ELSE false END " +
             "FROM LeaveType lt WHERE LOWER(lt.name) = LOWER(:name) AND lt.id != :excludeId")
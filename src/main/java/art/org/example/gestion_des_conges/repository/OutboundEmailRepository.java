@@ -0,0 +1,31 @@
+package art.org.example.gestion_des_conges.repository;
+
+import art.org.example.gestion_des_conges.entity.OutboundEmail;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboundEmailRepository extends JpaRepository<OutboundEmail, Long> {
+
+    // Emails à envoyer (en attente, ou réservés par un worker dont la réservation a expiré), verrouillés
+    // jusqu'à la fin de la transaction ; ceux qu'une autre instance est en train de réserver sont sautés
+    @Query(value = "SELECT id FROM outbound_emails WHERE status IN ('PENDING', 'SENDING') " +
+            "AND next_attempt_at <= :now ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Long> lockDueIds(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    // Réservation en une requête des emails verrouillés par lockDueIds (même transaction)
+    @Modifying
+    @Query("UPDATE OutboundEmail e SET e.status = 'SENDING', e.attempts = e.attempts + 1, " +
+            "e.nextAttemptAt = :leaseUntil WHERE e.id IN :ids")
+    int claimAll(@Param("ids") List<Long> ids, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    // Compter par statut (supervision)
+    long countByStatus(OutboundEmail.Status status);
+}
@@ -7,12 +7,19 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TeamRepository extends JpaRepository<Team, Long> {
 
+    // Ligne de liste d'une équipe : id, nom, description, createdAt, updatedAt, id/prénom/nom du validateur,
+    // nombre de membres. Une seule requête pour toutes les équipes, les membres ne sont pas chargés.
+    String TEAM_ROW = "SELECT t.id, t.name, t.description, t.createdAt, t.updatedAt, " +
+            "v.id, v.firstName, v.lastName, (SELECT COUNT(m) FROM User m WHERE m.team = t) " +
+            "FROM Team t LEFT JOIN t.validator v ";
+
     Optional<Team> findByName(String name);
 
     boolean existsByName(String name);
@@ -22,14 +29,28 @@ public interface TeamRepository extends JpaRepository<Team, Long> {
     // US-02.6 : Trouver les équipes par validateur (ManyToOne donc plusieurs équipes par validateur)
     List<Team> findByValidator(User validator);
 
-    // Trouver une équipe par ID de validateur
-    Optional<Team> findByValidatorId(Long validatorId);
+    // Lignes de liste de toutes les équipes
+    @Query(TEAM_ROW + "ORDER BY t.name")
+    List<Object[]> findTeamRows();
+
+    // Lignes de liste d'équipes données (résultats de recherche)
+    @Query(TEAM_ROW + "WHERE t.id IN :ids")
+    List<Object[]> findTeamRowsByIds(@Param("ids") Collection<Long> ids);
+
+    // Lignes de liste des équipes sans validateur
+    @Query(TEAM_ROW + "WHERE v IS NULL ORDER BY t.name")
+    List<Object[]> findTeamRowsWithoutValidator();
+
+    // Lignes de liste des équipes vides
+    @Query(TEAM_ROW + "WHERE NOT EXISTS (SELECT m FROM User m WHERE m.team = t) ORDER BY t.name")
+    List<Object[]> findEmptyTeamRows();
 
-    // Trouver TOUTES les équipes d'un validateur (s'il peut en avoir plusieurs)
-    List<Team> findAllByValidatorId(Long validatorId);
+    // Lignes de liste des équipes d'un validateur
+    @Query(TEAM_ROW + "WHERE v.id = :validatorId ORDER BY t.name")
+    List<Object[]> findTeamRowsByValidatorId(@Param("validatorId") Long validatorId);
 
-    // Trouver les équipes sans validateur
-    List<Team> findByValidatorIsNull();
+    // Trouver une équipe par ID de validateur
+    Optional<Team> findByValidatorId(Long validatorId);
 
     // Trouver les équipes avec nom similaire
     @Query("SELECT t FROM Team t WHERE LOWER(t.name) LIKE LOWER(CONCAT('%', :name, '%'))")
@@ -43,19 +64,6 @@ public interface TeamRepository extends JpaRepository<Team, Long> {
     @Query("SELECT DISTINCT t FROM Team t JOIN t.members m WHERE SIZE(t.members) > 0")
     List<Team> findTeamsWithMembers();
 
-    // Trouver les équipes vides
-    @Query("SELECT t FROM Team t WHERE SIZE(t.members) = 0 OR t.members IS EMPTY")
-    List<Team> findEmptyTeams();
-
-    // Recherche d'équipes
-    @Query("SELECT t FROM Team t WHERE LOWER(t.name) LIKE LOWER(CONCAT('%', :search, '%')) " +
-            "OR LOWER(t.description) LIKE LOWER(CONCAT('%', :search, '%'))")
-    List<Team> searchTeams(@Param("search") String search);
-
-    // Trouver toutes les équipes avec leur nombre de membres
-    @Query("SELECT t, COUNT(m) as memberCount FROM Team t LEFT JOIN t.members m GROUP BY t.id ORDER BY t.name")
-    List<Object[]> findAllTeamsWithMemberCount();
-
     // Trouver une équipe avec tous ses membres (chargement eager)
     @Query("SELECT DISTINCT t FROM Team t LEFT JOIN FETCH t.members WHERE t.id = :teamId")
     Optional<Team> findTeamWithMembersById(@Param("teamId") Long teamId);
@@ -70,10 +78,6 @@ public interface TeamRepository extends JpaRepository<Team, Long> {
     boolean existsByNameExcludingId(@Param("name") String name,
                                     @Param("excludeId") Long excludeId);
 
-    // Trouver toutes les équipes avec leur validateur
-    @Query("SELECT t FROM Team t LEFT JOIN FETCH t.validator ORDER BY t.name")
-    List<Team> findAllWithValidator();
-
     // Trouver les équipes où un utilisateur est membre
     @Query("SELECT t FROM Team t JOIN t.members m WHERE m.id = :userId")
     Optional<Team> findTeamByMemberId(@Param("userId") Long userId);
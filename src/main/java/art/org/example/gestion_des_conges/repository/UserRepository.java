@@ -1,17 +1,24 @@
 package art.org.example.gestion_des_conges.repository;
 
+import art.org.example.gestion_des_conges.dto.UserDTO;
 import art.org.example.gestion_des_conges.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    // Filtres de la liste des utilisateurs : rôle, équipe
+    String USER_FILTER = "(:role IS NULL OR u.role = :role) " +
+            "AND (:teamId IS NULL OR t.id = :teamId) ";
+
     Optional<User> findByUsername(String username);
 
     Optional<User> findByEmail(String email);
@@ -24,13 +31,49 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     // === NOUVELLES MÉTHODES POUR SPRINT 2 ===
 
-    // US-02.3 : Recherche d'utilisateurs (nom, prénom, email, username)
-    @Query("SELECT u FROM User u WHERE " +
-            "LOWER(u.firstName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-            "LOWER(u.lastName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-            "LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-            "LOWER(u.username) LIKE LOWER(CONCAT('%', :search, '%'))")
-    List<User> searchUsers(@Param("search") String search);
+    // Liste paginée par curseur : projection directe en UserDTO (pas d'entités chargées),
+    // filtres en base et tri stable (nom, prénom, id). Le curseur est le dernier élément de la page précédente.
+    @Query("SELECT new art.org.example.gestion_des_conges.dto.UserDTO(" +
+            "u.id, u.lastName, u.firstName, u.username, u.email, u.role, u.active, t.id, t.name) " +
+            "FROM User u LEFT JOIN u.team t WHERE " +
+            USER_FILTER +
+            "AND (:afterId IS NULL OR u.lastName > :afterLastName " +
+            "OR (u.lastName = :afterLastName AND (u.firstName > :afterFirstName " +
+            "OR (u.firstName = :afterFirstName AND u.id > :afterId)))) " +
+            "ORDER BY u.lastName, u.firstName, u.id")
+    List<UserDTO> findUserPage(@Param("role") User.Role role,
+                               @Param("teamId") Long teamId,
+                               @Param("afterLastName") String afterLastName,
+                               @Param("afterFirstName") String afterFirstName,
+                               @Param("afterId") Long afterId,
+                               Pageable pageable);
+
+    // US-02.3 : Utilisateurs d'une page de résultats de recherche (ids fournis par SearchIndexService)
+    @Query("SELECT new art.org.example.gestion_des_conges.dto.UserDTO(" +
+            "u.id, u.lastName, u.firstName, u.username, u.email, u.role, u.active, t.id, t.name) " +
+            "FROM User u LEFT JOIN u.team t WHERE u.id IN :ids")
+    List<UserDTO> findUserDTOsByIds(@Param("ids") Collection<Long> ids);
+
+    // Membres de plusieurs équipes en une requête (vue complète de la liste des équipes)
+    @Query("SELECT new art.org.example.gestion_des_conges.dto.UserDTO(" +
+            "u.id, u.lastName, u.firstName, u.username, u.email, u.role, u.active, t.id, t.name) " +
+            "FROM User u JOIN u.team t WHERE t.id IN :teamIds ORDER BY u.lastName, u.firstName, u.id")
+    List<UserDTO> findMemberDTOsByTeamIds(@Param("teamIds") Collection<Long> teamIds);
+
+    // Aperçu des membres : les :limit premiers membres (ordre alphabétique) de chaque équipe
+    // Colonnes : id, nom, prénom, username, email, rôle, actif, équipe
+    @Query(value = "SELECT id, last_name, first_name, username, email, role, active, team_id FROM (" +
+            "SELECT u.id, u.last_name, u.first_name, u.username, u.email, u.role, u.active, u.team_id, " +
+            "ROW_NUMBER() OVER (PARTITION BY u.team_id ORDER BY u.last_name, u.first_name, u.id) AS rn " +
+            "FROM users u WHERE u.team_id IN (:teamIds)) ranked " +
+            "WHERE rn <= :limit ORDER BY team_id, rn", nativeQuery = true)
+    List<Object[]> findMemberPreviewByTeamIds(@Param("teamIds") Collection<Long> teamIds,
+                                              @Param("limit") int limit);
+
+    // Nombre total d'utilisateurs correspondant aux mêmes filtres
+    @Query("SELECT COUNT(u) FROM User u LEFT JOIN u.team t WHERE " + USER_FILTER)
+    long countUsers(@Param("role") User.Role role,
+                    @Param("teamId") Long teamId);
 
     // Filtrer par rôle
     List<User> findByRole(User.Role role);
@@ -65,6 +108,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
             @Param("active") Boolean active
     );
 
+    // Verrou sur un utilisateur : sérialise l'initialisation de ses soldes (premières lectures parallèles)
+    @Query(value = "SELECT u.id FROM users u WHERE u.id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockUser(@Param("id") Long id);
+
+    // Verrou sur tous les utilisateurs, dans l'ordre des ids (même ordre que les autres verrous d'utilisateurs)
+    @Query(value = "SELECT u.id FROM users u ORDER BY u.id FOR UPDATE", nativeQuery = true)
+    List<Long> lockAllUsers();
+
     // Vérifier si un email existe (sauf pour l'utilisateur courant - pour l'édition)
     @Query("SELECT CASE WHEN COUNT(u) > 0 THEN true ELSE false END " +
             "FROM User u WHERE u.email = :email AND u.id != :excludeId")
@@ -77,6 +128,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsernameExcludingId(@Param("username") String username,
                                         @Param("excludeId") Long excludeId);
 
+    // Import en masse : usernames/emails déjà pris parmi ceux d'un lot (une seule requête par lot,
+    // UNION pour que chaque partie utilise son index unique au lieu d'un OR qui parcourt la table)
+    @Query("SELECT u.username, u.email FROM User u WHERE u.username IN :usernames " +
+            "UNION SELECT u.username, u.email FROM User u WHERE u.email IN :emails")
+    List<Object[]> findExistingUsernamesAndEmails(@Param("usernames") Collection<String> usernames,
+                                                  @Param("emails") Collection<String> emails);
+
+    // Import en masse : ids générés des utilisateurs d'un lot
+    @Query("SELECT u.id, u.username FROM User u WHERE u.username IN :usernames")
+    List<Object[]> findIdsByUsernames(@Param("usernames") Collection<String> usernames);
+
     // Trouver les validateurs qui ne sont pas déjà validateurs d'une équipe
     @Query("SELECT u FROM User u WHERE u.role = 'VALIDATEUR' AND u.active = true " +
             "AND NOT EXISTS (SELECT t FROM Team t WHERE t.validator = u)")
@@ -0,0 +1,73 @@
+package art.org.example.gestion_des_conges.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtre de Bloom sans verrou sur des empreintes 64 bits.
+ * mightContain() ne verrouille rien et n'alloue rien : un "false" est certain,
+ * un "true" doit être confirmé auprès du store.
+ */
+class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final int bitCount;
+    private final int hashCount;
+
+    BloomFilter(long expectedEntries, double falsePositiveRate) {
+        long n = Math.max(expectedEntries, 1);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.min(Math.max(m, 64), Integer.MAX_VALUE - 63);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        this.bits = new AtomicLongArray((bitCount + 63) / 64);
+    }
+
+    void put(long fingerprint) {
+        long h1 = fingerprint;
+        long h2 = mix(fingerprint);
+        for (int i = 0; i < hashCount; i++) {
+            int index = (int) Math.floorMod(h1 + i * h2, (long) bitCount);
+            long mask = 1L << index;
+            int word = index >>> 6;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    boolean mightContain(long fingerprint) {
+        long h1 = fingerprint;
+        long h2 = mix(fingerprint);
+        for (int i = 0; i < hashCount; i++) {
+            int index = (int) Math.floorMod(h1 + i * h2, (long) bitCount);
+            if ((bits.get(index >>> 6) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Empreinte 64 bits d'un token, calculée sans allocation (FNV-1a puis mélange)
+     */
+    static long fingerprint(String token) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < token.length(); i++) {
+            hash ^= token.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb93fe53ec34fL;
+        value ^= value >>> 33;
+        return value;
+    }
+}
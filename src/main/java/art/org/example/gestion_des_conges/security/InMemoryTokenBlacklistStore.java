@@ -0,0 +1,48 @@
+package art.org.example.gestion_des_conges.security;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@ConditionalOnProperty(name = "jwt.blacklist.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryTokenBlacklistStore implements TokenBlacklistStore {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public void add(String tokenHash, long fingerprint, Instant expiresAt) {
+        entries.put(tokenHash, new Entry(fingerprint, expiresAt));
+    }
+
+    @Override
+    public boolean contains(String tokenHash) {
+        return entries.containsKey(tokenHash);
+    }
+
+    @Override
+    public void remove(String tokenHash) {
+        entries.remove(tokenHash);
+    }
+
+    @Override
+    public int purgeExpired(Instant now) {
+        int before = entries.size();
+        entries.values().removeIf(entry -> entry.expiresAt().isBefore(now));
+        return before - entries.size();
+    }
+
+    @Override
+    public List<Long> activeFingerprints() {
+        return entries.values().stream()
+                .map(Entry::fingerprint)
+                .toList();
+    }
+
+    private record Entry(long fingerprint, Instant expiresAt) {
+    }
+}
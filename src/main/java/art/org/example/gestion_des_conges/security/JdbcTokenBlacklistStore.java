@@ -0,0 +1,62 @@
+package art.org.example.gestion_des_conges.security;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Tokens révoqués stockés en base : ils survivent aux redémarrages et sont partagés entre les instances
+ */
+@Component
+@ConditionalOnProperty(name = "jwt.blacklist.store", havingValue = "jdbc")
+public class JdbcTokenBlacklistStore implements TokenBlacklistStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcTokenBlacklistStore(JdbcTemplate jdbcTemplate) {
+        // Table créée par la migration V2 (db/migration/common)
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void add(String tokenHash, long fingerprint, Instant expiresAt) {
+        try {
+            jdbcTemplate.update("INSERT INTO revoked_tokens (token_hash, fingerprint, expires_at) VALUES (?, ?, ?)",
+                    tokenHash, fingerprint, Timestamp.from(expiresAt));
+        } catch (DuplicateKeyException e) {
+            // Déjà révoqué (double déconnexion ou autre instance)
+        }
+    }
+
+    @Override
+    public boolean contains(String tokenHash) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM revoked_tokens WHERE token_hash = ?", Integer.class, tokenHash);
+        return count != null && count > 0;
+    }
+
+    @Override
+    public void remove(String tokenHash) {
+        jdbcTemplate.update("DELETE FROM revoked_tokens WHERE token_hash = ?", tokenHash);
+    }
+
+    @Override
+    public int purgeExpired(Instant now) {
+        return jdbcTemplate.update("DELETE FROM revoked_tokens WHERE expires_at < ?", Timestamp.from(now));
+    }
+
+    @Override
+    public List<Long> activeFingerprints() {
+        return jdbcTemplate.queryForList("SELECT fingerprint FROM revoked_tokens", Long.class);
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+}
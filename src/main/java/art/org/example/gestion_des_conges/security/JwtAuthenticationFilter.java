@@ -1,5 +1,8 @@
 package art.org.example.gestion_des_conges.security;
 
+import art.org.example.gestion_des_conges.config.JwtConfig;
+import art.org.example.gestion_des_conges.entity.User;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -21,14 +24,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtTokenProvider tokenProvider;
     private final UserDetailsService userDetailsService;
     private final JwtTokenBlacklist tokenBlacklist;
+    private final JwtConfig jwtConfig;
+    private final UserTokenStampRegistry stampRegistry;
 
     // CORRECTION: Modifier le constructeur pour inclure JwtTokenBlacklist
     public JwtAuthenticationFilter(JwtTokenProvider tokenProvider,
                                    UserDetailsService userDetailsService,
-                                   JwtTokenBlacklist tokenBlacklist) {
+                                   JwtTokenBlacklist tokenBlacklist,
+                                   JwtConfig jwtConfig,
+                                   UserTokenStampRegistry stampRegistry) {
         this.tokenProvider = tokenProvider;
         this.userDetailsService = userDetailsService;
         this.tokenBlacklist = tokenBlacklist;
+        this.jwtConfig = jwtConfig;
+        this.stampRegistry = stampRegistry;
     }
 
     @Override
@@ -50,20 +59,33 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 return; // Arrêter le traitement ici
             }
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
+            // Un seul parsing/vérification du token pour toute la requête
+            Claims claims = StringUtils.hasText(jwt) ? tokenProvider.getValidatedClaims(jwt) : null;
 
-                // OPTION 1: Charger l'utilisateur depuis la base de données
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            if (claims != null) {
+                request.setAttribute(JwtTokenProvider.CLAIMS_ATTRIBUTE, claims);
+                String username = claims.getSubject();
+
+                UserDetails userDetails = null;
 
-                // OPTION 2: Créer un UserDetails à partir du token (plus rapide, moins sécurisé)
-                // UserDetails userDetails = createUserDetailsFromToken(jwt, username);
+                // OPTION 2: Créer un UserDetails à partir du token (sans requête SQL)
+                if (jwtConfig.getPrincipalMode() == JwtConfig.PrincipalMode.TOKEN) {
+                    userDetails = createUserDetailsFromToken(claims, username);
+                }
 
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                // OPTION 1: Charger l'utilisateur depuis la base de données
+                if (userDetails == null) {
+                    userDetails = userDetailsService.loadUserByUsername(username);
+                }
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                // Un compte désactivé ne doit plus être authentifié, même avec un token valide
+                if (userDetails.isEnabled()) {
+                    UsernamePasswordAuthenticationToken authentication =
+                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
             }
         } catch (Exception ex) {
             logger.error("Could not set user authentication in security context", ex);
@@ -72,6 +94,37 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Reconstruit le principal depuis les claims du token.
+     * Retourne null si le token ne porte pas les claims nécessaires (ancien token)
+     * ou si l'utilisateur a été modifié depuis son émission : il faut alors passer par la base.
+     * Le statut actif vient de la version lue en base, pas du token.
+     */
+    private UserDetails createUserDetailsFromToken(Claims claims, String username) {
+        Long userId = claims.get("userId", Long.class);
+        String role = claims.get("role", String.class);
+        Long tokenVersion = claims.get(UserTokenStampRegistry.CLAIM, Long.class);
+        if (userId == null || role == null || tokenVersion == null || !role.startsWith("ROLE_")) {
+            return null;
+        }
+
+        UserTokenStampRegistry.Stamp stamp = stampRegistry.currentStamp(username);
+        if (stamp == null || stamp.version() != tokenVersion) {
+            return null;
+        }
+
+        User user = new User();
+        user.setId(userId);
+        user.setUsername(username);
+        user.setEmail(claims.get("email", String.class));
+        user.setFirstName(claims.get("firstName", String.class));
+        user.setLastName(claims.get("lastName", String.class));
+        user.setRole(User.Role.valueOf(role.substring("ROLE_".length())));
+        user.setTokenVersion(stamp.version());
+        user.setActive(stamp.active());
+        return user;
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -1,25 +1,139 @@
-// security/JwtTokenBlacklist.java - NOUVEAU FICHIER
 package art.org.example.gestion_des_conges.security;
 
+import art.org.example.gestion_des_conges.config.JwtConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Blacklist des tokens révoqués (déconnexion).
+ * Les tokens sont indexés par empreinte et oubliés dès leur propre expiration.
+ * Un filtre de Bloom optionnel répond au cas courant ("non révoqué") sans verrou ni allocation.
+ * Avec un store partagé (jdbc), le filtre local ignore les révocations des autres instances jusqu'à sa
+ * reconstruction : il n'est alors pas utilisé, chaque consultation interroge le store.
+ */
 @Component
 public class JwtTokenBlacklist {
 
-    private final Set<String> blacklistedTokens = new HashSet<>();
+    private static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+
+    private final TokenBlacklistStore store;
+    private final JwtTokenProvider tokenProvider;
+    private final JwtConfig.Blacklist config;
+    private final boolean bloomEnabled;
+
+    private volatile BloomFilter bloomFilter;
+    // Filtre en cours de reconstruction : reçoit aussi les ajouts pour n'en perdre aucun
+    private volatile BloomFilter pendingBloomFilter;
+    // Une seule reconstruction à la fois (ReentrantLock plutôt que synchronized : le store peut faire de l'I/O)
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    // Consultations (app.jwt.blacklist.lookups) : écartées par le filtre de Bloom, absentes du store, révoquées
+    private final Counter bloomNegativeLookups;
+    private final Counter notRevokedLookups;
+    private final Counter revokedLookups;
+    private final Counter revocations;
+
+    public JwtTokenBlacklist(TokenBlacklistStore store, JwtTokenProvider tokenProvider, JwtConfig jwtConfig) {
+        this(store, tokenProvider, jwtConfig, Metrics.globalRegistry);
+    }
+
+    @Autowired
+    public JwtTokenBlacklist(TokenBlacklistStore store, JwtTokenProvider tokenProvider, JwtConfig jwtConfig,
+                             MeterRegistry meterRegistry) {
+        this.store = store;
+        this.tokenProvider = tokenProvider;
+        this.config = jwtConfig.getBlacklist();
+        this.bloomEnabled = config.isBloomEnabled() && !store.isShared();
+        this.bloomNegativeLookups = lookupCounter(meterRegistry, "bloom_negative");
+        this.notRevokedLookups = lookupCounter(meterRegistry, "not_revoked");
+        this.revokedLookups = lookupCounter(meterRegistry, "revoked");
+        this.revocations = Counter.builder("app.jwt.blacklist.revocations")
+                .description("Tokens ajoutés à la blacklist (déconnexions)")
+                .register(meterRegistry);
+        if (bloomEnabled) {
+            rebuildBloomFilter();
+        }
+    }
 
     public void addToBlacklist(String token) {
-        blacklistedTokens.add(token);
+        Date expiration;
+        try {
+            expiration = tokenProvider.getExpirationDateFromToken(token);
+        } catch (Exception e) {
+            // Token invalide ou déjà expiré : il est déjà refusé, inutile de le stocker
+            return;
+        }
+
+        long fingerprint = BloomFilter.fingerprint(token);
+        store.add(JwtTokenProvider.digest(token), fingerprint, expiration.toInstant());
+        revocations.increment();
+
+        // Lire le filtre en reconstruction avant le filtre courant (voir rebuildBloomFilter)
+        BloomFilter pending = pendingBloomFilter;
+        if (pending != null) {
+            pending.put(fingerprint);
+        }
+        BloomFilter bloom = bloomFilter;
+        if (bloom != null) {
+            bloom.put(fingerprint);
+        }
     }
 
     public boolean isBlacklisted(String token) {
-        return blacklistedTokens.contains(token);
+        BloomFilter bloom = bloomFilter;
+        if (bloom != null && !bloom.mightContain(BloomFilter.fingerprint(token))) {
+            bloomNegativeLookups.increment();
+            return false;
+        }
+        boolean revoked = store.contains(JwtTokenProvider.digest(token));
+        (revoked ? revokedLookups : notRevokedLookups).increment();
+        return revoked;
     }
 
     public void removeFromBlacklist(String token) {
-        blacklistedTokens.remove(token);
+        store.remove(JwtTokenProvider.digest(token));
+    }
+
+    /**
+     * Purge périodique des tokens expirés, puis reconstruction du filtre de Bloom
+     * (qui ne supporte pas la suppression)
+     */
+    @Scheduled(fixedDelayString = "${jwt.blacklist.sweep-interval-ms:60000}")
+    public void sweepExpired() {
+        store.purgeExpired(Instant.now());
+        if (bloomEnabled) {
+            rebuildBloomFilter();
+        }
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("app.jwt.blacklist.lookups")
+                .description("Consultations de la blacklist des tokens")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private void rebuildBloomFilter() {
+        rebuildLock.lock();
+        try {
+            BloomFilter rebuilt = new BloomFilter(config.getExpectedEntries(), BLOOM_FALSE_POSITIVE_RATE);
+            // Publier le filtre avant de lire le store : un ajout concurrent atteint l'un ou l'autre
+            pendingBloomFilter = rebuilt;
+            for (Long fingerprint : store.activeFingerprints()) {
+                rebuilt.put(fingerprint);
+            }
+            bloomFilter = rebuilt;
+            pendingBloomFilter = null;
+        } finally {
+            rebuildLock.unlock();
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,22 +1,138 @@
 package art.org.example.gestion_des_conges.security;
 
 import art.org.example.gestion_des_conges.config.JwtConfig;
+import art.org.example.gestion_des_conges.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Component
 public class JwtTokenProvider {
 
+    /**
+     * Attribut de requête où le filtre dépose les claims vérifiés (parsés une seule fois par requête)
+     */
+    public static final String CLAIMS_ATTRIBUTE = JwtTokenProvider.class.getName() + ".CLAIMS";
+
+    private static final Logger log = LoggerFactory.getLogger(JwtTokenProvider.class);
+
     private final JwtConfig jwtConfig;
 
+    // Clés et parser construits une seule fois au démarrage (immuables, thread-safe)
+    private final SecretKey defaultKey;
+    private final Map<String, SecretKey> keysById;
+    private final String signingKeyId;
+    private final SecretKey signingKey;
+    private final JwtParser jwtParser;
+
+    // Tokens déjà vérifiés (clé = empreinte SHA-256), conservés jusqu'à leur expiration
+    private final Cache<String, Claims> verifiedTokens;
+
+    // Vérifications de getValidatedClaims (app.jwt.validations), par résultat
+    private final Counter validTokens;
+    private final Counter expiredTokens;
+    private final Counter badSignatureTokens;
+    private final Counter malformedTokens;
+    private final Counter unsupportedTokens;
+    private final Counter emptyTokens;
+
     public JwtTokenProvider(JwtConfig jwtConfig) {
+        this(jwtConfig, Metrics.globalRegistry);
+    }
+
+    @Autowired
+    public JwtTokenProvider(JwtConfig jwtConfig, MeterRegistry meterRegistry) {
         this.jwtConfig = jwtConfig;
+
+        this.defaultKey = jwtConfig.getSecret() != null ? toKey(jwtConfig.getSecret()) : null;
+        Map<String, SecretKey> keys = new HashMap<>();
+        jwtConfig.getKeys().forEach((kid, secret) -> keys.put(kid, toKey(secret)));
+        this.keysById = Map.copyOf(keys);
+
+        this.signingKeyId = jwtConfig.getActiveKeyId();
+        if (signingKeyId != null) {
+            this.signingKey = keysById.get(signingKeyId);
+            if (signingKey == null) {
+                throw new IllegalStateException("jwt.active-key-id inconnu : " + signingKeyId);
+            }
+        } else if (defaultKey != null) {
+            this.signingKey = defaultKey;
+        } else {
+            throw new IllegalStateException("jwt.secret ou jwt.keys doit être configuré");
+        }
+
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolveKey(header.getKeyId());
+                    }
+                })
+                .build();
+
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(jwtConfig.getVerifiedCacheSize())
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified-tokens");
+
+        this.validTokens = validationCounter(meterRegistry, "valid");
+        this.expiredTokens = validationCounter(meterRegistry, "expired");
+        this.badSignatureTokens = validationCounter(meterRegistry, "bad_signature");
+        this.malformedTokens = validationCounter(meterRegistry, "malformed");
+        this.unsupportedTokens = validationCounter(meterRegistry, "unsupported");
+        this.emptyTokens = validationCounter(meterRegistry, "empty");
+    }
+
+    private static Counter validationCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("app.jwt.validations")
+                .description("Tokens JWT vérifiés")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
 
     /**
@@ -40,15 +156,27 @@ public class JwtTokenProvider {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtConfig.getExpiration());
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .setSubject(userPrincipal.getUsername())
                 .claim("roles", authorities) // Stocke tous les rôles
                 .claim("role", mainRole)     // Rôle principal pour accès rapide
-                .claim("type", "ACCESS_TOKEN") // Type de token
+                .claim("type", "ACCESS_TOKEN"); // Type de token
+
+        // Informations de profil : permettent de reconstruire le principal sans requête (mode TOKEN)
+        if (userPrincipal instanceof User user) {
+            builder.claim("userId", user.getId())
+                    .claim("email", user.getEmail())
+                    .claim("firstName", user.getFirstName())
+                    .claim("lastName", user.getLastName());
+            // Version de l'utilisateur à l'émission : le token est périmé dès qu'elle change
+            if (user.getTokenVersion() != null) {
+                builder.claim(UserTokenStampRegistry.CLAIM, user.getTokenVersion());
+            }
+        }
+
+        return sign(builder
                 .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(SignatureAlgorithm.HS512, jwtConfig.getSecret())
-                .compact();
+                .setExpiration(expiryDate));
     }
 
     /**
@@ -88,26 +216,35 @@ public class JwtTokenProvider {
      * Vérifie si le token est valide (non expiré et bien signé)
      */
     public boolean validateToken(String token) {
+        return getValidatedClaims(token) != null;
+    }
+
+    /**
+     * Vérifie le token et retourne ses claims, ou null si le token est invalide.
+     * Point d'entrée unique du filtre : un seul parsing par requête.
+     */
+    public Claims getValidatedClaims(String token) {
         try {
-            getClaimsFromToken(token);
-            return true;
+            Claims claims = getClaimsFromToken(token);
+            validTokens.increment();
+            return claims;
         } catch (SignatureException ex) {
-            // Signature JWT invalide
-            System.err.println("Signature JWT invalide");
+            badSignatureTokens.increment();
+            log.debug("Signature JWT invalide");
         } catch (MalformedJwtException ex) {
-            // Token JWT malformé
-            System.err.println("Token JWT malformé");
+            malformedTokens.increment();
+            log.debug("Token JWT malformé");
         } catch (ExpiredJwtException ex) {
-            // Token JWT expiré
-            System.err.println("Token JWT expiré");
+            expiredTokens.increment();
+            log.debug("Token JWT expiré");
         } catch (UnsupportedJwtException ex) {
-            // Token JWT non supporté
-            System.err.println("Token JWT non supporté");
+            unsupportedTokens.increment();
+            log.debug("Token JWT non supporté");
         } catch (IllegalArgumentException ex) {
-            // Claims JWT vides
-            System.err.println("Claims JWT vides");
+            emptyTokens.increment();
+            log.debug("Claims JWT vides");
         }
-        return false;
+        return null;
     }
 
     /**
@@ -126,10 +263,38 @@ public class JwtTokenProvider {
      * Méthode utilitaire pour extraire les claims d'un token
      */
     private Claims getClaimsFromToken(String token) {
-        return Jwts.parser()
-                .setSigningKey(jwtConfig.getSecret())
+        if (token == null || token.isEmpty()) {
+            throw new IllegalArgumentException("JWT vide");
+        }
+
+        String digest = digest(token);
+        Claims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null && cached.getExpiration().after(new Date())) {
+            return cached;
+        }
+
+        Claims claims = jwtParser
                 .parseClaimsJws(token)
                 .getBody();
+
+        // Seuls les tokens avec une expiration peuvent être mis en cache
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(digest, claims);
+        }
+        return claims;
+    }
+
+    /**
+     * Empreinte SHA-256 du token (clé du cache des tokens vérifiés)
+     */
+    static String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = messageDigest.digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 non disponible", e);
+        }
     }
 
     /**
@@ -140,18 +305,52 @@ public class JwtTokenProvider {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtConfig.getExpiration());
 
-        return Jwts.builder()
+        return sign(Jwts.builder()
                 .setSubject(username)
                 .claim("userId", userId)
                 .claim("role", role)
                 .claim("roles", role)
                 .claim("type", "ACCESS_TOKEN")
                 .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(SignatureAlgorithm.HS512, jwtConfig.getSecret())
+                .setExpiration(expiryDate));
+    }
+
+    /**
+     * Signe le token avec la clé active (et son kid si la rotation est configurée)
+     */
+    private String sign(JwtBuilder builder) {
+        if (signingKeyId != null) {
+            builder.setHeaderParam(JwsHeader.KEY_ID, signingKeyId);
+        }
+        return builder
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
+    /**
+     * Trouve la clé de vérification à partir du kid du header (clé par défaut si absent)
+     */
+    private Key resolveKey(String keyId) {
+        if (keyId == null) {
+            if (defaultKey == null) {
+                throw new SignatureException("Aucune clé par défaut pour un token sans kid");
+            }
+            return defaultKey;
+        }
+        SecretKey key = keysById.get(keyId);
+        if (key == null) {
+            throw new SignatureException("Clé de signature inconnue : " + keyId);
+        }
+        return key;
+    }
+
+    /**
+     * Le secret est encodé en base64, comme l'attendait l'ancienne API (tokens existants toujours valides)
+     */
+    private static SecretKey toKey(String base64Secret) {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
+    }
+
     /**
      * Récupère l'ID utilisateur depuis le token (si stocké)
      */
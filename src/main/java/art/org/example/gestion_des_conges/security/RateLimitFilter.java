@@ -0,0 +1,221 @@
+package art.org.example.gestion_des_conges.security;
+
+import art.org.example.gestion_des_conges.config.RateLimitConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limite le débit des routes publiques coûteuses (login, reset de mot de passe) avant toute
+ * authentification : un seau à jetons par règle et par clé (IP ou champ du corps JSON).
+ * Au-delà de la limite : 429 avec l'en-tête Retry-After.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    // Les corps des routes limitées sont petits : au-delà, la requête est refusée (413)
+    private static final int MAX_INSPECTED_BODY_BYTES = 16 * 1024;
+    // Clé commune des requêtes dont le corps ne donne pas la clé de la règle (JSON invalide, champ absent)
+    private static final String UNKEYED = "";
+
+    private final RateLimitConfig config;
+    private final ObjectMapper objectMapper;
+
+    // Seaux par "index de règle:clé", bornés en nombre et oubliés une fois pleins
+    private final Cache<String, TokenBucket> buckets;
+
+    public RateLimitFilter(RateLimitConfig config, ObjectMapper objectMapper) {
+        this.config = config;
+        this.objectMapper = objectMapper;
+        long longestPeriod = config.getRules().stream()
+                .mapToLong(RateLimitConfig.Rule::getPeriodSeconds)
+                .max()
+                .orElse(60);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(config.getMaxKeys())
+                .expireAfterAccess(Duration.ofSeconds(longestPeriod))
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !config.isEnabled() || !"POST".equals(request.getMethod()) || matchingRules(request).isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        List<Integer> rules = matchingRules(request);
+        HttpServletRequest effectiveRequest = request;
+        JsonNode body = null;
+        if (rules.stream().anyMatch(index -> !config.getRules().get(index).isPerIp())) {
+            CachedBodyRequest cached = new CachedBodyRequest(request);
+            if (!cached.isComplete()) {
+                // Un corps rallongé ne doit pas permettre d'échapper à la limite par utilisateur
+                response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+                response.setContentType("application/json");
+                response.getWriter().write(
+                        "{\"error\": \"Requête trop volumineuse\", \"message\": \"Corps limité à "
+                                + MAX_INSPECTED_BODY_BYTES + " octets\"}"
+                );
+                return;
+            }
+            effectiveRequest = cached;
+            body = cached.parseJson(objectMapper);
+        }
+
+        long now = System.nanoTime();
+        long waitNanos = 0;
+        for (int index : rules) {
+            RateLimitConfig.Rule rule = config.getRules().get(index);
+            String key = resolveKey(rule, request, body);
+            TokenBucket bucket = buckets.get(index + ":" + key, k ->
+                    new TokenBucket(rule.getCapacity(), TimeUnit.SECONDS.toNanos(rule.getPeriodSeconds()), now));
+            waitNanos = Math.max(waitNanos, bucket.tryConsume(now));
+        }
+
+        if (waitNanos > 0) {
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+            response.setContentType("application/json");
+            response.getWriter().write(
+                    "{\"error\": \"Trop de requêtes\", \"message\": \"Réessayez dans " + retryAfter + " secondes\"}"
+            );
+            return;
+        }
+
+        filterChain.doFilter(effectiveRequest, response);
+    }
+
+    private List<Integer> matchingRules(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        List<Integer> matching = new ArrayList<>();
+        List<RateLimitConfig.Rule> rules = config.getRules();
+        for (int i = 0; i < rules.size(); i++) {
+            if (path.equals(rules.get(i).getPath())) {
+                matching.add(i);
+            }
+        }
+        return matching;
+    }
+
+    private String resolveKey(RateLimitConfig.Rule rule, HttpServletRequest request, JsonNode body) {
+        if (rule.isPerIp()) {
+            // Derrière un proxy, configurer server.forward-headers-strategy pour obtenir l'IP du client
+            return request.getRemoteAddr();
+        }
+        if (body == null || !body.hasNonNull(rule.getKey())) {
+            return UNKEYED;
+        }
+        String value = body.get(rule.getKey()).asText().trim();
+        return value.isEmpty() ? UNKEYED : value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Requête dont le corps (au plus MAX_INSPECTED_BODY_BYTES) est lu pour en extraire la clé,
+     * puis rejoué pour le contrôleur
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] head;
+        private final boolean complete;
+        private ServletInputStream inputStream;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.head = request.getInputStream().readNBytes(MAX_INSPECTED_BODY_BYTES + 1);
+            this.complete = head.length <= MAX_INSPECTED_BODY_BYTES;
+        }
+
+        boolean isComplete() {
+            return complete;
+        }
+
+        JsonNode parseJson(ObjectMapper objectMapper) {
+            if (head.length == 0) {
+                return null;
+            }
+            try {
+                return objectMapper.readTree(head);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                ByteArrayInputStream source = new ByteArrayInputStream(head);
+                inputStream = new ServletInputStream() {
+
+                    @Override
+                    public int read() {
+                        return source.read();
+                    }
+
+                    @Override
+                    public int read(byte[] buffer, int offset, int length) {
+                        return source.read(buffer, offset, length);
+                    }
+
+                    @Override
+                    public boolean isFinished() {
+                        return source.available() == 0;
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    // Corps déjà en mémoire : tout est disponible immédiatement
+                    @Override
+                    public void setReadListener(ReadListener readListener) {
+                        try {
+                            if (!isFinished()) {
+                                readListener.onDataAvailable();
+                            }
+                            if (isFinished()) {
+                                readListener.onAllDataRead();
+                            }
+                        } catch (IOException e) {
+                            readListener.onError(e);
+                        }
+                    }
+                };
+            }
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? encoding : StandardCharsets.UTF_8.name()));
+        }
+    }
+}
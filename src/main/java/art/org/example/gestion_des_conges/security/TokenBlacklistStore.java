@@ -0,0 +1,35 @@
+package art.org.example.gestion_des_conges.security;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Stockage des tokens révoqués, indexés par empreinte SHA-256.
+ * Implémentations : mémoire (par défaut) ou table JDBC partagée entre les instances
+ * (jwt.blacklist.store=memory|jdbc).
+ */
+public interface TokenBlacklistStore {
+
+    void add(String tokenHash, long fingerprint, Instant expiresAt);
+
+    boolean contains(String tokenHash);
+
+    void remove(String tokenHash);
+
+    /**
+     * Supprime les entrées dont le token a expiré, retourne le nombre d'entrées supprimées
+     */
+    int purgeExpired(Instant now);
+
+    /**
+     * Empreintes des entrées encore actives (reconstruction du filtre de Bloom)
+     */
+    List<Long> activeFingerprints();
+
+    /**
+     * Store partagé entre instances : une révocation faite ailleurs n'est pas dans le filtre de Bloom local
+     */
+    default boolean isShared() {
+        return false;
+    }
+}
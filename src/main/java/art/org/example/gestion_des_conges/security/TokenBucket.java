@@ -0,0 +1,38 @@
+package art.org.example.gestion_des_conges.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Seau à jetons sans verrou (algorithme GCRA) : tout l'état tient dans un seul long,
+ * l'heure théorique à laquelle le seau sera de nouveau plein, mis à jour par CAS.
+ */
+final class TokenBucket {
+
+    private final long intervalNanos; // temps pour regagner un jeton
+    private final long burstNanos;    // avance tolérée : (capacité - 1) jetons
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(int capacity, long periodNanos, long now) {
+        this.intervalNanos = Math.max(1, periodNanos / Math.max(1, capacity));
+        this.burstNanos = intervalNanos * (Math.max(1, capacity) - 1);
+        this.theoreticalArrival = new AtomicLong(now);
+    }
+
+    /**
+     * Consomme un jeton. Retourne 0 si la requête est acceptée,
+     * sinon le délai (en nanosecondes) avant qu'un jeton soit disponible.
+     */
+    long tryConsume(long now) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long base = arrival - now > 0 ? arrival : now;
+            long ahead = base - now;
+            if (ahead > burstNanos) {
+                return ahead - burstNanos;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, base + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package art.org.example.gestion_des_conges.security;
+
+import art.org.example.gestion_des_conges.config.JwtConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Version des tokens de chaque utilisateur (colonne users.token_version), incrémentée à chaque modification
+ * (rôle, statut, mot de passe...). Le token porte la version lue à la connexion (claim tokenVersion) :
+ * un token d'une version antérieure ne peut plus servir à reconstruire le principal,
+ * le filtre JWT recharge alors l'utilisateur depuis la base.
+ * La version est en base : elle survit aux redémarrages et est partagée entre instances.
+ * Les lectures sont gardées en cache jwt.stamp-cache-ttl-ms (délai de prise en compte sur les autres instances).
+ */
+@Component
+public class UserTokenStampRegistry {
+
+    /**
+     * Claim du token portant la version de l'utilisateur à l'émission
+     */
+    public static final String CLAIM = "tokenVersion";
+
+    /**
+     * Version courante et statut de l'utilisateur
+     */
+    public record Stamp(long version, boolean active) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Absent = utilisateur inconnu (renommé ou supprimé)
+    private final Cache<String, Optional<Stamp>> stamps;
+
+    public UserTokenStampRegistry(JdbcTemplate jdbcTemplate, JwtConfig jwtConfig) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.stamps = Caffeine.newBuilder()
+                .maximumSize(jwtConfig.getStampCacheSize())
+                .expireAfterWrite(Duration.ofMillis(jwtConfig.getStampCacheTtlMs()))
+                .build();
+    }
+
+    /**
+     * Signale qu'un utilisateur a été modifié : les tokens déjà émis ne reflètent plus son profil.
+     * L'incrément fait partie de la transaction en cours.
+     */
+    public void markChanged(String username) {
+        if (username == null) {
+            return;
+        }
+        jdbcTemplate.update("UPDATE users SET token_version = token_version + 1 WHERE username = ?", username);
+        stamps.invalidate(username);
+
+        // Une requête concurrente peut relire l'ancienne version avant le commit : réinvalider après
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    stamps.invalidate(username);
+                }
+            });
+        }
+    }
+
+    /**
+     * Version courante de l'utilisateur, ou null s'il n'existe plus sous ce username
+     */
+    public Stamp currentStamp(String username) {
+        return stamps.get(username, this::loadStamp).orElse(null);
+    }
+
+    private Optional<Stamp> loadStamp(String username) {
+        return jdbcTemplate.query("SELECT token_version, active FROM users WHERE username = ?",
+                rs -> rs.next()
+                        ? Optional.of(new Stamp(rs.getLong(1), rs.getBoolean(2)))
+                        : Optional.empty(),
+                username);
+    }
+}
@@ -7,6 +7,8 @@ import art.org.example.gestion_des_conges.dto.ResetPasswordRequest;
 import art.org.example.gestion_des_conges.entity.User;
 import art.org.example.gestion_des_conges.repository.UserRepository;
 import art.org.example.gestion_des_conges.security.JwtTokenProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -21,60 +23,56 @@ import java.util.UUID;
 @Service
 public class AuthService {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthService.class);
+
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
     private final AppConfig appConfig;
+    private final CustomUserDetailsService userDetailsService;
 
     public AuthService(AuthenticationManager authenticationManager,
                        JwtTokenProvider tokenProvider,
                        UserRepository userRepository,
                        PasswordEncoder passwordEncoder,
                        EmailService emailService,
-                       AppConfig appConfig) {
+                       AppConfig appConfig,
+                       CustomUserDetailsService userDetailsService) {
         this.authenticationManager = authenticationManager;
         this.tokenProvider = tokenProvider;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.emailService = emailService;
         this.appConfig = appConfig;
+        this.userDetailsService = userDetailsService;
     }
 
     /**
      * US-01.1 : Connexion avec identifiant et mot de passe
      */
     public LoginResponse login(LoginRequest loginRequest) {
-        System.out.println("=== DEBUG: AuthService.login() START ===");
-        System.out.println("Username: " + loginRequest.getUsername());
-
         try {
             // 1. Authentification
-            System.out.println("1. Authenticating...");
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
                             loginRequest.getUsername(),
                             loginRequest.getPassword()
                     )
             );
-            System.out.println("2. Authentication SUCCESS!");
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
             // 2. Génération du token
-            System.out.println("3. Generating token...");
             String token = tokenProvider.generateToken(authentication);
-            System.out.println("4. Token generated: " + (token != null ? token.substring(0, Math.min(20, token.length())) + "..." : "NULL"));
 
             // 3. Récupération user
-            System.out.println("5. Getting user from authentication...");
             User user = (User) authentication.getPrincipal();
-            System.out.println("6. User: " + user.getUsername() + ", ID: " + user.getId());
+            log.debug("Connexion de {} (id {})", user.getUsername(), user.getId());
 
             // 4. Création réponse
-            System.out.println("7. Creating LoginResponse...");
-            LoginResponse response = new LoginResponse(
+            return new LoginResponse(
                     token,
                     user.getId(),
                     user.getUsername(),
@@ -83,15 +81,9 @@ public class AuthService {
                     user.getLastName(),
                     user.getRole().name()
             );
-            System.out.println("8. Response created!");
-            System.out.println("=== DEBUG: AuthService.login() END ===");
-
-            return response;
 
         } catch (Exception e) {
-            System.out.println("❌ ERROR in login: " + e.getClass().getName());
-            System.out.println("Message: " + e.getMessage());
-            e.printStackTrace();
+            log.debug("Échec de connexion pour {} : {}", loginRequest.getUsername(), e.getClass().getSimpleName());
             throw new RuntimeException("Login failed: " + e.getMessage());
         }
     }
@@ -125,9 +117,9 @@ public class AuthService {
                     user.getFirstName() + " " + user.getLastName(),
                     resetLink
             );
-            System.out.println("📧 Email de réinitialisation envoyé à: " + user.getEmail());
+            log.info("Email de réinitialisation mis en file pour {}", user.getEmail());
         } catch (Exception e) {
-            System.err.println("❌ Erreur lors de l'envoi de l'email: " + e.getMessage());
+            log.warn("Erreur lors de l'envoi de l'email : {}", e.getMessage());
             // Ne pas lever d'exception, continuer quand même
         }
 
@@ -151,6 +143,9 @@ public class AuthService {
         user.setResetTokenExpiry(null);
 
         userRepository.save(user);
+
+        // Le mot de passe en cache n'est plus valide
+        userDetailsService.invalidateUser(user.getUsername());
     }
 
     /**
@@ -0,0 +1,475 @@
+package art.org.example.gestion_des_conges.service;
+
+import art.org.example.gestion_des_conges.dto.BulkUserImportResult;
+import art.org.example.gestion_des_conges.dto.BulkUserImportRowResult;
+import art.org.example.gestion_des_conges.dto.CreateUserRequest;
+import art.org.example.gestion_des_conges.entity.Team;
+import art.org.example.gestion_des_conges.entity.User;
+import art.org.example.gestion_des_conges.repository.TeamRepository;
+import art.org.example.gestion_des_conges.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Import en masse d'utilisateurs (CSV ou tableau JSON), lu en flux et traité par lots :
+ * une requête d'unicité par lot, hachage BCrypt en parallèle sur un pool borné,
+ * insertion par batch JDBC et une transaction par lot.
+ */
+@Service
+public class BulkUserImportService {
+
+    static final String CREATED = "CREATED";
+    static final String REJECTED = "REJECTED";
+
+    private static final String INSERT_USER_SQL = "INSERT INTO users " +
+            "(username, email, password, first_name, last_name, role, active, team_id, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, true, ?, ?)";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("passwordHashExecutor")
+    private ThreadPoolTaskExecutor passwordHashExecutor;
+
+    @Value("${app.bulk-import.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * Import CSV : ligne d'en-tête obligatoire (nom, prenom, username, email, role, teamId),
+     * séparateur "," ou ";". Les champs entre guillemets ne peuvent pas contenir de retour à la ligne.
+     */
+    public BulkUserImportResult importCsv(InputStream input) throws IOException {
+        ImportRun run = new ImportRun();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        String header = reader.readLine();
+        if (header == null) {
+            throw new IllegalArgumentException("Fichier CSV vide");
+        }
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+        char separator = header.indexOf(';') >= 0 && header.indexOf(',') < 0 ? ';' : ',';
+
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> headerCells = splitCsvLine(header, separator);
+        for (int i = 0; i < headerCells.size(); i++) {
+            columns.put(headerCells.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("nom", "prenom", "username", "email")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("Colonne obligatoire absente de l'en-tête : " + required);
+            }
+        }
+
+        String line;
+        int lineNumber = 1;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> cells = splitCsvLine(line, separator);
+            CreateUserRequest request = new CreateUserRequest();
+            request.setNom(cell(cells, columns, "nom"));
+            request.setPrenom(cell(cells, columns, "prenom"));
+            request.setUsername(cell(cells, columns, "username"));
+            request.setEmail(cell(cells, columns, "email"));
+
+            String error = null;
+            String role = cell(cells, columns, "role");
+            String teamId = cell(cells, columns, "teamid");
+            try {
+                if (role != null) {
+                    request.setRole(User.Role.valueOf(role.toUpperCase(Locale.ROOT)));
+                }
+                if (teamId != null) {
+                    request.setTeamId(Long.parseLong(teamId));
+                }
+            } catch (IllegalArgumentException e) {
+                error = "Rôle ou équipe invalide";
+            }
+            run.accept(new Row(lineNumber, request, error));
+        }
+        return run.finish();
+    }
+
+    /**
+     * Import JSON : tableau d'objets au format de CreateUserRequest, lu élément par élément
+     */
+    public BulkUserImportResult importJson(InputStream input) throws IOException {
+        ImportRun run = new ImportRun();
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Le corps JSON doit être un tableau d'utilisateurs");
+            }
+            int index = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                index++;
+                JsonNode node = parser.readValueAsTree();
+                try {
+                    run.accept(new Row(index, objectMapper.treeToValue(node, CreateUserRequest.class), null));
+                } catch (JsonProcessingException e) {
+                    CreateUserRequest partial = new CreateUserRequest();
+                    partial.setUsername(node.path("username").asText(null));
+                    run.accept(new Row(index, partial, "Format invalide : " + e.getOriginalMessage()));
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("JSON invalide : " + e.getOriginalMessage());
+        }
+        return run.finish();
+    }
+
+    /**
+     * Traite un lot : validation, unicité (une requête), équipes, hachage puis insertion
+     */
+    private void processChunk(List<Row> chunk, ImportRun run) {
+        List<Row> candidates = new ArrayList<>();
+        for (Row row : chunk) {
+            String error = row.error() != null ? row.error() : validate(row.request());
+            if (error == null && !run.seenUsernames.add(row.request().getUsername())) {
+                error = "Username en double dans le fichier";
+            }
+            if (error == null && !run.seenEmails.add(row.request().getEmail())) {
+                error = "Email en double dans le fichier";
+            }
+            if (error != null) {
+                run.reject(row, error);
+            } else {
+                candidates.add(row);
+            }
+        }
+
+        candidates = rejectExisting(candidates, run);
+        candidates = rejectUnknownTeams(candidates, run);
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        List<String> tempPasswords = candidates.stream()
+                .map(row -> userService.generateTemporaryPassword())
+                .collect(Collectors.toList());
+        List<String> hashes = hashAll(tempPasswords);
+
+        List<PreparedUser> users = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            users.add(new PreparedUser(candidates.get(i), tempPasswords.get(i), hashes.get(i)));
+        }
+
+        try {
+            insert(users, run);
+        } catch (DataIntegrityViolationException e) {
+            // Un utilisateur a été créé entre la vérification et l'insertion : revérifier puis réessayer une fois
+            List<Row> stillFree = rejectExisting(candidates, run);
+            List<PreparedUser> retry = users.stream()
+                    .filter(user -> stillFree.contains(user.row()))
+                    .collect(Collectors.toList());
+            try {
+                insert(retry, run);
+            } catch (DataIntegrityViolationException retryFailure) {
+                retry.forEach(user -> run.reject(user.row(), "Conflit lors de l'insertion, réessayez"));
+            }
+        }
+    }
+
+    private String validate(CreateUserRequest request) {
+        Set<ConstraintViolation<CreateUserRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Rejette les lignes dont le username ou l'email existe déjà, en une seule requête
+     */
+    private List<Row> rejectExisting(List<Row> rows, ImportRun run) {
+        if (rows.isEmpty()) {
+            return rows;
+        }
+        Set<String> usernames = rows.stream().map(row -> row.request().getUsername()).collect(Collectors.toSet());
+        Set<String> emails = rows.stream().map(row -> row.request().getEmail()).collect(Collectors.toSet());
+
+        Set<String> takenUsernames = new HashSet<>();
+        Set<String> takenEmails = new HashSet<>();
+        for (Object[] existing : userRepository.findExistingUsernamesAndEmails(usernames, emails)) {
+            takenUsernames.add((String) existing[0]);
+            takenEmails.add((String) existing[1]);
+        }
+
+        List<Row> remaining = new ArrayList<>();
+        for (Row row : rows) {
+            if (takenEmails.contains(row.request().getEmail())) {
+                run.reject(row, "Un utilisateur avec cet email existe déjà");
+            } else if (takenUsernames.contains(row.request().getUsername())) {
+                run.reject(row, "Ce nom d'utilisateur est déjà pris");
+            } else {
+                remaining.add(row);
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * Rejette les lignes dont l'équipe n'existe pas (équipes chargées une seule fois par import)
+     */
+    private List<Row> rejectUnknownTeams(List<Row> rows, ImportRun run) {
+        Set<Long> unresolved = rows.stream()
+                .map(row -> row.request().getTeamId())
+                .filter(teamId -> teamId != null && !run.teams.containsKey(teamId))
+                .collect(Collectors.toSet());
+        if (!unresolved.isEmpty()) {
+            unresolved.forEach(teamId -> run.teams.put(teamId, false));
+            for (Team team : teamRepository.findAllById(unresolved)) {
+                run.teams.put(team.getId(), true);
+            }
+        }
+
+        List<Row> remaining = new ArrayList<>();
+        for (Row row : rows) {
+            Long teamId = row.request().getTeamId();
+            if (teamId != null && !run.teams.get(teamId)) {
+                run.reject(row, "Équipe non trouvée");
+            } else {
+                remaining.add(row);
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * Hache les mots de passe en parallèle, une tranche par thread du pool
+     */
+    private List<String> hashAll(List<String> passwords) {
+        int threads = Math.max(1, Math.min(passwordHashExecutor.getMaxPoolSize(), passwords.size()));
+        int sliceSize = (passwords.size() + threads - 1) / threads;
+
+        List<Future<List<String>>> futures = new ArrayList<>();
+        for (int start = 0; start < passwords.size(); start += sliceSize) {
+            List<String> slice = passwords.subList(start, Math.min(start + sliceSize, passwords.size()));
+            futures.add(passwordHashExecutor.submit(() -> slice.stream()
+                    .map(passwordEncoder::encode)
+                    .collect(Collectors.toList())));
+        }
+
+        List<String> hashes = new ArrayList<>(passwords.size());
+        try {
+            for (Future<List<String>> future : futures) {
+                hashes.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrompu", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Échec du hachage des mots de passe", e.getCause());
+        }
+        return hashes;
+    }
+
+    /**
+     * Insère un lot en un batch JDBC et ajoute les emails de bienvenue à l'outbox, dans la même transaction
+     */
+    private void insert(List<PreparedUser> users, ImportRun run) {
+        if (users.isEmpty()) {
+            return;
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Map<String, Long> ids = transaction.execute(status -> {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.batchUpdate(INSERT_USER_SQL, users, users.size(), (ps, user) -> {
+                CreateUserRequest request = user.row().request();
+                ps.setString(1, request.getUsername());
+                ps.setString(2, request.getEmail());
+                ps.setString(3, user.hashedPassword());
+                ps.setString(4, request.getPrenom());
+                ps.setString(5, request.getNom());
+                ps.setString(6, (request.getRole() != null ? request.getRole() : User.Role.EMPLOYE).name());
+                if (request.getTeamId() != null) {
+                    ps.setLong(7, request.getTeamId());
+                } else {
+                    ps.setNull(7, Types.BIGINT);
+                }
+                ps.setTimestamp(8, now);
+            });
+
+            Map<String, Long> generated = new HashMap<>();
+            List<String> usernames = users.stream().map(user -> user.row().request().getUsername()).toList();
+            for (Object[] idAndUsername : userRepository.findIdsByUsernames(usernames)) {
+                generated.put((String) idAndUsername[1], (Long) idAndUsername[0]);
+            }
+
+            List<SimpleMailMessage> welcomeEmails = users.stream()
+                    .map(user -> {
+                        CreateUserRequest request = user.row().request();
+                        return emailService.buildWelcomeMessage(
+                                request.getEmail(),
+                                request.getPrenom() + " " + request.getNom(),
+                                user.tempPassword(),
+                                request.getUsername());
+                    })
+                    .collect(Collectors.toList());
+            emailService.enqueueAll(welcomeEmails);
+            return generated;
+        });
+
+        for (PreparedUser user : users) {
+            String username = user.row().request().getUsername();
+            run.result.getRows().add(new BulkUserImportRowResult(
+                    user.row().line(), username, CREATED, null, ids.get(username)));
+            run.result.setCreated(run.result.getCreated() + 1);
+        }
+    }
+
+    static List<String> splitCsvLine(String line, char separator) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == separator) {
+                cells.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        cells.add(current.toString());
+        return cells;
+    }
+
+    private static String cell(List<String> cells, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= cells.size()) {
+            return null;
+        }
+        String value = cells.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private record Row(int line, CreateUserRequest request, String error) {
+    }
+
+    private record PreparedUser(Row row, String tempPassword, String hashedPassword) {
+    }
+
+    /**
+     * État d'un import : lot en cours, doublons déjà vus, équipes déjà résolues et rapport
+     */
+    private class ImportRun {
+        private final long startedAt = System.currentTimeMillis();
+        private final BulkUserImportResult result = new BulkUserImportResult();
+        private final Set<String> seenUsernames = new HashSet<>();
+        private final Set<String> seenEmails = new HashSet<>();
+        private final Map<Long, Boolean> teams = new HashMap<>();
+        private List<Row> chunk = new ArrayList<>();
+
+        void accept(Row row) {
+            result.setTotal(result.getTotal() + 1);
+            chunk.add(row);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void reject(Row row, String message) {
+            result.getRows().add(new BulkUserImportRowResult(
+                    row.line(), row.request().getUsername(), REJECTED, message, null));
+            result.setRejected(result.getRejected() + 1);
+        }
+
+        BulkUserImportResult finish() {
+            flush();
+            if (result.getCreated() > 0) {
+                // Une seule reconstruction de l'index (et une seule version des équipes) pour tout le fichier
+                searchIndexService.usersChanged();
+                catalogVersions.increment(CatalogVersions.TEAMS);
+            }
+            result.getRows().sort(Comparator.comparingInt(BulkUserImportRowResult::getLine));
+            result.setDurationMs(System.currentTimeMillis() - startedAt);
+            return result;
+        }
+
+        private void flush() {
+            if (!chunk.isEmpty()) {
+                List<Row> current = chunk;
+                chunk = new ArrayList<>();
+                processChunk(current, this);
+            }
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package art.org.example.gestion_des_conges.service;
+
+import art.org.example.gestion_des_conges.dto.CarryOverJobDTO;
+import art.org.example.gestion_des_conges.entity.CarryOverJob;
+import art.org.example.gestion_des_conges.entity.LeaveDays;
+import art.org.example.gestion_des_conges.repository.CarryOverJobRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * US-03.4 : Report des soldes en tâche de fond.
+ * Les soldes de l'année source sont parcourus par pages (pagination par clé sur l'id) ;
+ * pour chaque page, les soldes de l'année cible sont chargés en une requête puis écrits par batch JDBC,
+ * et le point de reprise du job est enregistré dans la même transaction.
+ * Le report fixe (et n'ajoute pas) les jours reportés : relancer un job ne crédite pas deux fois.
+ * Les soldes cibles sont écrits directement dans la projection (leave_balances), avec dans la même transaction
+ * les mouvements correspondants du journal, déjà reportés (CARRY_OVER, et ALLOCATE pour un solde créé).
+ */
+@Service
+public class CarryOverJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(CarryOverJobService.class);
+
+    private static final int MAX_PAGE_ATTEMPTS = 3;
+
+    // Soldes reportables de l'année source, après :lastBalanceId (jours en quarts de journée)
+    private static final String PAGE_SQL = "SELECT lb.id, lb.user_id, lb.leave_type_id, lb.remaining_quarters, " +
+            "lt.max_carry_over_days, CAST(ROUND(lt.default_annual_allowance * " + LeaveDays.UNITS_PER_DAY +
+            ") AS BIGINT) AS default_allowance_quarters " +
+            "FROM leave_balances lb JOIN leave_types lt ON lt.id = lb.leave_type_id " +
+            "WHERE lb.year = ? AND lb.remaining_quarters > 0 AND lt.allow_carry_over = true AND lb.id > ? " +
+            "ORDER BY lb.id LIMIT ?";
+
+    private static final String UPDATE_TARGET_SQL = "UPDATE leave_balances SET carried_over_quarters = ?, " +
+            "total_allowance_quarters = ?, remaining_quarters = ? - used_quarters - pending_quarters, " +
+            "updated_at = ?, version = version + 1 WHERE id = ?";
+
+    private static final String INSERT_TARGET_SQL = "INSERT INTO leave_balances " +
+            "(user_id, leave_type_id, year, total_allowance_quarters, used_quarters, pending_quarters, " +
+            "remaining_quarters, carried_over_quarters, created_at) VALUES (?, ?, ?, ?, 0, 0, ?, ?, ?)";
+
+    @Autowired
+    private CarryOverJobRepository jobRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private LeaveLedger leaveLedger;
+
+    @Autowired
+    @Qualifier("jobExecutor")
+    private ThreadPoolTaskExecutor jobExecutor;
+
+    @Value("${app.carry-over.page-size:500}")
+    private int pageSize;
+
+    @Value("${app.carry-over.stale-after-seconds:120}")
+    private long staleAfterSeconds;
+
+    // Jobs exécutés par cette instance (à ne pas reprendre comme abandonnés)
+    private final Set<Long> localJobs = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Lance un report (ou retourne celui déjà en cours pour les mêmes années)
+     */
+    public CarryOverJobDTO startCarryOver(Integer fromYear, Integer toYear) {
+        if (fromYear == null || toYear == null || toYear <= fromYear) {
+            throw new IllegalArgumentException("L'année cible doit être postérieure à l'année source");
+        }
+
+        Optional<CarryOverJob> running = jobRepository
+                .findFirstByFromYearAndToYearAndStatus(fromYear, toYear, CarryOverJob.Status.RUNNING);
+        if (running.isPresent()) {
+            return convertToDTO(running.get());
+        }
+
+        CarryOverJob job = new CarryOverJob();
+        job.setFromYear(fromYear);
+        job.setToYear(toYear);
+        CarryOverJob savedJob = jobRepository.save(job);
+
+        submit(savedJob.getId());
+        return convertToDTO(savedJob);
+    }
+
+    /**
+     * Consulter l'avancement d'un job
+     */
+    public CarryOverJobDTO getJob(Long jobId) {
+        CarryOverJob job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new EntityNotFoundException("Job de report non trouvé"));
+        return convertToDTO(job);
+    }
+
+    /**
+     * Reprend les jobs interrompus (redémarrage, crash d'une instance)
+     */
+    @Scheduled(fixedDelayString = "${app.carry-over.resume-interval-ms:60000}",
+            initialDelayString = "${app.carry-over.resume-interval-ms:60000}")
+    public void resumeStalledJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        List<CarryOverJob> stalled = jobRepository.findByStatusAndUpdatedAtBefore(
+                CarryOverJob.Status.RUNNING, now.minusSeconds(staleAfterSeconds));
+
+        for (CarryOverJob job : stalled) {
+            if (!localJobs.contains(job.getId()) && jobRepository.claim(job.getId(), job.getUpdatedAt(), now) == 1) {
+                log.info("Reprise du job de report {} après le solde {}", job.getId(), job.getLastBalanceId());
+                submit(job.getId());
+            }
+        }
+    }
+
+    private void submit(Long jobId) {
+        localJobs.add(jobId);
+        try {
+            jobExecutor.execute(() -> run(jobId));
+        } catch (RuntimeException e) {
+            // File pleine : le job reste RUNNING et sera repris plus tard
+            localJobs.remove(jobId);
+            log.warn("Job de report {} mis en attente : {}", jobId, e.getMessage());
+        }
+    }
+
+    void run(Long jobId) {
+        try {
+            // Restants de l'année source lus dans la projection : mouvements en attente reportés d'abord
+            leaveLedger.foldAll();
+            int attempts = 0;
+            while (true) {
+                try {
+                    if (!processPage(jobId)) {
+                        break;
+                    }
+                    attempts = 0;
+                } catch (DataIntegrityViolationException e) {
+                    // Solde cible créé en parallèle (initialisation) : la page est rejouée avec ce solde
+                    if (++attempts >= MAX_PAGE_ATTEMPTS) {
+                        throw e;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.error("Échec du job de report {}", jobId, e);
+            markFailed(jobId, e);
+        } finally {
+            localJobs.remove(jobId);
+        }
+    }
+
+    /**
+     * Traite une page et avance le point de reprise. Retourne false quand le job est terminé.
+     */
+    private boolean processPage(Long jobId) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        return Boolean.TRUE.equals(transaction.execute(status -> {
+            CarryOverJob job = jobRepository.findById(jobId)
+                    .orElseThrow(() -> new EntityNotFoundException("Job de report non trouvé"));
+            if (job.getStatus() != CarryOverJob.Status.RUNNING) {
+                return false;
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            List<SourceBalance> page = jdbcTemplate.query(PAGE_SQL,
+                    (rs, rowNum) -> new SourceBalance(
+                            rs.getLong("id"),
+                            rs.getLong("user_id"),
+                            rs.getLong("leave_type_id"),
+                            rs.getLong("remaining_quarters"),
+                            rs.getObject("max_carry_over_days", Integer.class),
+                            rs.getLong("default_allowance_quarters")),
+                    job.getFromYear(), job.getLastBalanceId(), pageSize);
+
+            if (page.isEmpty()) {
+                job.setStatus(CarryOverJob.Status.COMPLETED);
+                job.setFinishedAt(now);
+                job.setUpdatedAt(now);
+                return false;
+            }
+
+            Map<String, TargetBalance> targets = findTargetBalances(job.getToYear(), page);
+            Timestamp timestamp = Timestamp.valueOf(now);
+            List<Object[]> updates = new ArrayList<>();
+            List<Object[]> inserts = new ArrayList<>();
+            List<LeaveLedger.Entry> movements = new ArrayList<>();
+
+            for (SourceBalance source : page) {
+                long carried = source.remainingQuarters();
+                if (source.maxCarryOverDays() != null) {
+                    carried = Math.min(carried, (long) source.maxCarryOverDays() * LeaveDays.UNITS_PER_DAY);
+                }
+                if (carried <= 0) {
+                    continue;
+                }
+                long totalAllowance = source.defaultAllowanceQuarters() + carried;
+                TargetBalance target = targets.get(key(source.userId(), source.leaveTypeId()));
+                if (target != null) {
+                    updates.add(new Object[]{carried, totalAllowance, totalAllowance, timestamp, target.id()});
+                    long allowanceDelta = totalAllowance - target.totalAllowanceQuarters();
+                    long carriedOverDelta = carried - target.carriedOverQuarters();
+                    if (allowanceDelta != 0 || carriedOverDelta != 0) {
+                        movements.add(new LeaveLedger.Entry(source.userId(), source.leaveTypeId(), job.getToYear(),
+                                LeaveLedger.Movement.CARRY_OVER, allowanceDelta, 0, 0, carriedOverDelta));
+                    }
+                } else {
+                    inserts.add(new Object[]{source.userId(), source.leaveTypeId(), job.getToYear(),
+                            totalAllowance, totalAllowance, carried, timestamp});
+                    movements.add(new LeaveLedger.Entry(source.userId(), source.leaveTypeId(), job.getToYear(),
+                            LeaveLedger.Movement.ALLOCATE, source.defaultAllowanceQuarters(), 0, 0, 0));
+                    movements.add(new LeaveLedger.Entry(source.userId(), source.leaveTypeId(), job.getToYear(),
+                            LeaveLedger.Movement.CARRY_OVER, carried, 0, 0, carried));
+                }
+            }
+
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_TARGET_SQL, updates);
+            }
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_TARGET_SQL, inserts);
+            }
+            leaveLedger.appendFolded(movements);
+
+            job.setLastBalanceId(page.get(page.size() - 1).id());
+            job.setProcessedCount(job.getProcessedCount() + page.size());
+            job.setCarriedOverCount(job.getCarriedOverCount() + updates.size() + inserts.size());
+            job.setUpdatedAt(now);
+            return true;
+        }));
+    }
+
+    /**
+     * Soldes de l'année cible existants pour les utilisateurs de la page (une requête).
+     * Utilisateurs et soldes verrouillés jusqu'à la fin de la page : leurs valeurs servent à calculer les mouvements du journal.
+     */
+    private Map<String, TargetBalance> findTargetBalances(Integer toYear, List<SourceBalance> page) {
+        List<Long> userIds = page.stream().map(SourceBalance::userId).distinct().collect(Collectors.toList());
+        String placeholders = userIds.stream().map(id -> "?").collect(Collectors.joining(", "));
+
+        // Utilisateurs verrouillés d'abord, dans l'ordre des ids, comme l'initialisation des soldes :
+        // les soldes insérés par la page ne peuvent pas être créés en même temps par une initialisation
+        jdbcTemplate.queryForList("SELECT id FROM users WHERE id IN (" + placeholders + ") ORDER BY id FOR UPDATE",
+                Long.class, userIds.toArray());
+
+        List<Object> args = new ArrayList<>();
+        args.add(toYear);
+        args.addAll(userIds);
+
+        Map<String, TargetBalance> targets = new HashMap<>();
+        jdbcTemplate.query("SELECT id, user_id, leave_type_id, total_allowance_quarters, carried_over_quarters " +
+                        "FROM leave_balances WHERE year = ? AND user_id IN (" + placeholders + ") " +
+                        "ORDER BY id FOR UPDATE",
+                (RowCallbackHandler) rs ->
+                        targets.put(key(rs.getLong("user_id"), rs.getLong("leave_type_id")),
+                                new TargetBalance(rs.getLong("id"), rs.getLong("total_allowance_quarters"),
+                                        rs.getLong("carried_over_quarters"))),
+                args.toArray());
+        return targets;
+    }
+
+    private void markFailed(Long jobId, Exception failure) {
+        jobRepository.findById(jobId).ifPresent(job -> {
+            String error = failure.getMessage() != null ? failure.getMessage() : failure.getClass().getName();
+            job.setStatus(CarryOverJob.Status.FAILED);
+            job.setError(error.length() > 1000 ? error.substring(0, 1000) : error);
+            job.setFinishedAt(LocalDateTime.now());
+            job.setUpdatedAt(LocalDateTime.now());
+            jobRepository.save(job);
+        });
+    }
+
+    private static String key(Long userId, Long leaveTypeId) {
+        return userId + ":" + leaveTypeId;
+    }
+
+    private CarryOverJobDTO convertToDTO(CarryOverJob job) {
+        CarryOverJobDTO dto = new CarryOverJobDTO();
+        dto.setId(job.getId());
+        dto.setFromYear(job.getFromYear());
+        dto.setToYear(job.getToYear());
+        dto.setStatus(job.getStatus());
+        dto.setProcessedCount(job.getProcessedCount());
+        dto.setCarriedOverCount(job.getCarriedOverCount());
+        dto.setError(job.getError());
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setUpdatedAt(job.getUpdatedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+        return dto;
+    }
+
+    private record SourceBalance(Long id, Long userId, Long leaveTypeId, long remainingQuarters,
+                                 Integer maxCarryOverDays, long defaultAllowanceQuarters) {
+    }
+
+    private record TargetBalance(Long id, long totalAllowanceQuarters, long carriedOverQuarters) {
+    }
+}
@@ -0,0 +1,43 @@
+package art.org.example.gestion_des_conges.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compteurs de version de la table catalog_versions, un par ensemble de données lu souvent et modifié rarement.
+ * Incrémentés dans la transaction de chaque modification : ils servent à recharger les copies en mémoire
+ * et à construire les ETag des réponses HTTP.
+ */
+@Component
+public class CatalogVersions {
+
+    public static final String LEAVE_TYPES = "leave_types";
+    public static final String TEAMS = "teams";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public long current(String name) {
+        Long version = jdbcTemplate.queryForObject(
+                "SELECT version FROM catalog_versions WHERE name = ?", Long.class, name);
+        return version != null ? version : 0L;
+    }
+
+    /**
+     * À appeler dans la transaction de la modification (la version est annulée avec elle en cas de rollback)
+     */
+    public void increment(String name) {
+        jdbcTemplate.update("UPDATE catalog_versions SET version = version + 1 WHERE name = ?", name);
+    }
+
+    /**
+     * Incrément après le commit de la transaction en cours, hors de celle-ci : pour les écritures fréquentes
+     * (utilisateurs) qui ne doivent pas garder le verrou de la ligne partagée jusqu'à leur commit.
+     * Seulement pour une version qui sert d'ETag : une lecture entre le commit et l'incrément renvoie
+     * les nouvelles données sous l'ancienne version, la suivante change d'ETag.
+     */
+    public void incrementAfterCommit(String name) {
+        TransactionHooks.afterCommit(() -> increment(name));
+    }
+}
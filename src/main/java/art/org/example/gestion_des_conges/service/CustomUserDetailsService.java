@@ -1,28 +1,103 @@
 package art.org.example.gestion_des_conges.service;
 
+import art.org.example.gestion_des_conges.entity.Team;
 import art.org.example.gestion_des_conges.entity.User;
 import art.org.example.gestion_des_conges.repository.UserRepository;
+import art.org.example.gestion_des_conges.security.UserTokenStampRegistry;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final UserTokenStampRegistry tokenStampRegistry;
+
+    // Cache des utilisateurs par username (borné en taille et en durée) : copies immuables, jamais l'entité
+    private final Cache<String, CachedUser> userCache;
+
+    /**
+     * Copie immuable d'un utilisateur, avec la version (users.token_version) lue en même temps.
+     * Chaque appel en reconstruit un principal distinct : aucune instance partagée entre requêtes.
+     */
+    record CachedUser(Long id, String username, String password, String email, String firstName, String lastName,
+                      User.Role role, boolean active, Long teamId, long version) {
+
+        static CachedUser of(User user) {
+            return new CachedUser(user.getId(), user.getUsername(), user.getPassword(), user.getEmail(),
+                    user.getFirstName(), user.getLastName(), user.getRole(), Boolean.TRUE.equals(user.getActive()),
+                    user.getTeam() != null ? user.getTeam().getId() : null,
+                    user.getTokenVersion() != null ? user.getTokenVersion() : 0L);
+        }
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+        User toUser() {
+            User user = new User();
+            user.setId(id);
+            user.setUsername(username);
+            user.setPassword(password);
+            user.setEmail(email);
+            user.setFirstName(firstName);
+            user.setLastName(lastName);
+            user.setRole(role);
+            user.setActive(active);
+            user.setTokenVersion(version);
+            if (teamId != null) {
+                Team team = new Team();
+                team.setId(teamId);
+                user.setTeam(team);
+            }
+            return user;
+        }
+    }
+
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    UserTokenStampRegistry tokenStampRegistry,
+                                    @Value("${app.user-cache.max-size:10000}") long maxSize,
+                                    @Value("${app.user-cache.ttl-seconds:300}") long ttlSeconds) {
         this.userRepository = userRepository;
+        this.tokenStampRegistry = tokenStampRegistry;
+        this.userCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
     }
 
+    /**
+     * Une entrée du cache n'est acceptée que si sa version est encore celle de la base
+     * (UserTokenStampRegistry, relue au plus tard après jwt.stamp-cache-ttl-ms) :
+     * une modification faite sur une autre instance invalide aussi l'entrée locale.
+     */
+    // Pas de @Transactional ici : un hit ne doit pas emprunter de connexion au pool
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        CachedUser cached = userCache.getIfPresent(username);
+        if (cached != null) {
+            UserTokenStampRegistry.Stamp stamp = tokenStampRegistry.currentStamp(username);
+            if (stamp != null && stamp.version() == cached.version()) {
+                return cached.toUser();
+            }
+            userCache.invalidate(username);
+        }
+
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
-        return user;
+        CachedUser snapshot = CachedUser.of(user);
+        userCache.put(username, snapshot);
+        return snapshot.toUser();
     }
 
     @Transactional
@@ -31,4 +106,41 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + id));
         return user;
     }
-}
\ No newline at end of file
+
+    /**
+     * Invalide tout ce qui a été dérivé d'un utilisateur : l'entrée du cache
+     * et les principals reconstruits depuis les tokens déjà émis.
+     * À appeler après toute modification d'un utilisateur.
+     */
+    public void invalidateUser(String username) {
+        if (username == null) {
+            return;
+        }
+        userCache.invalidate(username);
+        tokenStampRegistry.markChanged(username);
+
+        // Une requête concurrente peut recharger l'ancienne version avant le commit : réinvalider après
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    userCache.invalidate(username);
+                }
+            });
+        }
+    }
+
+    /**
+     * Statistiques du cache (pour le dimensionnement)
+     */
+    public Map<String, Object> getCacheStats() {
+        CacheStats stats = userCache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", userCache.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("evictions", stats.evictionCount());
+        result.put("hitRate", stats.hitRate());
+        return result;
+    }
+}
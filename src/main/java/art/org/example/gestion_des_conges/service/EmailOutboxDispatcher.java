@@ -0,0 +1,175 @@
+package art.org.example.gestion_des_conges.service;
+
+import art.org.example.gestion_des_conges.entity.OutboundEmail;
+import art.org.example.gestion_des_conges.repository.OutboundEmailRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Vide l'outbox des emails : réserve les emails dus, les envoie par lots
+ * (une connexion SMTP par lot) sur un pool borné, et replanifie les échecs avec backoff.
+ */
+@Service
+public class EmailOutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    private final OutboundEmailRepository outboundEmailRepository;
+    private final JavaMailSender mailSender;
+    private final ThreadPoolTaskExecutor mailExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.mail.outbox.batch-size:20}")
+    private int batchSize;
+
+    @Value("${app.mail.outbox.workers:2}")
+    private int workers;
+
+    @Value("${app.mail.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.mail.outbox.backoff-seconds:30}")
+    private long backoffSeconds;
+
+    @Value("${app.mail.outbox.lease-seconds:300}")
+    private long leaseSeconds;
+
+    public EmailOutboxDispatcher(OutboundEmailRepository outboundEmailRepository,
+                                 JavaMailSender mailSender,
+                                 @Qualifier("mailExecutor") ThreadPoolTaskExecutor mailExecutor,
+                                 PlatformTransactionManager transactionManager) {
+        this.outboundEmailRepository = outboundEmailRepository;
+        this.mailSender = mailSender;
+        this.mailExecutor = mailExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Un passage : réserve au plus (workers x batchSize) emails et attend la fin des envois.
+     * Retourne le nombre d'emails traités.
+     */
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms:5000}",
+            initialDelayString = "${app.mail.outbox.poll-interval-ms:5000}")
+    public int dispatchPending() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseUntil = now.plusSeconds(leaseSeconds);
+
+        // Réservation en deux requêtes quel que soit le nombre d'emails : les lignes verrouillées par
+        // une autre instance sont sautées, chaque email n'est réservé que par une seule
+        List<Long> claimedIds = transactionTemplate.execute(status -> {
+            List<Long> ids = outboundEmailRepository.lockDueIds(now, workers * batchSize);
+            if (!ids.isEmpty()) {
+                outboundEmailRepository.claimAll(ids, leaseUntil);
+            }
+            return ids;
+        });
+        if (claimedIds == null || claimedIds.isEmpty()) {
+            return 0;
+        }
+
+        List<OutboundEmail> claimed = outboundEmailRepository.findAllById(claimedIds);
+        List<Callable<Void>> batches = new ArrayList<>();
+        for (int i = 0; i < claimed.size(); i += batchSize) {
+            List<OutboundEmail> batch = claimed.subList(i, Math.min(i + batchSize, claimed.size()));
+            batches.add(() -> {
+                sendBatch(batch);
+                return null;
+            });
+        }
+
+        List<Future<Void>> futures = new ArrayList<>();
+        for (Callable<Void> batch : batches) {
+            futures.add(mailExecutor.submit(batch));
+        }
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                // Les emails restent réservés et seront repris à l'expiration de la réservation
+                log.error("Échec inattendu d'un lot d'emails", e.getCause());
+            }
+        }
+        return claimed.size();
+    }
+
+    /**
+     * Envoie un lot sur une seule connexion SMTP puis enregistre le résultat de chaque email
+     */
+    private void sendBatch(List<OutboundEmail> batch) {
+        Map<SimpleMailMessage, OutboundEmail> messages = new IdentityHashMap<>();
+        for (OutboundEmail email : batch) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo(email.getRecipient().split(","));
+            message.setSubject(email.getSubject());
+            message.setText(email.getBody());
+            messages.put(message, email);
+        }
+
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        try {
+            mailSender.send(messages.keySet().toArray(new SimpleMailMessage[0]));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                messages.keySet().forEach(message -> failures.put(message, e));
+            } else {
+                failures.putAll(e.getFailedMessages());
+            }
+        } catch (Exception e) {
+            messages.keySet().forEach(message -> failures.put(message, e));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        messages.forEach((message, email) -> {
+            Exception failure = failures.get(message);
+            if (failure == null) {
+                email.setStatus(OutboundEmail.Status.SENT);
+                email.setSentAt(now);
+                email.setBody(null);
+                email.setLastError(null);
+            } else {
+                recordFailure(email, failure, now);
+            }
+        });
+        outboundEmailRepository.saveAll(batch);
+    }
+
+    private void recordFailure(OutboundEmail email, Exception failure, LocalDateTime now) {
+        String error = failure.getMessage() != null ? failure.getMessage() : failure.getClass().getName();
+        email.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+
+        if (email.getAttempts() >= maxAttempts) {
+            email.setStatus(OutboundEmail.Status.DEAD);
+            // Plus jamais envoyé : ne pas garder le mot de passe temporaire ou le lien de réinitialisation
+            email.setBody(null);
+            log.warn("Email {} abandonné après {} tentatives : {}", email.getId(), email.getAttempts(), error);
+        } else {
+            // Backoff exponentiel : base, 2 x base, 4 x base...
+            long delay = backoffSeconds << Math.min(email.getAttempts() - 1, 16);
+            email.setStatus(OutboundEmail.Status.PENDING);
+            email.setNextAttemptAt(now.plus(Duration.ofSeconds(delay)));
+        }
+    }
+}
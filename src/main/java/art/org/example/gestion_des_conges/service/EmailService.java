@@ -1,17 +1,37 @@
 package art.org.example.gestion_des_conges.service;
 
+import art.org.example.gestion_des_conges.entity.OutboundEmail;
+import art.org.example.gestion_des_conges.repository.OutboundEmailRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Les emails ne sont plus envoyés pendant la requête : ils sont écrits dans l'outbox
+ * (même transaction que l'appelant) puis envoyés par EmailOutboxDispatcher.
+ */
 @Service
 public class EmailService {
 
     @Autowired
-    private JavaMailSender mailSender;
+    private OutboundEmailRepository outboundEmailRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
     public void sendWelcomeEmail(String to, String fullName, String tempPassword, String username) {
+        enqueue(buildWelcomeMessage(to, fullName, tempPassword, username));
+    }
+
+    /**
+     * Construit l'email de bienvenue (utilisé aussi par l'import en masse)
+     */
+    public SimpleMailMessage buildWelcomeMessage(String to, String fullName, String tempPassword, String username) {
         SimpleMailMessage message = new SimpleMailMessage();
         message.setTo(to);
         message.setSubject("Bienvenue sur la plateforme de gestion des congés");
@@ -24,7 +44,7 @@ public class EmailService {
                 + "⚠️ Veuillez changer votre mot de passe à la première connexion.\n\n"
                 + "Pour vous connecter, rendez-vous sur : " + to + "\n\n"
                 + "Cordialement,\nL'équipe des Ressources Humaines");
-        mailSender.send(message);
+        return message;
     }
 
     // AJOUTER CETTE MÉTHODE
@@ -39,7 +59,7 @@ public class EmailService {
                 + "⚠️ Ce lien expire dans 24 heures.\n\n"
                 + "Si vous n'avez pas fait cette demande, veuillez ignorer cet email.\n\n"
                 + "Cordialement,\nL'équipe des Ressources Humaines");
-        mailSender.send(message);
+        enqueue(message);
     }
 
     // AJOUTER CETTE MÉTHODE POUR LES NOTIFICATIONS FUTURES
@@ -51,6 +71,34 @@ public class EmailService {
                 + "Votre demande de congé a été " + status + ".\n\n"
                 + "Détails : " + details + "\n\n"
                 + "Cordialement,\nL'équipe des Ressources Humaines");
-        mailSender.send(message);
+        enqueue(message);
+    }
+
+    /**
+     * Ajoute le message à l'outbox
+     */
+    private void enqueue(SimpleMailMessage message) {
+        OutboundEmail email = new OutboundEmail();
+        email.setRecipient(String.join(",", message.getTo()));
+        email.setSubject(message.getSubject());
+        email.setBody(message.getText());
+        outboundEmailRepository.save(email);
+    }
+
+    /**
+     * Ajoute plusieurs messages à l'outbox en un seul batch JDBC (import en masse)
+     */
+    public void enqueueAll(List<SimpleMailMessage> messages) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate("INSERT INTO outbound_emails " +
+                        "(recipient, subject, body, status, attempts, next_attempt_at, created_at) " +
+                        "VALUES (?, ?, ?, 'PENDING', 0, ?, ?)",
+                messages, messages.size(), (ps, message) -> {
+                    ps.setString(1, String.join(",", message.getTo()));
+                    ps.setString(2, message.getSubject());
+                    ps.setString(3, message.getText());
+                    ps.setTimestamp(4, now);
+                    ps.setTimestamp(5, now);
+                });
     }
 }
\ No newline at end of file
@@ -0,0 +1,135 @@
+package art.org.example.gestion_des_conges.service;
+
+import art.org.example.gestion_des_conges.dto.LeaveBalanceDTO;
+import art.org.example.gestion_des_conges.entity.LeaveDays;
+import art.org.example.gestion_des_conges.entity.LeaveType;
+import art.org.example.gestion_des_conges.repository.LeaveBalanceRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Vue lecture des soldes d'un utilisateur pour une année (GET /api/leave-balances/me) :
+ * liste de DTO immuable gardée en mémoire avec l'empreinte des soldes qui l'a produite.
+ * Chaque lecture relit l'empreinte (une requête agrégée sur idx_leave_balances_user_year et idx_leave_ledger_user_year) :
+ * si elle n'a pas changé la liste est servie telle quelle, sinon elle est reconstruite
+ * en une requête de projection, sans charger d'entités. Aucune invalidation à propager
+ * entre instances : une écriture faite ailleurs change l'empreinte lue en base.
+ */
+@Component
+public class LeaveBalanceReadModel {
+
+    private final LeaveBalanceRepository leaveBalanceRepository;
+    private final LeaveTypeCatalog leaveTypeCatalog;
+
+    // Vues par (utilisateur, année), bornées en taille ; la durée ne sert qu'à libérer les vues inutilisées
+    private final Cache<Key, View> views;
+
+    private record Key(Long userId, Integer year) {
+    }
+
+    private record View(String tag, List<LeaveBalanceDTO> balances) {
+    }
+
+    public LeaveBalanceReadModel(LeaveBalanceRepository leaveBalanceRepository,
+                                 LeaveTypeCatalog leaveTypeCatalog,
+                                 @Value("${app.balance-cache.max-size:50000}") long maxSize,
+                                 @Value("${app.balance-cache.ttl-seconds:3600}") long ttlSeconds) {
+        this.leaveBalanceRepository = leaveBalanceRepository;
+        this.leaveTypeCatalog = leaveTypeCatalog;
+        this.views = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Empreinte des soldes, calculée sans les charger : change dès qu'un solde est créé, qu'un mouvement est
+     * ajouté au journal ou reporté dans la projection (version), que l'utilisateur est modifié (nom affiché) ou que le catalogue des types de congés change
+     * (nom et couleur affichés). null si aucun solde n'existe.
+     */
+    public String tag(Long userId, Integer year) {
+        Object[] stamp = leaveBalanceRepository.findBalanceStamp(userId, year).get(0);
+        long count = ((Number) stamp[0]).longValue();
+        if (count == 0) {
+            return null;
+        }
+        return "b" + userId + "-" + year + "-" + count + "-" + stamp[1]
+                + "-" + stamp[2]
+                + "-" + tagPart(stamp[3])
+                + "-" + stamp[4]
+                + "-" + leaveTypeCatalog.version();
+    }
+
+    /**
+     * Soldes correspondant à l'empreinte tag (obtenue par tag()). Liste partagée : ne pas la modifier.
+     */
+    public List<LeaveBalanceDTO> balances(Long userId, Integer year, String tag) {
+        Key key = new Key(userId, year);
+        View view = views.getIfPresent(key);
+        if (view != null && view.tag().equals(tag)) {
+            return view.balances();
+        }
+
+        // Lignes lues après l'empreinte : au pire plus récentes qu'elle, et l'empreinte suivante diffèrera
+        List<LeaveBalanceDTO> balances = leaveBalanceRepository.findBalanceRowsByUserIdAndYear(userId, year).stream()
+                .map(this::fromRow)
+                .toList();
+        views.put(key, new View(tag, balances));
+        return balances;
+    }
+
+    public CacheStats stats() {
+        return views.stats();
+    }
+
+    /**
+     * Ligne de solde courant de LeaveBalanceRepository (findBalanceRowsByUserIdAndYear, findBalanceRow,
+     * findUsersWithLowBalance) -> DTO
+     */
+    public LeaveBalanceDTO fromRow(Object[] row) {
+        Long leaveTypeId = ((Number) row[4]).longValue();
+        Optional<LeaveType> leaveType = leaveTypeCatalog.findById(leaveTypeId);
+        long totalQuarters = ((Number) row[6]).longValue();
+        long usedQuarters = ((Number) row[7]).longValue();
+        LeaveDays remainingDays = LeaveDays.ofQuarters(((Number) row[9]).longValue());
+
+        LeaveBalanceDTO dto = new LeaveBalanceDTO();
+        dto.setId(((Number) row[0]).longValue());
+        dto.setUserId(((Number) row[1]).longValue());
+        dto.setUserName(row[2] + " " + row[3]);
+        dto.setLeaveTypeId(leaveTypeId);
+        dto.setLeaveTypeName(leaveType.map(LeaveType::getName).orElse(null));
+        dto.setLeaveTypeColor(leaveType.map(LeaveType::getColor).orElse(null));
+        dto.setYear(((Number) row[5]).intValue());
+        dto.setTotalAllowance(LeaveDays.ofQuarters(totalQuarters));
+        dto.setUsedDays(LeaveDays.ofQuarters(usedQuarters));
+        dto.setPendingDays(LeaveDays.ofQuarters(((Number) row[8]).longValue()));
+        dto.setRemainingDays(remainingDays);
+        dto.setCarriedOverDays(LeaveDays.ofQuarters(((Number) row[10]).longValue()));
+        dto.setAvailableDays(remainingDays);
+        dto.setPercentageUsed(totalQuarters > 0 ? (int) (usedQuarters * 100 / totalQuarters) : 0);
+        return dto;
+    }
+
+    // Horodatage renvoyé par le pilote JDBC (Timestamp ou LocalDateTime selon la version)
+    private static String tagPart(Object value) {
+        if (value == null) {
+            return "0";
+        }
+        LocalDateTime timestamp = value instanceof Timestamp sqlTimestamp
+                ? sqlTimestamp.toLocalDateTime() : (LocalDateTime) value;
+        long micros = timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + timestamp.getNano() / 1_000;
+        return Long.toString(micros, 36);
+    }
+}
@@ -1,7 +1,9 @@
 package art.org.example.gestion_des_conges.service;
 
 import art.org.example.gestion_des_conges.dto.LeaveBalanceDTO;
+import art.org.example.gestion_des_conges.dto.LeaveMovementDTO;
 import art.org.example.gestion_des_conges.entity.LeaveBalance;
+import art.org.example.gestion_des_conges.entity.LeaveDays;
 import art.org.example.gestion_des_conges.entity.LeaveType;
 import art.org.example.gestion_des_conges.entity.User;
 import art.org.example.gestion_des_conges.repository.LeaveBalanceRepository;
@@ -13,6 +15,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -28,260 +31,249 @@ public class LeaveBalanceService {
     @Autowired
     private LeaveTypeRepository leaveTypeRepository;
 
+    @Autowired
+    private LeaveTypeCatalog leaveTypeCatalog;
+
+    @Autowired
+    private LeaveBalanceReadModel balanceReadModel;
+
+    @Autowired
+    private LeaveLedger leaveLedger;
+
     /**
      * US-03.3 : Initialiser les soldes d'un utilisateur pour une année
      */
     @Transactional
     public void initializeUserBalances(Long userId, Integer year) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("Utilisateur non trouvé"));
-
-        // Récupérer tous les types de congés actifs
-        List<LeaveType> activeLeaveTypes = leaveTypeRepository.findByIsActiveTrue();
-
-        for (LeaveType leaveType : activeLeaveTypes) {
-            // Vérifier si le solde existe déjà
-            if (!leaveBalanceRepository.existsByUserIdAndLeaveTypeIdAndYear(userId, leaveType.getId(), year)) {
-                LeaveBalance balance = new LeaveBalance();
-                balance.setUser(user);
-                balance.setLeaveType(leaveType);
-                balance.setYear(year);
-                balance.setTotalAllowance(leaveType.getDefaultAnnualAllowance());
-                balance.setUsedDays(0.0);
-                balance.setPendingDays(0.0);
-                balance.setRemainingDays(leaveType.getDefaultAnnualAllowance());
-                balance.setCarriedOverDays(0.0);
-
-                leaveBalanceRepository.save(balance);
-            }
+        // Appels simultanés (premières lectures de GET /me en parallèle) : le second attend le commit du premier,
+        // puis ne trouve plus rien à créer. Sans verrou, il violerait la contrainte d'unicité des soldes.
+        if (userRepository.lockUser(userId).isEmpty()) {
+            throw new EntityNotFoundException("Utilisateur non trouvé");
         }
+
+        // Créer en une requête les soldes manquants pour tous les types de congés actifs,
+        // précédés de leur mouvement d'ouverture dans le journal
+        leaveLedger.appendOpening(userId, year);
+        leaveBalanceRepository.insertMissingBalancesForUser(userId, year);
     }
 
     /**
      * US-03.5 : Consulter les soldes d'un utilisateur
      */
+    @Transactional
     public List<LeaveBalanceDTO> getUserBalances(Long userId, Integer year) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("Utilisateur non trouvé"));
+        return getUserBalances(userId, year, getUserBalancesTag(userId, year));
+    }
 
-        // Si aucun solde n'existe pour cette année, les initialiser
-        List<LeaveBalance> balances = leaveBalanceRepository.findByUserIdAndYear(userId, year);
-        if (balances.isEmpty()) {
+    /**
+     * Variante pour l'appelant qui a déjà lu l'empreinte (GET /me, pour l'ETag) : servie par la vue
+     * lecture sans seconde requête d'empreinte.
+     * Transactionnelle pour l'initialisation des soldes manquants (appel interne, hors proxy).
+     */
+    @Transactional
+    public List<LeaveBalanceDTO> getUserBalances(Long userId, Integer year, String tag) {
+        if (tag == null) {
+            // Si aucun solde n'existe pour cette année, les initialiser
             initializeUserBalances(userId, year);
-            balances = leaveBalanceRepository.findByUserIdAndYear(userId, year);
+            tag = getUserBalancesTag(userId, year);
+            if (tag == null) {
+                return new ArrayList<>(); // aucun type de congé actif
+            }
         }
-
-        return balances.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return balanceReadModel.balances(userId, year, tag);
     }
 
     /**
-     * US-03.3 : Définir manuellement le solde d'un utilisateur
+     * ETag des soldes d'un utilisateur pour une année, calculé sans charger les soldes
+     * (null tant qu'aucun solde n'existe : la première lecture les initialise)
      */
-    @Transactional
-    public LeaveBalanceDTO setUserBalance(Long userId, Long leaveTypeId, Integer year, Double allowance) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("Utilisateur non trouvé"));
-
-        LeaveType leaveType = leaveTypeRepository.findById(leaveTypeId)
-                .orElseThrow(() -> new EntityNotFoundException("Type de congé non trouvé"));
-
-        LeaveBalance balance = leaveBalanceRepository
-                .findByUserAndLeaveTypeAndYear(user, leaveType, year)
-                .orElseGet(() -> {
-                    LeaveBalance newBalance = new LeaveBalance();
-                    newBalance.setUser(user);
-                    newBalance.setLeaveType(leaveType);
-                    newBalance.setYear(year);
-                    newBalance.setUsedDays(0.0);
-                    newBalance.setPendingDays(0.0);
-                    newBalance.setCarriedOverDays(0.0);
-                    return newBalance;
-                });
-
-        balance.setTotalAllowance(allowance);
-        balance.recalculateRemaining();
-
-        LeaveBalance savedBalance = leaveBalanceRepository.save(balance);
-        return convertToDTO(savedBalance);
+    public String getUserBalancesTag(Long userId, Integer year) {
+        return balanceReadModel.tag(userId, year);
     }
 
     /**
-     * US-03.4 : Reporter les soldes de l'année précédente
+     * US-03.3 : Définir manuellement le solde d'un utilisateur
+     * Solde existant : verrouillé, puis mouvement ALLOCATE de l'écart avec les droits courants
+     * (les jours en attente/utilisés écrits en parallèle sont conservés)
      */
     @Transactional
-    public void carryOverBalances(Integer fromYear, Integer toYear) {
-        List<LeaveBalance> balancesToCarryOver = leaveBalanceRepository.findBalancesToCarryOver(fromYear);
-
-        for (LeaveBalance oldBalance : balancesToCarryOver) {
-            LeaveType leaveType = oldBalance.getLeaveType();
+    public LeaveBalanceDTO setUserBalance(Long userId, Long leaveTypeId, Integer year, LeaveDays allowance) {
+        LeaveType leaveType = leaveTypeReference(leaveTypeId);
+        // Verrou de l'utilisateur d'abord, comme l'initialisation des soldes : la création ci-dessous
+        // ne peut pas croiser une initialisation en cours
+        if (userRepository.lockUser(userId).isEmpty()) {
+            throw new EntityNotFoundException("Utilisateur non trouvé");
+        }
 
-            // Calculer les jours à reporter
-            Double daysToCarryOver = oldBalance.getRemainingDays();
-            if (leaveType.getMaxCarryOverDays() != null) {
-                daysToCarryOver = Math.min(daysToCarryOver, leaveType.getMaxCarryOverDays());
+        if (leaveBalanceRepository.lockBalance(userId, leaveTypeId, year).isPresent()) {
+            LeaveBalanceDTO current = currentBalance(userId, leaveTypeId, year);
+            long delta = allowance.minus(current.getTotalAllowance()).quarters();
+            if (delta == 0) {
+                return current;
             }
+            leaveLedger.append(new LeaveLedger.Entry(userId, leaveTypeId, year,
+                    LeaveLedger.Movement.ALLOCATE, delta, 0, 0, 0));
+            return currentBalance(userId, leaveTypeId, year);
+        }
 
-            if (daysToCarryOver > 0) {
-                // Créer ou mettre à jour le solde de l'année suivante
-                LeaveBalance newBalance = leaveBalanceRepository
-                        .findByUserAndLeaveTypeAndYear(oldBalance.getUser(), leaveType, toYear)
-                        .orElseGet(() -> {
-                            LeaveBalance nb = new LeaveBalance();
-                            nb.setUser(oldBalance.getUser());
-                            nb.setLeaveType(leaveType);
-                            nb.setYear(toYear);
-                            nb.setUsedDays(0.0);
-                            nb.setPendingDays(0.0);
-                            return nb;
-                        });
-
-                newBalance.setCarriedOverDays(daysToCarryOver);
-                newBalance.setTotalAllowance(leaveType.getDefaultAnnualAllowance() + daysToCarryOver);
-                newBalance.recalculateRemaining();
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new EntityNotFoundException("Utilisateur non trouvé"));
 
-                leaveBalanceRepository.save(newBalance);
-            }
-        }
+        LeaveBalance newBalance = new LeaveBalance();
+        newBalance.setUser(user);
+        newBalance.setLeaveType(leaveType);
+        newBalance.setYear(year);
+        newBalance.setTotalAllowanceQuarters(allowance.quarters());
+        newBalance.recalculateRemaining();
+        leaveBalanceRepository.saveAndFlush(newBalance);
+
+        // Solde créé directement dans la projection : mouvement déjà reporté
+        leaveLedger.appendFolded(List.of(new LeaveLedger.Entry(userId, leaveTypeId, year,
+                LeaveLedger.Movement.ALLOCATE, allowance.quarters(), 0, 0, 0)));
+        return currentBalance(userId, leaveTypeId, year);
     }
 
     /**
      * Initialiser tous les utilisateurs pour une année
+     * Une seule requête INSERT ... SELECT (utilisateurs x types actifs), idempotente.
+     * Tous les utilisateurs sont verrouillés avant (dans l'ordre des ids) : les initialisations et créations
+     * de soldes individuelles attendent la fin, au lieu de faire échouer l'INSERT sur la contrainte d'unicité.
+     * Retourne le nombre de soldes créés.
      */
     @Transactional
-    public void initializeAllUsersForYear(Integer year) {
-        List<User> allUsers = userRepository.findAll();
-        for (User user : allUsers) {
-            initializeUserBalances(user.getId(), year);
-        }
+    public int initializeAllUsersForYear(Integer year) {
+        userRepository.lockAllUsers();
+        leaveLedger.appendOpening(null, year);
+        return leaveBalanceRepository.insertMissingBalancesForYear(year);
     }
 
     /**
      * Obtenir le solde d'un utilisateur pour un type spécifique
      */
     public LeaveBalanceDTO getUserBalanceForType(Long userId, Long leaveTypeId, Integer year) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("Utilisateur non trouvé"));
-
-        LeaveType leaveType = leaveTypeRepository.findById(leaveTypeId)
-                .orElseThrow(() -> new EntityNotFoundException("Type de congé non trouvé"));
-
-        LeaveBalance balance = leaveBalanceRepository
-                .findByUserAndLeaveTypeAndYear(user, leaveType, year)
-                .orElseThrow(() -> new EntityNotFoundException("Solde non trouvé"));
-
-        return convertToDTO(balance);
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException("Utilisateur non trouvé");
+        }
+        leaveTypeReference(leaveTypeId);
+        return currentBalance(userId, leaveTypeId, year);
     }
 
     /**
      * Mettre à jour un solde après validation/refus d'une demande
      * Actions possibles : PENDING, APPROVED, REJECTED, CANCELLED
+     * Un mouvement ajouté au journal (INSERT seul, aucun verrou sur le solde) : des validations parallèles
+     * sur le même solde ne se bloquent pas et ne perdent aucune mise à jour ; le solde courant
+     * (projection + mouvements non reportés) garde remaining = total - used - pending.
      */
     @Transactional
     public void updateBalanceAfterRequest(Long userId, Long leaveTypeId, Integer year,
-                                          Double days, String action) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("Utilisateur non trouvé"));
-
-        LeaveType leaveType = leaveTypeRepository.findById(leaveTypeId)
-                .orElseThrow(() -> new EntityNotFoundException("Type de congé non trouvé"));
-
-        LeaveBalance balance = leaveBalanceRepository
-                .findByUserAndLeaveTypeAndYear(user, leaveType, year)
-                .orElseThrow(() -> new EntityNotFoundException("Solde non trouvé"));
-
+                                          LeaveDays days, String action) {
+        long quarters = days.quarters();
+        LeaveLedger.Movement movement;
+        long pendingDelta;
+        long usedDelta;
         switch (action) {
             case "PENDING":
                 // Demande soumise → Bloquer les jours
-                balance.setPendingDays(balance.getPendingDays() + days);
+                movement = LeaveLedger.Movement.PENDING;
+                pendingDelta = quarters;
+                usedDelta = 0;
                 break;
             case "APPROVED":
                 // Demande validée → Débloquer et déduire
-                balance.setPendingDays(balance.getPendingDays() - days);
-                balance.setUsedDays(balance.getUsedDays() + days);
+                movement = LeaveLedger.Movement.APPROVED;
+                pendingDelta = -quarters;
+                usedDelta = quarters;
                 break;
             case "REJECTED":
                 // Demande refusée → Débloquer sans déduire
-                balance.setPendingDays(balance.getPendingDays() - days);
+                movement = LeaveLedger.Movement.REJECTED;
+                pendingDelta = -quarters;
+                usedDelta = 0;
                 break;
             case "CANCELLED":
                 // Demande annulée → Rendre les jours
-                balance.setUsedDays(balance.getUsedDays() - days);
+                movement = LeaveLedger.Movement.CANCELLED;
+                pendingDelta = 0;
+                usedDelta = -quarters;
                 break;
             default:
                 throw new IllegalArgumentException("Action invalide : " + action);
         }
 
-        balance.recalculateRemaining();
-        leaveBalanceRepository.save(balance);
+        leaveTypeReference(leaveTypeId);
+        if (!leaveBalanceRepository.existsByUserIdAndLeaveTypeIdAndYear(userId, leaveTypeId, year)) {
+            throw notFound(userId);
+        }
+        leaveLedger.append(new LeaveLedger.Entry(userId, leaveTypeId, year, movement,
+                0, usedDelta, pendingDelta, 0));
     }
 
     /**
      * Vérifier si un utilisateur a assez de solde
      */
-    public boolean hasSufficientBalance(Long userId, Long leaveTypeId, Integer year, Double requestedDays) {
-        try {
-            User user = userRepository.findById(userId)
-                    .orElseThrow(() -> new EntityNotFoundException("Utilisateur non trouvé"));
-
-            LeaveType leaveType = leaveTypeRepository.findById(leaveTypeId)
-                    .orElseThrow(() -> new EntityNotFoundException("Type de congé non trouvé"));
-
-            LeaveBalance balance = leaveBalanceRepository
-                    .findByUserAndLeaveTypeAndYear(user, leaveType, year)
-                    .orElse(null);
-
-            if (balance == null) {
-                return false;
-            }
-
-            return balance.hasSufficientBalance(requestedDays);
-        } catch (Exception e) {
+    public boolean hasSufficientBalance(Long userId, Long leaveTypeId, Integer year, LeaveDays requestedDays) {
+        if (leaveTypeCatalog.findById(leaveTypeId).isEmpty()) {
             return false;
         }
+        return leaveBalanceRepository.findBalanceRow(userId, leaveTypeId, year).stream()
+                .findFirst()
+                .map(balanceReadModel::fromRow)
+                .map(balance -> balance.getRemainingDays().compareTo(requestedDays) >= 0)
+                .orElse(false);
     }
 
     /**
      * Obtenir les utilisateurs avec un solde faible
      */
-    public List<LeaveBalanceDTO> getUsersWithLowBalance(Double threshold, Integer year) {
-        List<LeaveBalance> lowBalances = leaveBalanceRepository.findUsersWithLowBalance(threshold, year);
-        return lowBalances.stream()
-                .map(this::convertToDTO)
+    public List<LeaveBalanceDTO> getUsersWithLowBalance(LeaveDays threshold, Integer year) {
+        return leaveBalanceRepository.findUsersWithLowBalance(threshold.quarters(), year).stream()
+                .map(balanceReadModel::fromRow)
                 .collect(Collectors.toList());
     }
 
     /**
-     * Convertir LeaveBalance en LeaveBalanceDTO
+     * Historique des mouvements d'un utilisateur pour une année (journal)
      */
-    private LeaveBalanceDTO convertToDTO(LeaveBalance balance) {
-        LeaveBalanceDTO dto = new LeaveBalanceDTO();
-        dto.setId(balance.getId());
-        dto.setUserId(balance.getUser().getId());
-        dto.setUserName(balance.getUser().getFirstName() + " " + balance.getUser().getLastName());
-        dto.setLeaveTypeId(balance.getLeaveType().getId());
-        dto.setLeaveTypeName(balance.getLeaveType().getName());
-        dto.setLeaveTypeColor(balance.getLeaveType().getColor());
-        dto.setYear(balance.getYear());
-        dto.setTotalAllowance(balance.getTotalAllowance());
-        dto.setUsedDays(balance.getUsedDays());
-        dto.setPendingDays(balance.getPendingDays());
-        dto.setRemainingDays(balance.getRemainingDays());
-        dto.setCarriedOverDays(balance.getCarriedOverDays());
-        dto.setAvailableDays(balance.getRemainingDays());
-
-        // Calculer le pourcentage utilisé
-        if (balance.getTotalAllowance() > 0) {
-            dto.setPercentageUsed((int) ((balance.getUsedDays() / balance.getTotalAllowance()) * 100));
-        } else {
-            dto.setPercentageUsed(0);
+    public List<LeaveMovementDTO> getUserLedger(Long userId, Integer year) {
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException("Utilisateur non trouvé");
         }
-
-        return dto;
+        return leaveLedger.history(userId, year);
     }
-}
 
+    /**
+     * Recalcule les soldes d'une année à partir du journal ; retourne le nombre de soldes corrigés
+     */
+    public int rebuildBalances(Integer year) {
+        // Mouvements en attente reportés d'abord : le rejeu compare la projection à tout le journal
+        leaveLedger.foldAll();
+        return leaveLedger.rebuild(year);
+    }
 
+    // Solde courant (projection + mouvements non reportés)
+    private LeaveBalanceDTO currentBalance(Long userId, Long leaveTypeId, Integer year) {
+        return leaveBalanceRepository.findBalanceRow(userId, leaveTypeId, year).stream()
+                .findFirst()
+                .map(balanceReadModel::fromRow)
+                .orElseThrow(() -> new EntityNotFoundException("Solde non trouvé"));
+    }
 
+    // Solde absent : utilisateur inconnu ou solde non initialisé
+    private EntityNotFoundException notFound(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            return new EntityNotFoundException("Utilisateur non trouvé");
+        }
+        return new EntityNotFoundException("Solde non trouvé");
+    }
 
+    /**
+     * Type de congé vérifié dans le catalogue (sans requête), puis référence JPA pour les associations
+     */
+    private LeaveType leaveTypeReference(Long leaveTypeId) {
+        if (leaveTypeCatalog.findById(leaveTypeId).isEmpty()) {
+            throw new EntityNotFoundException("Type de congé non trouvé");
+        }
+        return leaveTypeRepository.getReferenceById(leaveTypeId);
+    }
+}
@@ -0,0 +1,254 @@
+package art.org.example.gestion_des_conges.service;
+
+import art.org.example.gestion_des_conges.dto.LeaveMovementDTO;
+import art.org.example.gestion_des_conges.entity.LeaveDays;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Journal des mouvements de soldes (table leave_ledger, ajout seul).
+ * Une écriture de solde est un INSERT : pas de verrou sur la ligne de leave_balances, quel que soit
+ * le nombre de validateurs en parallèle. leave_balances est la projection du journal, mise à jour
+ * périodiquement par foldPending() ; les lectures y ajoutent la queue des mouvements non reportés.
+ * Invariant : pour chaque solde, leave_balances = somme des mouvements reportés (folded),
+ * vérifiable et réparable avec rebuild().
+ */
+@Component
+public class LeaveLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaveLedger.class);
+
+    public enum Movement {
+        ALLOCATE,    // droits attribués ou redéfinis
+        CARRY_OVER,  // report de l'année précédente
+        PENDING,     // demande soumise
+        APPROVED,    // demande validée
+        REJECTED,    // demande refusée
+        CANCELLED    // demande annulée
+    }
+
+    /**
+     * Un mouvement : variation de chaque compteur du solde en quarts de journée (le restant en découle)
+     */
+    public record Entry(Long userId, Long leaveTypeId, Integer year, Movement movement,
+                        long allowanceDelta, long usedDelta, long pendingDelta, long carriedOverDelta) {
+    }
+
+    private static final String INSERT_SQL = "INSERT INTO leave_ledger (user_id, leave_type_id, year, movement, " +
+            "allowance_quarters, used_quarters, pending_quarters, carried_over_quarters, folded, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Soldes initialisés par LeaveBalanceRepository.insertMissingBalancesFor* : même prédicat, à exécuter avant
+    private static final String OPENING_SQL = "INSERT INTO leave_ledger (user_id, leave_type_id, year, movement, " +
+            "allowance_quarters, used_quarters, pending_quarters, carried_over_quarters, folded, created_at) " +
+            "SELECT u.id, lt.id, ?, 'ALLOCATE', CAST(ROUND(lt.default_annual_allowance * " +
+            LeaveDays.UNITS_PER_DAY + ") AS BIGINT), 0, 0, 0, TRUE, ? " +
+            "FROM users u CROSS JOIN leave_types lt WHERE lt.is_active = TRUE ";
+
+    private static final String OPENING_MISSING = "AND NOT EXISTS (SELECT 1 FROM leave_balances lb " +
+            "WHERE lb.user_id = u.id AND lb.leave_type_id = lt.id AND lb.year = ?)";
+
+    // Plusieurs instances peuvent reporter en même temps : chacune prend des mouvements différents
+    private static final String PENDING_SQL = "SELECT id, user_id, leave_type_id, year, allowance_quarters, " +
+            "used_quarters, pending_quarters, carried_over_quarters FROM leave_ledger WHERE folded = FALSE " +
+            "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String FOLD_BALANCE_SQL = "UPDATE leave_balances SET " +
+            "total_allowance_quarters = total_allowance_quarters + ?, used_quarters = used_quarters + ?, " +
+            "pending_quarters = pending_quarters + ?, carried_over_quarters = carried_over_quarters + ?, " +
+            "remaining_quarters = remaining_quarters + ?, " +
+            "updated_at = ?, version = version + 1 WHERE user_id = ? AND leave_type_id = ? AND year = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.ledger.fold-batch-size:1000}")
+    private int foldBatchSize;
+
+    private record BalanceKey(Long userId, Long leaveTypeId, Integer year) {
+    }
+
+    /**
+     * Ajoute un mouvement non reporté : visible immédiatement dans les lectures (queue),
+     * reporté dans leave_balances au prochain foldPending()
+     */
+    public void append(Entry entry) {
+        appendAll(List.of(entry), false);
+    }
+
+    /**
+     * Ajoute des mouvements déjà appliqués à leave_balances par l'appelant, dans la même transaction
+     * (création de solde, report annuel en lot)
+     */
+    public void appendFolded(List<Entry> entries) {
+        appendAll(entries, true);
+    }
+
+    /**
+     * Mouvements d'ouverture des soldes qui vont être créés pour un utilisateur (ou tous si userId est null)
+     */
+    public int appendOpening(Long userId, Integer year) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (userId == null) {
+            return jdbcTemplate.update(OPENING_SQL + OPENING_MISSING, year, now, year);
+        }
+        return jdbcTemplate.update(OPENING_SQL + "AND u.id = ? " + OPENING_MISSING, year, now, userId, year);
+    }
+
+    /**
+     * Reporte tous les mouvements en attente dans leave_balances, par lots
+     */
+    @Scheduled(fixedDelayString = "${app.ledger.fold-interval-ms:30000}",
+            initialDelayString = "${app.ledger.fold-interval-ms:30000}")
+    public void foldAll() {
+        int folded;
+        int total = 0;
+        do {
+            folded = foldPending();
+            total += folded;
+        } while (folded == foldBatchSize);
+        if (total > 0) {
+            log.debug("{} mouvement(s) reporté(s) dans leave_balances", total);
+        }
+    }
+
+    /**
+     * Reporte un lot de mouvements en attente : une mise à jour par solde concerné, puis les mouvements
+     * sont marqués reportés, le tout dans une transaction. Retourne le nombre de mouvements reportés.
+     */
+    public int foldPending() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Integer folded = transaction.execute(status -> {
+            List<Long> ids = new ArrayList<>();
+            // Trié par solde : les instances qui reportent en parallèle verrouillent dans le même ordre
+            Map<BalanceKey, long[]> sums = new TreeMap<>(Comparator.comparing(BalanceKey::userId)
+                    .thenComparing(BalanceKey::leaveTypeId)
+                    .thenComparing(BalanceKey::year));
+            jdbcTemplate.query(PENDING_SQL, rs -> {
+                ids.add(rs.getLong("id"));
+                long[] sum = sums.computeIfAbsent(new BalanceKey(rs.getLong("user_id"),
+                        rs.getLong("leave_type_id"), rs.getInt("year")), key -> new long[4]);
+                sum[0] += rs.getLong("allowance_quarters");
+                sum[1] += rs.getLong("used_quarters");
+                sum[2] += rs.getLong("pending_quarters");
+                sum[3] += rs.getLong("carried_over_quarters");
+            }, foldBatchSize);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> updates = new ArrayList<>();
+            sums.forEach((key, sum) -> updates.add(new Object[]{sum[0], sum[1], sum[2], sum[3],
+                    sum[0] - sum[1] - sum[2], now, key.userId(), key.leaveTypeId(), key.year()}));
+            jdbcTemplate.batchUpdate(FOLD_BALANCE_SQL, updates);
+            jdbcTemplate.batchUpdate("UPDATE leave_ledger SET folded = TRUE WHERE id = ?",
+                    ids.stream().map(id -> new Object[]{id}).toList());
+            return ids.size();
+        });
+        return folded != null ? folded : 0;
+    }
+
+    /**
+     * Outil de rejeu : recalcule les soldes d'une année à partir des mouvements reportés et corrige
+     * les lignes de leave_balances qui s'en écartent. Retourne le nombre de soldes corrigés.
+     */
+    public int rebuild(Integer year) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Integer corrected = transaction.execute(status -> {
+            // Soldes verrouillés d'abord : un report concurrent attend la fin du rejeu
+            Map<BalanceKey, long[]> stored = new HashMap<>();
+            jdbcTemplate.query("SELECT user_id, leave_type_id, total_allowance_quarters, used_quarters, " +
+                            "pending_quarters, carried_over_quarters, remaining_quarters FROM leave_balances " +
+                            "WHERE year = ? ORDER BY id FOR UPDATE",
+                    rs -> {
+                        stored.put(new BalanceKey(rs.getLong("user_id"), rs.getLong("leave_type_id"), year),
+                                new long[]{rs.getLong("total_allowance_quarters"), rs.getLong("used_quarters"),
+                                        rs.getLong("pending_quarters"), rs.getLong("carried_over_quarters"),
+                                        rs.getLong("remaining_quarters")});
+                    }, year);
+
+            Map<BalanceKey, long[]> replayed = new HashMap<>();
+            jdbcTemplate.query("SELECT user_id, leave_type_id, SUM(allowance_quarters) AS allowance, " +
+                            "SUM(used_quarters) AS used, SUM(pending_quarters) AS pending, " +
+                            "SUM(carried_over_quarters) AS carried_over FROM leave_ledger " +
+                            "WHERE year = ? AND folded = TRUE GROUP BY user_id, leave_type_id",
+                    rs -> {
+                        long allowance = rs.getLong("allowance");
+                        long used = rs.getLong("used");
+                        long pending = rs.getLong("pending");
+                        replayed.put(new BalanceKey(rs.getLong("user_id"), rs.getLong("leave_type_id"), year),
+                                new long[]{allowance, used, pending, rs.getLong("carried_over"),
+                                        allowance - used - pending});
+                    }, year);
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> corrections = new ArrayList<>();
+            stored.forEach((key, values) -> {
+                long[] expected = replayed.getOrDefault(key, new long[5]);
+                if (!Arrays.equals(values, expected)) {
+                    log.warn("Solde {} corrigé par le rejeu du journal : {} -> {}", key,
+                            Arrays.toString(values), Arrays.toString(expected));
+                    corrections.add(new Object[]{expected[0], expected[1], expected[2], expected[3], expected[4],
+                            now, key.userId(), key.leaveTypeId(), key.year()});
+                }
+            });
+            if (!corrections.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE leave_balances SET total_allowance_quarters = ?, used_quarters = ?, " +
+                        "pending_quarters = ?, carried_over_quarters = ?, remaining_quarters = ?, updated_at = ?, " +
+                        "version = version + 1 WHERE user_id = ? AND leave_type_id = ? AND year = ?", corrections);
+            }
+            return corrections.size();
+        });
+        return corrected != null ? corrected : 0;
+    }
+
+    /**
+     * Historique des mouvements d'un utilisateur pour une année, du plus ancien au plus récent
+     */
+    public List<LeaveMovementDTO> history(Long userId, Integer year) {
+        return jdbcTemplate.query("SELECT id, user_id, leave_type_id, year, movement, allowance_quarters, " +
+                        "used_quarters, pending_quarters, carried_over_quarters, created_at FROM leave_ledger " +
+                        "WHERE user_id = ? AND year = ? ORDER BY id",
+                (rs, rowNum) -> {
+                    LeaveMovementDTO dto = new LeaveMovementDTO();
+                    dto.setId(rs.getLong("id"));
+                    dto.setUserId(rs.getLong("user_id"));
+                    dto.setLeaveTypeId(rs.getLong("leave_type_id"));
+                    dto.setYear(rs.getInt("year"));
+                    dto.setMovement(rs.getString("movement"));
+                    dto.setAllowanceDelta(LeaveDays.ofQuarters(rs.getLong("allowance_quarters")));
+                    dto.setUsedDelta(LeaveDays.ofQuarters(rs.getLong("used_quarters")));
+                    dto.setPendingDelta(LeaveDays.ofQuarters(rs.getLong("pending_quarters")));
+                    dto.setCarriedOverDelta(LeaveDays.ofQuarters(rs.getLong("carried_over_quarters")));
+                    dto.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+                    return dto;
+                }, userId, year);
+    }
+
+    private void appendAll(List<Entry> entries, boolean folded) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries.stream()
+                .map(entry -> new Object[]{entry.userId(), entry.leaveTypeId(), entry.year(),
+                        entry.movement().name(), entry.allowanceDelta(), entry.usedDelta(),
+                        entry.pendingDelta(), entry.carriedOverDelta(), folded, now})
+                .toList());
+    }
+}
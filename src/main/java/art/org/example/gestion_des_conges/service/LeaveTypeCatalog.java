@@ -0,0 +1,133 @@
+package art.org.example.gestion_des_conges.service;
+
+import art.org.example.gestion_des_conges.entity.LeaveType;
+import art.org.example.gestion_des_conges.repository.LeaveTypeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Catalogue des types de congés en mémoire : copie immuable chargée en une requête et remplacée d'un coup.
+ * Rechargé après chaque modification sur cette instance ; les autres instances comparent périodiquement
+ * la version de catalog_versions (incrémentée dans la transaction de la modification) et rechargent si besoin.
+ * Les LeaveType retournés sont partagés et détachés : lecture seule, ne jamais les modifier ni les sauvegarder.
+ */
+@Component
+public class LeaveTypeCatalog {
+
+    @Autowired
+    private LeaveTypeRepository leaveTypeRepository;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private volatile Snapshot snapshot;
+
+    // Un rechargement à la fois (ReentrantLock plutôt que synchronized : le rechargement fait du JDBC,
+    // un thread virtuel bloqué dans un bloc synchronized immobiliserait son thread porteur)
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    private record Snapshot(long version, List<LeaveType> ordered,
+                            Map<Long, LeaveType> byId, Map<String, LeaveType> byName) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /**
+     * Types de congés triés par ordre d'affichage
+     */
+    public List<LeaveType> findAll() {
+        return snapshot().ordered();
+    }
+
+    public List<LeaveType> findActive() {
+        return snapshot().ordered().stream()
+                .filter(LeaveType::getIsActive)
+                .toList();
+    }
+
+    public Optional<LeaveType> findById(Long id) {
+        return Optional.ofNullable(snapshot().byId().get(id));
+    }
+
+    /**
+     * Recherche par nom sans tenir compte de la casse
+     */
+    public Optional<LeaveType> findByName(String name) {
+        return Optional.ofNullable(snapshot().byName().get(name.toLowerCase(Locale.ROOT)));
+    }
+
+    public long version() {
+        return snapshot().version();
+    }
+
+    /**
+     * À appeler dans la transaction qui modifie un type de congé : la version est incrémentée avec la
+     * modification, et le catalogue de cette instance est rechargé une fois la transaction validée
+     */
+    public void markChanged() {
+        catalogVersions.increment(CatalogVersions.LEAVE_TYPES);
+        TransactionHooks.afterCommit(this::reload);
+    }
+
+    /**
+     * Recharge le catalogue si une autre instance l'a modifié
+     */
+    @Scheduled(fixedDelayString = "${app.leave-type-catalog.poll-interval-ms:10000}")
+    public void refreshIfChanged() {
+        Snapshot current = snapshot;
+        if (current == null || current.version() != catalogVersions.current(CatalogVersions.LEAVE_TYPES)) {
+            reload();
+        }
+    }
+
+    public void reload() {
+        // Transaction séparée : les entités du catalogue ne doivent jamais appartenir au contexte
+        // de persistance de l'appelant (elles y seraient modifiables avant le commit)
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transaction.setReadOnly(true);
+        reloadLock.lock();
+        try {
+            transaction.executeWithoutResult(status -> load());
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private void load() {
+        // Version lue avant les données : une modification concurrente sera vue au prochain passage
+        long version = catalogVersions.current(CatalogVersions.LEAVE_TYPES);
+        List<LeaveType> ordered = leaveTypeRepository.findAllByOrderByDisplayOrderAsc();
+        snapshot = new Snapshot(version,
+                List.copyOf(ordered),
+                ordered.stream().collect(Collectors.toUnmodifiableMap(LeaveType::getId, Function.identity())),
+                ordered.stream().collect(Collectors.toUnmodifiableMap(
+                        type -> type.getName().toLowerCase(Locale.ROOT), Function.identity(), (a, b) -> a)));
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            reload();
+            current = snapshot;
+        }
+        return current;
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,6 +20,12 @@ public class LeaveTypeService {
     @Autowired
     private LeaveTypeRepository leaveTypeRepository;
 
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private LeaveTypeCatalog leaveTypeCatalog;
+
     /**
      * US-03.1 : Créer un type de congé
      */
@@ -44,6 +51,8 @@ public class LeaveTypeService {
         leaveType.setIsActive(true);
 
         LeaveType savedLeaveType = leaveTypeRepository.save(leaveType);
+        searchIndexService.leaveTypeChanged(savedLeaveType);
+        leaveTypeCatalog.markChanged();
         return convertToDTO(savedLeaveType);
     }
 
@@ -76,6 +85,8 @@ public class LeaveTypeService {
         if (request.getDisplayOrder() != null) leaveType.setDisplayOrder(request.getDisplayOrder());
 
         LeaveType updatedLeaveType = leaveTypeRepository.save(leaveType);
+        searchIndexService.leaveTypeChanged(updatedLeaveType);
+        leaveTypeCatalog.markChanged();
         return convertToDTO(updatedLeaveType);
     }
 
@@ -98,13 +109,15 @@ public class LeaveTypeService {
         // }
 
         leaveTypeRepository.delete(leaveType);
+        searchIndexService.leaveTypeRemoved(id);
+        leaveTypeCatalog.markChanged();
     }
 
     /**
      * Récupérer tous les types de congés
      */
     public List<LeaveTypeDTO> getAllLeaveTypes() {
-        return leaveTypeRepository.findAllByOrderByDisplayOrderAsc().stream()
+        return leaveTypeCatalog.findAll().stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
@@ -113,25 +126,34 @@ public class LeaveTypeService {
      * Récupérer les types de congés actifs uniquement
      */
     public List<LeaveTypeDTO> getActiveLeaveTypes() {
-        return leaveTypeRepository.findByIsActiveTrueOrderByDisplayOrderAsc().stream()
+        return leaveTypeCatalog.findActive().stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Version du catalogue des types de congés (en mémoire, sans requête)
+     */
+    public long getCatalogVersion() {
+        return leaveTypeCatalog.version();
+    }
+
     /**
      * Récupérer un type de congé par ID
      */
     public LeaveTypeDTO getLeaveTypeById(Long id) {
-        LeaveType leaveType = leaveTypeRepository.findById(id)
+        LeaveType leaveType = leaveTypeCatalog.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Type de congé non trouvé"));
         return convertToDTO(leaveType);
     }
 
     /**
-     * Rechercher des types de congés
+     * Rechercher des types de congés (résultats classés par pertinence)
      */
     public List<LeaveTypeDTO> searchLeaveTypes(String search) {
-        return leaveTypeRepository.searchLeaveTypes(search).stream()
+        return searchIndexService.searchLeaveTypeIds(search).stream()
+                .map(leaveTypeCatalog::findById)
+                .flatMap(Optional::stream)
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
@@ -146,6 +168,7 @@ public class LeaveTypeService {
 
         leaveType.setIsActive(!leaveType.getIsActive());
         LeaveType updatedLeaveType = leaveTypeRepository.save(leaveType);
+        leaveTypeCatalog.markChanged();
         return convertToDTO(updatedLeaveType);
     }
 
@@ -177,9 +200,10 @@ public class LeaveTypeService {
      * Vérifier si un nom est disponible
      */
     public boolean isLeaveTypeNameAvailable(String name, Long excludeId) {
+        Optional<LeaveType> existing = leaveTypeCatalog.findByName(name);
         if (excludeId == null) {
-            return !leaveTypeRepository.existsByName(name);
+            return existing.filter(leaveType -> leaveType.getName().equals(name)).isEmpty();
         }
-        return !leaveTypeRepository.existsByNameExcludingId(name, excludeId);
+        return existing.map(leaveType -> leaveType.getId().equals(excludeId)).orElse(true);
     }
 }
\ No newline at end of file
@@ -0,0 +1,164 @@
+package art.org.example.gestion_des_conges.service;
+
+import art.org.example.gestion_des_conges.dto.UserDTO;
+import art.org.example.gestion_des_conges.entity.LeaveType;
+import art.org.example.gestion_des_conges.entity.Team;
+import art.org.example.gestion_des_conges.entity.User;
+import art.org.example.gestion_des_conges.repository.LeaveTypeRepository;
+import art.org.example.gestion_des_conges.repository.TeamRepository;
+import art.org.example.gestion_des_conges.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recherche des utilisateurs, équipes et types de congés (remplace les LIKE '%...%' non indexables).
+ * Les index sont en mémoire : mis à jour après chaque écriture sur cette instance,
+ * et reconstruits périodiquement pour récupérer les écritures des autres instances.
+ */
+@Service
+public class SearchIndexService {
+
+    // Nombre max de résultats classés retournés par une recherche
+    static final int MAX_RESULTS = 1000;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private LeaveTypeRepository leaveTypeRepository;
+
+    private final TrigramSearchIndex<UserAttributes> users = new TrigramSearchIndex<>();
+    private final TrigramSearchIndex<Void> teams = new TrigramSearchIndex<>();
+    private final TrigramSearchIndex<Void> leaveTypes = new TrigramSearchIndex<>();
+
+    // Rôle et équipe gardés dans l'index pour filtrer sans requête
+    record UserAttributes(User.Role role, Long teamId) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuildAll();
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.refresh-interval-ms:300000}",
+            initialDelayString = "${app.search.refresh-interval-ms:300000}")
+    public void rebuildAll() {
+        rebuildUsers();
+        rebuildTeams();
+        rebuildLeaveTypes();
+    }
+
+    // Les réindexations faites pendant le chargement sont réappliquées par l'index (lecture potentiellement plus ancienne)
+    public void rebuildUsers() {
+        users.rebuild(() -> {
+            Map<Long, TrigramSearchIndex.Document<UserAttributes>> documents = new HashMap<>();
+            for (UserDTO user : userRepository.findUserPage(null, null, null, null, null, Pageable.unpaged())) {
+                documents.put(user.getId(), userDocument(user.getPrenom(), user.getNom(), user.getUsername(),
+                        user.getEmail(), user.getRole(), user.getTeamId()));
+            }
+            return documents;
+        });
+    }
+
+    public void rebuildTeams() {
+        teams.rebuild(() -> {
+            Map<Long, TrigramSearchIndex.Document<Void>> documents = new HashMap<>();
+            for (Team team : teamRepository.findAll()) {
+                documents.put(team.getId(), namedDocument(team.getName(), team.getDescription()));
+            }
+            return documents;
+        });
+    }
+
+    public void rebuildLeaveTypes() {
+        leaveTypes.rebuild(() -> {
+            Map<Long, TrigramSearchIndex.Document<Void>> documents = new HashMap<>();
+            for (LeaveType leaveType : leaveTypeRepository.findAll()) {
+                documents.put(leaveType.getId(), namedDocument(leaveType.getName(), leaveType.getDescription()));
+            }
+            return documents;
+        });
+    }
+
+    /**
+     * Ids des utilisateurs correspondant à la recherche, du plus pertinent au moins pertinent
+     */
+    public List<Long> searchUserIds(String query, User.Role role, Long teamId) {
+        return searchUsers(query, role, teamId, MAX_RESULTS).ids();
+    }
+
+    /**
+     * Au plus limit ids d'utilisateurs classés, avec le nombre total d'utilisateurs correspondants
+     */
+    public TrigramSearchIndex.Results searchUsers(String query, User.Role role, Long teamId, int limit) {
+        return users.rank(query, attributes ->
+                        (role == null || attributes.role() == role)
+                                && (teamId == null || teamId.equals(attributes.teamId())),
+                limit);
+    }
+
+    public List<Long> searchTeamIds(String query) {
+        return teams.search(query, null, MAX_RESULTS);
+    }
+
+    public List<Long> searchLeaveTypeIds(String query) {
+        return leaveTypes.search(query, null, MAX_RESULTS);
+    }
+
+    /**
+     * Réindexe un utilisateur après le commit de la transaction en cours
+     */
+    public void userChanged(User user) {
+        Long id = user.getId();
+        TrigramSearchIndex.Document<UserAttributes> document = userDocument(user.getFirstName(),
+                user.getLastName(), user.getUsername(), user.getEmail(), user.getRole(),
+                user.getTeam() != null ? user.getTeam().getId() : null);
+        TransactionHooks.afterCommit(() -> users.put(id, document));
+    }
+
+    public void usersChanged() {
+        TransactionHooks.afterCommit(this::rebuildUsers);
+    }
+
+    public void teamChanged(Team team) {
+        Long id = team.getId();
+        TrigramSearchIndex.Document<Void> document = namedDocument(team.getName(), team.getDescription());
+        TransactionHooks.afterCommit(() -> teams.put(id, document));
+    }
+
+    public void teamRemoved(Long id) {
+        TransactionHooks.afterCommit(() -> teams.remove(id));
+    }
+
+    public void leaveTypeChanged(LeaveType leaveType) {
+        Long id = leaveType.getId();
+        TrigramSearchIndex.Document<Void> document = namedDocument(leaveType.getName(), leaveType.getDescription());
+        TransactionHooks.afterCommit(() -> leaveTypes.put(id, document));
+    }
+
+    public void leaveTypeRemoved(Long id) {
+        TransactionHooks.afterCommit(() -> leaveTypes.remove(id));
+    }
+
+    private static TrigramSearchIndex.Document<UserAttributes> userDocument(String firstName, String lastName,
+                                                                           String username, String email,
+                                                                           User.Role role, Long teamId) {
+        return TrigramSearchIndex.document(new UserAttributes(role, teamId),
+                lastName + " " + firstName, firstName, lastName, username, email);
+    }
+
+    private static TrigramSearchIndex.Document<Void> namedDocument(String name, String description) {
+        return TrigramSearchIndex.document(null, name, name, description);
+    }
+}
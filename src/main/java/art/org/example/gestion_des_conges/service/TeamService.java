@@ -11,7 +11,12 @@ import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,6 +28,15 @@ public class TeamService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
     /**
      * US-02.5 : Créer une nouvelle équipe
      */
@@ -38,6 +52,8 @@ public class TeamService {
         team.setDescription(description);
 
         Team savedTeam = teamRepository.save(team);
+        searchIndexService.teamChanged(savedTeam);
+        catalogVersions.increment(CatalogVersions.TEAMS);
         return convertToDTO(savedTeam);
     }
 
@@ -60,6 +76,8 @@ public class TeamService {
         }
 
         Team updatedTeam = teamRepository.save(team);
+        searchIndexService.teamChanged(updatedTeam);
+        catalogVersions.increment(CatalogVersions.TEAMS);
         return convertToDTO(updatedTeam);
     }
 
@@ -78,6 +96,8 @@ public class TeamService {
         }
 
         teamRepository.delete(team);
+        searchIndexService.teamRemoved(id);
+        catalogVersions.increment(CatalogVersions.TEAMS);
     }
 
     /**
@@ -108,6 +128,9 @@ public class TeamService {
 
         userRepository.save(user);
         Team updatedTeam = teamRepository.save(team);
+        userDetailsService.invalidateUser(user.getUsername());
+        searchIndexService.userChanged(user);
+        catalogVersions.increment(CatalogVersions.TEAMS);
 
         return convertToDTO(updatedTeam);
     }
@@ -139,6 +162,9 @@ public class TeamService {
 
         userRepository.save(user);
         Team updatedTeam = teamRepository.save(team);
+        userDetailsService.invalidateUser(user.getUsername());
+        searchIndexService.userChanged(user);
+        catalogVersions.increment(CatalogVersions.TEAMS);
 
         return convertToDTO(updatedTeam);
     }
@@ -175,6 +201,7 @@ public class TeamService {
 
         team.setValidator(user);
         Team savedTeam = teamRepository.save(team);
+        catalogVersions.increment(CatalogVersions.TEAMS);
         return convertToDTO(savedTeam);
     }
 
@@ -192,6 +219,7 @@ public class TeamService {
 
         team.setValidator(null);
         Team updatedTeam = teamRepository.save(team);
+        catalogVersions.increment(CatalogVersions.TEAMS);
         return convertToDTO(updatedTeam);
     }
 
@@ -205,75 +233,134 @@ public class TeamService {
     }
 
     /**
-     * Récupérer toutes les équipes
+     * Vue de la liste des équipes : SUMMARY sans la liste des membres (aperçu optionnel),
+     * FULL avec tous les membres
      */
-    public List<TeamDTO> getAllTeams() {
-        List<Team> teams = teamRepository.findAllWithValidator();
-        return teams.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public enum View {
+        SUMMARY,
+        FULL
+    }
+
+    /**
+     * Récupérer toutes les équipes : une requête pour les équipes (validateur et nombre de membres),
+     * plus une requête pour les membres en vue FULL ou pour l'aperçu (preview membres par équipe)
+     */
+    public List<TeamDTO> getAllTeams(View view, int preview) {
+        return toListDTOs(teamRepository.findTeamRows(), view, preview);
     }
 
     /**
      * Récupérer les équipes sans validateur
      */
     public List<TeamDTO> getTeamsWithoutValidator() {
-        List<Team> teams = teamRepository.findByValidatorIsNull();
-        return teams.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return toListDTOs(teamRepository.findTeamRowsWithoutValidator(), View.FULL, 0);
     }
 
     /**
      * Récupérer les équipes vides (sans membres)
      */
     public List<TeamDTO> getEmptyTeams() {
-        List<Team> teams = teamRepository.findEmptyTeams();
-        return teams.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        List<TeamDTO> teams = toListDTOs(teamRepository.findEmptyTeamRows(), View.SUMMARY, 0);
+        // Aucun membre par définition : liste vide sans requête supplémentaire
+        teams.forEach(team -> team.setMembres(new ArrayList<>()));
+        return teams;
     }
 
     /**
      * Récupérer les équipes d'un validateur spécifique
      */
     public List<TeamDTO> getTeamsByValidator(Long validatorId) {
-        List<Team> teams = teamRepository.findAllByValidatorId(validatorId);
-        return teams.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return toListDTOs(teamRepository.findTeamRowsByValidatorId(validatorId), View.FULL, 0);
     }
 
     /**
-     * Rechercher des équipes par nom ou description
+     * Rechercher des équipes par nom ou description (résultats classés par pertinence)
      */
-    public List<TeamDTO> searchTeams(String search) {
-        List<Team> teams = teamRepository.searchTeams(search);
-        return teams.stream()
-                .map(this::convertToDTO)
+    public List<TeamDTO> searchTeams(String search, View view, int preview) {
+        List<Long> rankedIds = searchIndexService.searchTeamIds(search);
+        if (rankedIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, TeamDTO> byId = toListDTOs(teamRepository.findTeamRowsByIds(rankedIds), view, preview).stream()
+                .collect(Collectors.toMap(TeamDTO::getId, Function.identity()));
+        return rankedIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
     /**
-     * Récupérer toutes les équipes avec leur nombre de membres
+     * Récupérer toutes les équipes avec leur nombre de membres (sans la liste des membres)
      */
     public List<TeamDTO> getAllTeamsWithMemberCount() {
-        List<Object[]> results = teamRepository.findAllTeamsWithMemberCount();
-        return results.stream()
-                .map(result -> {
-                    Team team = (Team) result[0];
-                    Long memberCount = (Long) result[1];
-                    TeamDTO dto = convertToDTO(team);
-                    dto.setNombreMembres(memberCount.intValue());
-                    return dto;
-                })
+        return getAllTeams(View.SUMMARY, 0);
+    }
+
+    /**
+     * Version de la liste des équipes : change à chaque modification d'une équipe, de ses membres
+     * ou de son validateur (une lecture par clé primaire)
+     */
+    public long getTeamsVersion() {
+        return catalogVersions.current(CatalogVersions.TEAMS);
+    }
+
+    // Lignes de TeamRepository.TEAM_ROW -> DTO, membres chargés en une seule requête pour toutes les équipes
+    private List<TeamDTO> toListDTOs(List<Object[]> rows, View view, int preview) {
+        List<TeamDTO> teams = rows.stream()
+                .map(this::rowToDTO)
                 .collect(Collectors.toList());
+        if (teams.isEmpty() || (view == View.SUMMARY && preview <= 0)) {
+            return teams;
+        }
+
+        Map<Long, TeamDTO> byId = teams.stream()
+                .collect(Collectors.toMap(TeamDTO::getId, Function.identity()));
+        for (TeamDTO team : teams) {
+            team.setMembres(new ArrayList<>());
+        }
+        if (view == View.FULL) {
+            for (UserDTO member : userRepository.findMemberDTOsByTeamIds(byId.keySet())) {
+                byId.get(member.getTeamId()).getMembres().add(member);
+            }
+        } else {
+            for (Object[] row : userRepository.findMemberPreviewByTeamIds(byId.keySet(), preview)) {
+                UserDTO member = new UserDTO();
+                member.setId(((Number) row[0]).longValue());
+                member.setNom((String) row[1]);
+                member.setPrenom((String) row[2]);
+                member.setUsername((String) row[3]);
+                member.setEmail((String) row[4]);
+                member.setRole(User.Role.valueOf((String) row[5]));
+                member.setActif((Boolean) row[6]);
+                member.setTeamId(((Number) row[7]).longValue());
+                TeamDTO team = byId.get(member.getTeamId());
+                member.setTeamNom(team.getNom());
+                team.getMembres().add(member);
+            }
+        }
+        return teams;
+    }
+
+    // Visible dans le package pour DtoMappingBenchmark, comme convertToDTO
+    TeamDTO rowToDTO(Object[] row) {
+        TeamDTO dto = new TeamDTO();
+        dto.setId((Long) row[0]);
+        dto.setNom((String) row[1]);
+        dto.setDescription((String) row[2]);
+        dto.setCreatedAt((LocalDateTime) row[3]);
+        dto.setUpdatedAt((LocalDateTime) row[4]);
+        if (row[5] != null) {
+            dto.setValidateurId((Long) row[5]);
+            dto.setValidateurNom(row[6] + " " + row[7]);
+        }
+        dto.setNombreMembres(((Number) row[8]).intValue());
+        return dto;
     }
 
     /**
-     * Convertir Team en TeamDTO
+     * Convertir Team en TeamDTO (visible dans le package pour DtoMappingBenchmark)
      */
-    private TeamDTO convertToDTO(Team team) {
+    TeamDTO convertToDTO(Team team) {
         TeamDTO dto = new TeamDTO();
         dto.setId(team.getId());
         dto.setNom(team.getName());
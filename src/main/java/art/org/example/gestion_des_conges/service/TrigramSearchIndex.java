@@ -0,0 +1,353 @@
+package art.org.example.gestion_des_conges.service;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Index de recherche en mémoire par trigrammes (index inversé trigramme -> ids triés).
+ * Tolère les fautes de frappe (un mot d'au moins 5 lettres est retenu dès que 60 % de ses trigrammes correspondent)
+ * et les saisies partielles (les trigrammes de la requête ne sont bornés qu'au début du mot).
+ * Les résultats sont classés : trigrammes communs, puis bonus pour un mot exact ou un préfixe.
+ *
+ * @param <A> attributs gardés avec chaque document pour filtrer les résultats sans requête
+ */
+public class TrigramSearchIndex<A> {
+
+    // Part minimale des trigrammes d'un mot de la requête à retrouver dans le document
+    private static final double MIN_TOKEN_SCORE = 0.6;
+    // Les mots plus courts doivent correspondre exactement ou en préfixe (trop peu de trigrammes)
+    private static final int MIN_FUZZY_LENGTH = 5;
+    private static final double PREFIX_BONUS = 0.5;
+    private static final double EXACT_BONUS = 0.5;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{Alnum}]+");
+    private static final long[] EMPTY = new long[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Long, Document<A>> documents = new HashMap<>();
+    private Map<String, long[]> postings = new HashMap<>();
+    // Reconstructions en cours et écritures faites pendant ce temps (dernier document par id, null si supprimé)
+    private int rebuilds;
+    private long sequence;
+    private final Map<Long, Change<A>> changesDuringRebuild = new HashMap<>();
+
+    /**
+     * Document indexé : mots normalisés des champs, clé de tri des ex aequo et attributs
+     */
+    public static final class Document<A> {
+        private final String[] words;
+        private final String sortKey;
+        private final A attributes;
+
+        private Document(String[] words, String sortKey, A attributes) {
+            this.words = words;
+            this.sortKey = sortKey;
+            this.attributes = attributes;
+        }
+    }
+
+    public static <A> Document<A> document(A attributes, String sortKey, String... fields) {
+        Set<String> words = new LinkedHashSet<>();
+        for (String field : fields) {
+            words.addAll(Arrays.asList(tokenize(field)));
+        }
+        return new Document<>(words.toArray(new String[0]), normalize(sortKey), attributes);
+    }
+
+    /**
+     * Ajoute ou remplace un document
+     */
+    public void put(long id, Document<A> document) {
+        lock.writeLock().lock();
+        try {
+            recordChange(id, document);
+            applyPut(id, document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyPut(long id, Document<A> document) {
+        Document<A> previous = documents.put(id, document);
+        if (previous != null) {
+            for (String trigram : documentTrigrams(previous)) {
+                removePosting(trigram, id);
+            }
+        }
+        for (String trigram : documentTrigrams(document)) {
+            addPosting(trigram, id);
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            recordChange(id, null);
+            applyRemove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyRemove(long id) {
+        Document<A> previous = documents.remove(id);
+        if (previous != null) {
+            for (String trigram : documentTrigrams(previous)) {
+                removePosting(trigram, id);
+            }
+        }
+    }
+
+    private void recordChange(long id, Document<A> document) {
+        sequence++;
+        if (rebuilds > 0) {
+            changesDuringRebuild.put(id, new Change<>(sequence, document));
+        }
+    }
+
+    /**
+     * Reconstruit tout l'index à partir des documents chargés par loader.
+     * Les put/remove faits pendant le chargement sont réappliqués après le remplacement :
+     * le chargement a pu lire les données avant ces écritures.
+     */
+    public void rebuild(Supplier<Map<Long, Document<A>>> loader) {
+        long since;
+        lock.writeLock().lock();
+        try {
+            rebuilds++;
+            since = sequence;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<Long, Document<A>> newDocuments = null;
+        Map<String, long[]> newPostings = null;
+        try {
+            newDocuments = loader.get();
+            newPostings = buildPostings(newDocuments);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (newDocuments != null) {
+                    documents = new HashMap<>(newDocuments);
+                    postings = newPostings;
+                    changesDuringRebuild.forEach((id, change) -> {
+                        if (change.sequence() > since) {
+                            if (change.document() != null) {
+                                applyPut(id, change.document());
+                            } else {
+                                applyRemove(id);
+                            }
+                        }
+                    });
+                }
+                if (--rebuilds == 0) {
+                    changesDuringRebuild.clear();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Remplace tout l'index (construit hors verrou puis remplacé d'un coup)
+     */
+    public void replaceAll(Map<Long, Document<A>> newDocuments) {
+        rebuild(() -> newDocuments);
+    }
+
+    private Map<String, long[]> buildPostings(Map<Long, Document<A>> newDocuments) {
+        Map<String, List<Long>> lists = new HashMap<>();
+        for (Map.Entry<Long, Document<A>> entry : newDocuments.entrySet()) {
+            for (String trigram : documentTrigrams(entry.getValue())) {
+                lists.computeIfAbsent(trigram, k -> new ArrayList<>()).add(entry.getKey());
+            }
+        }
+        Map<String, long[]> newPostings = new HashMap<>(lists.size() * 2);
+        lists.forEach((trigram, ids) -> {
+            long[] sorted = ids.stream().mapToLong(Long::longValue).sorted().toArray();
+            newPostings.put(trigram, sorted);
+        });
+        return newPostings;
+    }
+
+    /**
+     * Résultats d'une recherche : au plus maxResults ids classés, et le nombre total de correspondances
+     */
+    public record Results(List<Long> ids, int total) {
+    }
+
+    /**
+     * Recherche classée : ids des documents correspondant à tous les mots de la requête
+     */
+    public List<Long> search(String query, Predicate<A> filter, int maxResults) {
+        return rank(query, filter, maxResults).ids();
+    }
+
+    /**
+     * Recherche classée, avec le total compté avant la limite
+     */
+    public Results rank(String query, Predicate<A> filter, int maxResults) {
+        String[] tokens = tokenize(query);
+        if (tokens.length == 0) {
+            return new Results(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            // Nombre de trigrammes retrouvés, par document et par mot de la requête
+            Map<Long, int[]> matches = new HashMap<>();
+            int[] trigramCounts = new int[tokens.length];
+            for (int i = 0; i < tokens.length; i++) {
+                Set<String> trigrams = queryTrigrams(tokens[i]);
+                trigramCounts[i] = trigrams.size();
+                for (String trigram : trigrams) {
+                    for (long id : postings.getOrDefault(trigram, EMPTY)) {
+                        matches.computeIfAbsent(id, k -> new int[tokens.length])[i]++;
+                    }
+                }
+            }
+
+            List<Hit<A>> hits = new ArrayList<>();
+            for (Map.Entry<Long, int[]> entry : matches.entrySet()) {
+                Document<A> document = documents.get(entry.getKey());
+                if (document == null || (filter != null && !filter.test(document.attributes))) {
+                    continue;
+                }
+                double score = score(tokens, trigramCounts, entry.getValue(), document);
+                if (score > 0) {
+                    hits.add(new Hit<>(entry.getKey(), score, document));
+                }
+            }
+
+            hits.sort(Comparator.<Hit<A>>comparingDouble(hit -> -hit.score())
+                    .thenComparing(hit -> hit.document().sortKey)
+                    .thenComparingLong(Hit::id));
+            List<Long> ids = hits.stream()
+                    .limit(maxResults)
+                    .map(Hit::id)
+                    .toList();
+            return new Results(ids, hits.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static double score(String[] tokens, int[] trigramCounts, int[] matched, Document<?> document) {
+        double score = 0;
+        for (int i = 0; i < tokens.length; i++) {
+            double tokenScore = (double) matched[i] / trigramCounts[i];
+            double minScore = tokens[i].length() < MIN_FUZZY_LENGTH ? 1.0 : MIN_TOKEN_SCORE;
+            if (tokenScore < minScore) {
+                return 0;
+            }
+            score += tokenScore;
+            for (String word : document.words) {
+                if (word.equals(tokens[i])) {
+                    score += PREFIX_BONUS + EXACT_BONUS;
+                    break;
+                }
+                if (word.startsWith(tokens[i])) {
+                    score += PREFIX_BONUS;
+                    break;
+                }
+            }
+        }
+        return score;
+    }
+
+    private void addPosting(String trigram, long id) {
+        long[] ids = postings.getOrDefault(trigram, EMPTY);
+        int index = Arrays.binarySearch(ids, id);
+        if (index >= 0) {
+            return;
+        }
+        int insertAt = -index - 1;
+        long[] updated = new long[ids.length + 1];
+        System.arraycopy(ids, 0, updated, 0, insertAt);
+        updated[insertAt] = id;
+        System.arraycopy(ids, insertAt, updated, insertAt + 1, ids.length - insertAt);
+        postings.put(trigram, updated);
+    }
+
+    private void removePosting(String trigram, long id) {
+        long[] ids = postings.get(trigram);
+        if (ids == null) {
+            return;
+        }
+        int index = Arrays.binarySearch(ids, id);
+        if (index < 0) {
+            return;
+        }
+        if (ids.length == 1) {
+            postings.remove(trigram);
+            return;
+        }
+        long[] updated = new long[ids.length - 1];
+        System.arraycopy(ids, 0, updated, 0, index);
+        System.arraycopy(ids, index + 1, updated, index, ids.length - index - 1);
+        postings.put(trigram, updated);
+    }
+
+    // Trigrammes d'un document : mots bornés au début ("  ") et à la fin (" ")
+    private static Set<String> documentTrigrams(Document<?> document) {
+        Set<String> trigrams = new HashSet<>();
+        for (String word : document.words) {
+            addTrigrams("  " + word + " ", trigrams);
+        }
+        return trigrams;
+    }
+
+    // Trigrammes d'un mot de la requête : bornés au début seulement, pour accepter un préfixe
+    private static Set<String> queryTrigrams(String token) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        addTrigrams("  " + token, trigrams);
+        return trigrams;
+    }
+
+    private static void addTrigrams(String padded, Set<String> trigrams) {
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    static String[] tokenize(String text) {
+        String normalized = normalize(text).trim();
+        if (normalized.isEmpty()) {
+            return new String[0];
+        }
+        return Arrays.stream(SEPARATORS.split(normalized))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    private record Hit<A>(long id, double score, Document<A> document) {
+    }
+
+    private record Change<A>(long sequence, Document<A> document) {
+    }
+}
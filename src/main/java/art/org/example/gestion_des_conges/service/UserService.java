@@ -3,6 +3,7 @@ package art.org.example.gestion_des_conges.service;
 import art.org.example.gestion_des_conges.dto.CreateUserRequest;
 import art.org.example.gestion_des_conges.dto.UpdateUserRequest;
 import art.org.example.gestion_des_conges.dto.UserDTO;
+import art.org.example.gestion_des_conges.dto.UserPageDTO;
 import art.org.example.gestion_des_conges.entity.Team;
 import art.org.example.gestion_des_conges.entity.User;
 import art.org.example.gestion_des_conges.repository.TeamRepository;
@@ -11,13 +12,21 @@ import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,9 +44,21 @@ public class UserService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
     @Value("${app.default-password-length:8}")
     private int defaultPasswordLength;
 
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final String CURSOR_SEPARATOR = "\u0000";
+
     private static final String CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789!@#$%^&*()-_=+";
 
     /**
@@ -78,6 +99,10 @@ public class UserService {
 
         // Sauvegarder l'utilisateur
         User savedUser = userRepository.save(user);
+        searchIndexService.userChanged(savedUser);
+        if (savedUser.getTeam() != null) {
+            catalogVersions.incrementAfterCommit(CatalogVersions.TEAMS);
+        }
 
         // Envoyer l'email de bienvenue
         try {
@@ -102,6 +127,8 @@ public class UserService {
     public UserDTO updateUser(Long id, UpdateUserRequest request) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Utilisateur non trouvé"));
+        String previousUsername = user.getUsername();
+        List<Object> previousTeamView = teamView(user);
 
         // Mettre à jour les champs
         if (request.getNom() != null) user.setLastName(request.getNom());
@@ -139,6 +166,15 @@ public class UserService {
         }
 
         User updatedUser = userRepository.save(user);
+        searchIndexService.userChanged(updatedUser);
+        if (!previousTeamView.equals(teamView(updatedUser))) {
+            catalogVersions.incrementAfterCommit(CatalogVersions.TEAMS);
+        }
+
+        // Le cache et les tokens déjà émis ne reflètent plus le profil : forcer le rechargement
+        userDetailsService.invalidateUser(previousUsername);
+        userDetailsService.invalidateUser(updatedUser.getUsername());
+
         return convertToDTO(updatedUser);
     }
 
@@ -152,6 +188,7 @@ public class UserService {
 
         boolean newStatus = !user.getActive();
         user.setActive(newStatus);
+        boolean teamViewChanged = user.getTeam() != null;
 
         // Si on désactive un validateur, le retirer comme validateur des équipes
         if (!newStatus && user.getRole() == User.Role.VALIDATEUR) {
@@ -160,35 +197,138 @@ public class UserService {
                 team.setValidator(null);
                 teamRepository.save(team);
             }
+            teamViewChanged |= !teams.isEmpty();
         }
 
         User updatedUser = userRepository.save(user);
+        if (teamViewChanged) {
+            catalogVersions.incrementAfterCommit(CatalogVersions.TEAMS);
+        }
+        userDetailsService.invalidateUser(updatedUser.getUsername());
         return convertToDTO(updatedUser);
     }
 
     /**
-     * US-02.3 : Rechercher des utilisateurs avec filtres
+     * US-02.3 : Rechercher des utilisateurs avec filtres (résultats classés par pertinence)
      */
     public List<UserDTO> searchUsers(String search, User.Role role, Long teamId) {
-        List<User> users;
-
-        if (search != null && !search.trim().isEmpty()) {
-            // Recherche par nom, prénom, email ou username
-            users = userRepository.searchUsers(search.trim());
-        } else {
-            // Récupérer tous les utilisateurs
-            users = userRepository.findAll();
+        if (search == null || search.isBlank()) {
+            // Filtres appliqués en base, projection directe en DTO
+            return userRepository.findUserPage(role, teamId, null, null, null, Pageable.unpaged());
         }
+        return findRankedUsers(searchIndexService.searchUserIds(search, role, teamId));
+    }
 
-        // Appliquer les filtres supplémentaires
-        return users.stream()
-                .filter(user -> role == null || user.getRole() == role)
-                .filter(user -> teamId == null ||
-                        (user.getTeam() != null && user.getTeam().getId().equals(teamId)))
-                .map(this::convertToDTO)
+    /**
+     * US-02.3 : Liste paginée des utilisateurs (pagination par curseur, tri nom/prénom/id)
+     * Avec une recherche, les résultats sont classés par pertinence et le curseur porte la position
+     * Le total n'est calculé que si includeTotal est vrai (requête COUNT supplémentaire)
+     */
+    public UserPageDTO listUsers(String search, User.Role role, Long teamId,
+                                 String cursor, int limit, boolean includeTotal) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        String[] parts = cursor != null && !cursor.isBlank() ? decodeCursor(cursor) : null;
+
+        if (search != null && !search.isBlank()) {
+            return listRankedUsers(search, role, teamId, parts, pageSize, includeTotal);
+        }
+
+        String afterLastName = null;
+        String afterFirstName = null;
+        Long afterId = null;
+        if (parts != null) {
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Curseur invalide");
+            }
+            afterLastName = parts[0];
+            afterFirstName = parts[1];
+            afterId = Long.parseLong(parts[2]);
+        }
+
+        // Un élément de plus que demandé pour savoir s'il existe une page suivante
+        List<UserDTO> users = userRepository.findUserPage(role, teamId,
+                afterLastName, afterFirstName, afterId, PageRequest.of(0, pageSize + 1));
+
+        UserPageDTO page = new UserPageDTO();
+        page.setHasMore(users.size() > pageSize);
+        page.setItems(page.isHasMore() ? users.subList(0, pageSize) : users);
+        if (page.isHasMore()) {
+            UserDTO last = page.getItems().get(pageSize - 1);
+            page.setNextCursor(encodeCursor(last));
+        }
+        if (includeTotal) {
+            page.setTotal(userRepository.countUsers(role, teamId));
+        }
+        return page;
+    }
+
+    // Le classement n'est matérialisé que jusqu'à la fin de la page ; le total compte toutes les correspondances
+    private UserPageDTO listRankedUsers(String search, User.Role role, Long teamId,
+                                        String[] parts, int pageSize, boolean includeTotal) {
+        if (parts != null && parts.length != 1) {
+            throw new IllegalArgumentException("Curseur invalide");
+        }
+        int offset = parts != null ? Integer.parseInt(parts[0]) : 0;
+        // Borné pour un curseur forgé (offset proche de Integer.MAX_VALUE)
+        int limit = (int) Math.min((long) offset + pageSize, Integer.MAX_VALUE);
+        TrigramSearchIndex.Results results = searchIndexService.searchUsers(search, role, teamId, limit);
+        if (offset > results.total()) {
+            throw new IllegalArgumentException("Curseur invalide");
+        }
+        List<Long> rankedIds = results.ids();
+        int end = Math.min(rankedIds.size(), limit);
+
+        UserPageDTO page = new UserPageDTO();
+        page.setItems(offset < end ? findRankedUsers(rankedIds.subList(offset, end)) : List.of());
+        page.setHasMore(end < results.total());
+        if (page.isHasMore()) {
+            page.setNextCursor(encodeCursor(String.valueOf(end)));
+        }
+        if (includeTotal) {
+            page.setTotal((long) results.total());
+        }
+        return page;
+    }
+
+    // Une seule requête pour la page, puis remise dans l'ordre du classement
+    private List<UserDTO> findRankedUsers(List<Long> rankedIds) {
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, UserDTO> byId = userRepository.findUserDTOsByIds(rankedIds).stream()
+                .collect(Collectors.toMap(UserDTO::getId, Function.identity()));
+        return rankedIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
+    private static String encodeCursor(UserDTO last) {
+        return encodeCursor(last.getNom() + CURSOR_SEPARATOR + last.getPrenom() + CURSOR_SEPARATOR + last.getId());
+    }
+
+    private static String encodeCursor(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Curseur de liste : "nom, prénom, id" ; curseur de recherche : position dans le classement
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(CURSOR_SEPARATOR, -1);
+            if (parts.length == 1 && Integer.parseInt(parts[0]) >= 0) {
+                return parts;
+            }
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Curseur invalide");
+            }
+            Long.parseLong(parts[2]);
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Curseur invalide");
+        }
+    }
+
     /**
      * US-02.4 : Changer le rôle d'un utilisateur
      */
@@ -199,6 +339,7 @@ public class UserService {
 
         User.Role oldRole = user.getRole();
         user.setRole(newRole);
+        boolean teamViewChanged = user.getTeam() != null && oldRole != newRole;
 
         // Si on retire le rôle VALIDATEUR, retirer comme validateur des équipes
         if (oldRole == User.Role.VALIDATEUR && newRole != User.Role.VALIDATEUR) {
@@ -207,9 +348,15 @@ public class UserService {
                 team.setValidator(null);
                 teamRepository.save(team);
             }
+            teamViewChanged |= !teams.isEmpty();
         }
 
         User updatedUser = userRepository.save(user);
+        searchIndexService.userChanged(updatedUser);
+        if (teamViewChanged) {
+            catalogVersions.incrementAfterCommit(CatalogVersions.TEAMS);
+        }
+        userDetailsService.invalidateUser(updatedUser.getUsername());
         return convertToDTO(updatedUser);
     }
 
@@ -261,10 +408,20 @@ public class UserService {
                 .collect(Collectors.toList());
     }
 
+    // Champs de l'utilisateur affichés dans la liste des équipes (membres, nom du validateur) ;
+    // vide hors équipe : la modification d'un utilisateur sans équipe ne change pas la version des équipes
+    private static List<Object> teamView(User user) {
+        if (user.getTeam() == null) {
+            return List.of();
+        }
+        return Arrays.asList(user.getTeam().getId(), user.getLastName(), user.getFirstName(),
+                user.getUsername(), user.getEmail(), user.getRole(), user.getActive());
+    }
+
     /**
      * Générer un mot de passe temporaire aléatoire
      */
-    private String generateTemporaryPassword() {
+    String generateTemporaryPassword() {
         SecureRandom random = new SecureRandom();
         StringBuilder password = new StringBuilder(defaultPasswordLength);
 
@@ -277,9 +434,9 @@ public class UserService {
     }
 
     /**
-     * Convertir User en UserDTO
+     * Convertir User en UserDTO (visible dans le package pour DtoMappingBenchmark)
      */
-    private UserDTO convertToDTO(User user) {
+    UserDTO convertToDTO(User user) {
         UserDTO dto = new UserDTO();
         dto.setId(user.getId());
         dto.setNom(user.getLastName());
@@ -0,0 +1,46 @@
+-- Jours des soldes et du journal en quarts de journée entiers (LeaveDays) : arithmétique exacte,
+-- comparaisons sur des entiers. Valeurs existantes arrondies au quart de journée le plus proche.
+
+DROP INDEX IF EXISTS idx_leave_balances_year_remaining;
+DROP INDEX IF EXISTS idx_leave_balances_year_id_remaining;
+
+ALTER TABLE leave_balances ADD COLUMN total_allowance_quarters BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE leave_balances ADD COLUMN used_quarters BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE leave_balances ADD COLUMN pending_quarters BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE leave_balances ADD COLUMN remaining_quarters BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE leave_balances ADD COLUMN carried_over_quarters BIGINT DEFAULT 0 NOT NULL;
+
+UPDATE leave_balances SET
+    total_allowance_quarters = CAST(ROUND(total_allowance * 4) AS BIGINT),
+    used_quarters = CAST(ROUND(used_days * 4) AS BIGINT),
+    pending_quarters = CAST(ROUND(pending_days * 4) AS BIGINT),
+    carried_over_quarters = CAST(ROUND(carried_over_days * 4) AS BIGINT);
+
+-- Restant recalculé sur les valeurs entières : l'invariant remaining = total - used - pending est exact
+UPDATE leave_balances SET remaining_quarters = total_allowance_quarters - used_quarters - pending_quarters;
+
+ALTER TABLE leave_balances DROP COLUMN total_allowance;
+ALTER TABLE leave_balances DROP COLUMN used_days;
+ALTER TABLE leave_balances DROP COLUMN pending_days;
+ALTER TABLE leave_balances DROP COLUMN remaining_days;
+ALTER TABLE leave_balances DROP COLUMN carried_over_days;
+
+-- LeaveBalanceRepository.findUsersWithLowBalance
+CREATE INDEX idx_leave_balances_year_remaining ON leave_balances (year, remaining_quarters);
+
+-- Journal : variations en quarts de journée
+ALTER TABLE leave_ledger ADD COLUMN allowance_quarters BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE leave_ledger ADD COLUMN used_quarters BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE leave_ledger ADD COLUMN pending_quarters BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE leave_ledger ADD COLUMN carried_over_quarters BIGINT DEFAULT 0 NOT NULL;
+
+UPDATE leave_ledger SET
+    allowance_quarters = CAST(ROUND(allowance_delta * 4) AS BIGINT),
+    used_quarters = CAST(ROUND(used_delta * 4) AS BIGINT),
+    pending_quarters = CAST(ROUND(pending_delta * 4) AS BIGINT),
+    carried_over_quarters = CAST(ROUND(carried_over_delta * 4) AS BIGINT);
+
+ALTER TABLE leave_ledger DROP COLUMN allowance_delta;
+ALTER TABLE leave_ledger DROP COLUMN used_delta;
+ALTER TABLE leave_ledger DROP COLUMN pending_delta;
+ALTER TABLE leave_ledger DROP COLUMN carried_over_delta;
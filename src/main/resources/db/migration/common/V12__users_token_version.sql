@@ -0,0 +1,4 @@
+-- Version des tokens de chaque utilisateur : incrémentée à chaque modification (rôle, statut, mot de passe...),
+-- portée par le token (claim tokenVersion). Partagée entre instances et conservée au redémarrage.
+
+ALTER TABLE users ADD COLUMN token_version BIGINT DEFAULT 0 NOT NULL;
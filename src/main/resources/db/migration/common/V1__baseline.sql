@@ -0,0 +1,65 @@
+-- Schéma initial (tel que généré jusqu'ici par Hibernate avec ddl-auto=update)
+-- Une base existante sans historique est marquée à cette version sans exécuter ce script.
+
+CREATE TABLE users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username VARCHAR(255) NOT NULL UNIQUE,
+    email VARCHAR(255) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255) NOT NULL,
+    last_name VARCHAR(255) NOT NULL,
+    role VARCHAR(255) NOT NULL CHECK (role IN ('EMPLOYE', 'VALIDATEUR', 'ADMIN')),
+    active BOOLEAN NOT NULL,
+    team_id BIGINT,
+    reset_token VARCHAR(255),
+    reset_token_expiry TIMESTAMP(6),
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6)
+);
+
+CREATE TABLE teams (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL UNIQUE,
+    description VARCHAR(500),
+    validator_id BIGINT,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6)
+);
+
+CREATE TABLE leave_types (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL UNIQUE,
+    description VARCHAR(500),
+    requires_approval BOOLEAN NOT NULL,
+    is_paid BOOLEAN NOT NULL,
+    deducts_from_balance BOOLEAN NOT NULL,
+    max_days_per_year DOUBLE PRECISION NOT NULL,
+    default_annual_allowance DOUBLE PRECISION NOT NULL,
+    allow_carry_over BOOLEAN NOT NULL,
+    max_carry_over_days INTEGER,
+    is_active BOOLEAN NOT NULL,
+    color VARCHAR(255),
+    display_order INTEGER NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6)
+);
+
+CREATE TABLE leave_balances (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    leave_type_id BIGINT NOT NULL,
+    year INTEGER NOT NULL,
+    total_allowance DOUBLE PRECISION NOT NULL,
+    used_days DOUBLE PRECISION NOT NULL,
+    pending_days DOUBLE PRECISION NOT NULL,
+    remaining_days DOUBLE PRECISION NOT NULL,
+    carried_over_days DOUBLE PRECISION NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    CONSTRAINT uk_leave_balances_user_type_year UNIQUE (user_id, leave_type_id, year)
+);
+
+ALTER TABLE users ADD CONSTRAINT fk_users_team FOREIGN KEY (team_id) REFERENCES teams (id);
+ALTER TABLE teams ADD CONSTRAINT fk_teams_validator FOREIGN KEY (validator_id) REFERENCES users (id);
+ALTER TABLE leave_balances ADD CONSTRAINT fk_leave_balances_user FOREIGN KEY (user_id) REFERENCES users (id);
+ALTER TABLE leave_balances ADD CONSTRAINT fk_leave_balances_leave_type FOREIGN KEY (leave_type_id) REFERENCES leave_types (id);
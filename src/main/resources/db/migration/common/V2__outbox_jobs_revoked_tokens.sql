@@ -0,0 +1,37 @@
+-- Tables ajoutées depuis : outbox des emails, jobs de report, tokens révoqués (jwt.blacklist.store=jdbc)
+-- IF NOT EXISTS : une base marquée en V1 peut déjà les avoir reçues de ddl-auto=update
+
+CREATE TABLE IF NOT EXISTS outbound_emails (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    body VARCHAR(10000),
+    status VARCHAR(20) NOT NULL CHECK (status IN ('PENDING', 'SENDING', 'SENT', 'DEAD')),
+    attempts INTEGER NOT NULL,
+    next_attempt_at TIMESTAMP(6) NOT NULL,
+    last_error VARCHAR(1000),
+    sent_at TIMESTAMP(6),
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_outbound_emails_status_next ON outbound_emails (status, next_attempt_at);
+
+CREATE TABLE IF NOT EXISTS carry_over_jobs (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    from_year INTEGER NOT NULL,
+    to_year INTEGER NOT NULL,
+    status VARCHAR(20) NOT NULL CHECK (status IN ('RUNNING', 'COMPLETED', 'FAILED')),
+    last_balance_id BIGINT NOT NULL,
+    processed_count INTEGER NOT NULL,
+    carried_over_count INTEGER NOT NULL,
+    error VARCHAR(1000),
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    finished_at TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    token_hash VARCHAR(64) PRIMARY KEY,
+    fingerprint BIGINT NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,33 @@
+-- Index des chemins de requête des repositories (clés étrangères comprises : PostgreSQL ne les indexe pas)
+
+-- UserRepository.findByTeamId, findByTeamIsNull, TeamRepository.countMembersByTeamId, findTeamByMemberId,
+-- jointure de LeaveBalanceRepository.getTotalUsedDaysByTeam
+CREATE INDEX IF NOT EXISTS idx_users_team_id ON users (team_id);
+
+-- UserRepository.findByRole, findByRoleAndActiveTrue, countByRole, findAvailableValidateurs
+CREATE INDEX IF NOT EXISTS idx_users_role_active ON users (role, active);
+
+-- UserRepository.findUserPage : tri et pagination par clé (nom, prénom, id)
+CREATE INDEX IF NOT EXISTS idx_users_name_id ON users (last_name, first_name, id);
+
+-- TeamRepository.findByValidator, findByValidatorId, findAllByValidatorId, findTeamsWithMembersByValidatorId,
+-- sous-requête de UserRepository.findAvailableValidateurs
+CREATE INDEX IF NOT EXISTS idx_teams_validator_id ON teams (validator_id);
+
+-- LeaveBalanceRepository.findByUserAndYear, findByUserIdAndYear, getTotalUsedDaysByTeam,
+-- préchargement des soldes cibles de CarryOverJobService
+-- (findByUser, deleteByUser et findByUserAndLeaveTypeAndYear utilisent la contrainte unique)
+CREATE INDEX IF NOT EXISTS idx_leave_balances_user_year ON leave_balances (user_id, year);
+
+-- LeaveBalanceRepository.findUsersWithLowBalance
+CREATE INDEX IF NOT EXISTS idx_leave_balances_year_remaining ON leave_balances (year, remaining_days);
+
+-- Clé étrangère vers leave_types (suppression d'un type, jointures par type)
+CREATE INDEX IF NOT EXISTS idx_leave_balances_leave_type_id ON leave_balances (leave_type_id);
+
+-- CarryOverJobRepository.findFirstByFromYearAndToYearAndStatus, findByStatusAndUpdatedAtBefore
+CREATE INDEX IF NOT EXISTS idx_carry_over_jobs_years_status ON carry_over_jobs (from_year, to_year, status);
+CREATE INDEX IF NOT EXISTS idx_carry_over_jobs_status_updated ON carry_over_jobs (status, updated_at);
+
+-- JdbcTokenBlacklistStore.purgeExpired
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
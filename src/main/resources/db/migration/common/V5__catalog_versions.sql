@@ -0,0 +1,9 @@
+-- Version des catalogues gardés en mémoire : incrémentée dans la transaction de chaque modification,
+-- relue périodiquement par les autres instances pour savoir quand recharger leur copie
+
+CREATE TABLE catalog_versions (
+    name VARCHAR(50) PRIMARY KEY,
+    version BIGINT NOT NULL
+);
+
+INSERT INTO catalog_versions (name, version) VALUES ('leave_types', 0);
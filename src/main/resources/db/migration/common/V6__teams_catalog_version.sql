@@ -0,0 +1,3 @@
+-- Version de la liste des équipes (équipes, membres et validateurs) : sert d'ETag à GET /api/teams
+
+INSERT INTO catalog_versions (name, version) VALUES ('teams', 0);
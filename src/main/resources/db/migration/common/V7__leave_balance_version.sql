@@ -0,0 +1,3 @@
+-- Version des soldes (verrouillage optimiste) : incrémentée par chaque écriture, entité ou UPDATE atomique
+
+ALTER TABLE leave_balances ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
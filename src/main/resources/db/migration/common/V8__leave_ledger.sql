@@ -0,0 +1,29 @@
+-- Journal des mouvements de soldes (ajout seul) : leave_balances n'en est plus que la projection.
+-- folded = TRUE : mouvement déjà reporté dans leave_balances ; les autres forment la queue ajoutée à la lecture.
+
+CREATE TABLE leave_ledger (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    leave_type_id BIGINT NOT NULL,
+    year INTEGER NOT NULL,
+    movement VARCHAR(20) NOT NULL
+        CHECK (movement IN ('ALLOCATE', 'CARRY_OVER', 'PENDING', 'APPROVED', 'REJECTED', 'CANCELLED')),
+    allowance_delta DOUBLE PRECISION NOT NULL,
+    used_delta DOUBLE PRECISION NOT NULL,
+    pending_delta DOUBLE PRECISION NOT NULL,
+    carried_over_delta DOUBLE PRECISION NOT NULL,
+    folded BOOLEAN NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT fk_leave_ledger_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_leave_ledger_leave_type FOREIGN KEY (leave_type_id) REFERENCES leave_types (id)
+);
+
+-- Historique et queue des soldes d'un utilisateur pour une année
+CREATE INDEX idx_leave_ledger_user_year ON leave_ledger (user_id, year, leave_type_id);
+
+-- Ouverture : un mouvement par solde existant, avec ses valeurs actuelles (déjà dans la projection)
+INSERT INTO leave_ledger (user_id, leave_type_id, year, movement, allowance_delta, used_delta, pending_delta,
+                          carried_over_delta, folded, created_at)
+SELECT user_id, leave_type_id, year, 'ALLOCATE', total_allowance, used_days, pending_days,
+       carried_over_days, TRUE, CURRENT_TIMESTAMP
+FROM leave_balances;
@@ -0,0 +1,3 @@
+-- H2 ne gère pas les index partiels : même index sur toutes les lignes (voir postgresql/V11)
+
+CREATE INDEX IF NOT EXISTS idx_leave_balances_year_id_remaining ON leave_balances (year, id);
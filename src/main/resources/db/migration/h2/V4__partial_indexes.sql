@@ -0,0 +1,5 @@
+-- H2 ne gère pas les index partiels : mêmes index sur toutes les lignes (voir postgresql/V4)
+
+CREATE INDEX IF NOT EXISTS idx_users_reset_token ON users (reset_token);
+
+CREATE INDEX IF NOT EXISTS idx_leave_balances_year_id_remaining ON leave_balances (year, id);
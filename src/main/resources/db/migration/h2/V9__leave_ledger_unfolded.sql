@@ -0,0 +1,3 @@
+-- H2 ne gère pas les index partiels : même index préfixé par folded (voir postgresql/V9)
+
+CREATE INDEX IF NOT EXISTS idx_leave_ledger_unfolded ON leave_ledger (folded, year, user_id, leave_type_id);
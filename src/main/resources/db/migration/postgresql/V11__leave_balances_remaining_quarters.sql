@@ -0,0 +1,2 @@
+-- Pages de CarryOverJobService et LeaveBalanceRepository.findBalancesToCarryOver : soldes restants d'une année
+CREATE INDEX IF NOT EXISTS idx_leave_balances_year_id_remaining ON leave_balances (year, id) WHERE remaining_quarters > 0;
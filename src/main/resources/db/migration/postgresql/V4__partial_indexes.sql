@@ -0,0 +1,11 @@
+-- Index partiels : seules les lignes réellement recherchées sont indexées
+
+-- UserRepository.findByResetToken : très peu d'utilisateurs ont un token de réinitialisation en cours
+CREATE INDEX IF NOT EXISTS idx_users_reset_token ON users (reset_token) WHERE reset_token IS NOT NULL;
+
+-- Pages de CarryOverJobService et LeaveBalanceRepository.findBalancesToCarryOver : soldes restants d'une année
+CREATE INDEX IF NOT EXISTS idx_leave_balances_year_id_remaining ON leave_balances (year, id) WHERE remaining_days > 0;
+
+-- OutboundEmailRepository.findDueIds : les emails envoyés ou abandonnés ne sont plus jamais relus
+CREATE INDEX IF NOT EXISTS idx_outbound_emails_due ON outbound_emails (next_attempt_at)
+    WHERE status IN ('PENDING', 'SENDING');
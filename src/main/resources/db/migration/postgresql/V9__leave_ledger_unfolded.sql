@@ -0,0 +1,4 @@
+-- Mouvements pas encore reportés dans leave_balances : quelques lignes au plus, relues à chaque report
+-- (LeaveLedger.foldPending) et par les soldes faibles d'une année
+CREATE INDEX IF NOT EXISTS idx_leave_ledger_unfolded ON leave_ledger (year, user_id, leave_type_id)
+    WHERE folded = FALSE;
@@ -0,0 +1,97 @@
+package art.org.example.gestion_des_conges.controller;
+
+import art.org.example.gestion_des_conges.entity.LeaveDays;
+import art.org.example.gestion_des_conges.entity.User;
+import art.org.example.gestion_des_conges.repository.UserRepository;
+import art.org.example.gestion_des_conges.service.LeaveBalanceService;
+import art.org.example.gestion_des_conges.service.LeaveTypeService;
+import art.org.example.gestion_des_conges.service.TeamService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithUserDetails("admin")
+class ConditionalGetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LeaveTypeService leaveTypeService;
+
+    @Autowired
+    private TeamService teamService;
+
+    @Autowired
+    private LeaveBalanceService leaveBalanceService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void leaveTypesAnswer304UntilTheCatalogChanges() throws Exception {
+        String etag = fetchEtag("/api/leave-types?activeOnly=true");
+        mockMvc.perform(get("/api/leave-types?activeOnly=true").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, private"))
+                .andExpect(content().string(""));
+
+        Long id = leaveTypeService.getAllLeaveTypes().get(0).getId();
+        leaveTypeService.toggleLeaveTypeStatus(id);
+        leaveTypeService.toggleLeaveTypeStatus(id);
+        assertNotEquals(etag, fetchEtag("/api/leave-types?activeOnly=true"));
+    }
+
+    @Test
+    void teamsAnswer304UntilATeamChanges() throws Exception {
+        String etag = fetchEtag("/api/teams?view=summary");
+        mockMvc.perform(get("/api/teams?view=summary").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"));
+
+        teamService.createTeam("Equipe ETag", null);
+        mockMvc.perform(get("/api/teams?view=summary").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.nom == 'Equipe ETag')]").exists());
+    }
+
+    @Test
+    void myBalancesAnswer304UntilABalanceChanges() throws Exception {
+        // Premier appel : soldes initialisés par la lecture, ETag disponible ensuite
+        mockMvc.perform(get("/api/leave-balances/me")).andExpect(status().isOk());
+        String etag = fetchEtag("/api/leave-balances/me");
+        mockMvc.perform(get("/api/leave-balances/me").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        User admin = userRepository.findByUsername("admin").orElseThrow();
+        Long leaveTypeId = leaveTypeService.getActiveLeaveTypes().get(0).getId();
+        leaveBalanceService.setUserBalance(admin.getId(), leaveTypeId, LocalDate.now().getYear(), LeaveDays.of(31));
+        mockMvc.perform(get("/api/leave-balances/me").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.totalAllowance == 31.0)]").exists());
+    }
+
+    private String fetchEtag(String url) throws Exception {
+        MvcResult result = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn();
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag, url + " sans ETag");
+        return etag;
+    }
+}
@@ -0,0 +1,99 @@
+package art.org.example.gestion_des_conges.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Collecte Prometheus après une connexion et une lecture authentifiée :
+ * routes HTTP, services, repositories, pool JDBC et tokens JWT doivent y figurer.
+ * La collecte exige le compte de collecte ou un token administrateur.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+@TestPropertySource(properties = "app.metrics.scrape-password=" + MetricsEndpointTests.SCRAPE_PASSWORD)
+class MetricsEndpointTests {
+
+    static final String SCRAPE_PASSWORD = "collecte-test";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void prometheusScrapeExposesApplicationMetrics() throws Exception {
+        String token = login("employe", "employe123");
+
+        mockMvc.perform(get("/api/leave-balances/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/leave-balances/me").header(HttpHeaders.AUTHORIZATION, "Bearer invalide"))
+                .andExpect(status().is4xxClientError());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus").with(httpBasic("prometheus", SCRAPE_PASSWORD)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertContains(scrape, "http_server_requests_seconds_bucket{");
+        assertContains(scrape, "uri=\"/api/leave-balances/me\"");
+        assertContains(scrape, "app_service_seconds_bucket{");
+        assertContains(scrape, "class=\"LeaveBalanceService\"");
+        assertContains(scrape, "spring_data_repository_invocations_seconds_bucket{");
+        assertContains(scrape, "hikaricp_connections_active{");
+        assertContains(scrape, "hikaricp_connections_pending{");
+        assertContains(scrape, "app_jwt_validations_total{application=\"conges-backend\",outcome=\"valid\"");
+        assertContains(scrape, "outcome=\"malformed\"");
+        assertContains(scrape, "app_jwt_blacklist_lookups_total{");
+    }
+
+    @Test
+    void prometheusScrapeRequiresTheScrapeAccountOrAnAdmin() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("prometheus", "mauvais")))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("employe", "employe123")))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + login("employe", "employe123")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/prometheus")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + login("admin", "admin123")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void otherActuatorEndpointsRequireAuthentication() throws Exception {
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics")).andExpect(status().is4xxClientError());
+    }
+
+    private String login(String username, String password) throws Exception {
+        String login = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(login).get("token").asText();
+    }
+
+    private static void assertContains(String scrape, String expected) {
+        assertTrue(scrape.contains(expected), () -> "Métrique absente de la collecte : " + expected);
+    }
+}
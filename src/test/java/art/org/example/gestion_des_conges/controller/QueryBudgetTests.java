@@ -0,0 +1,244 @@
+package art.org.example.gestion_des_conges.controller;
+
+import art.org.example.gestion_des_conges.dto.CreateLeaveTypeRequest;
+import art.org.example.gestion_des_conges.entity.LeaveDays;
+import art.org.example.gestion_des_conges.entity.User;
+import art.org.example.gestion_des_conges.repository.UserRepository;
+import art.org.example.gestion_des_conges.security.JwtTokenProvider;
+import art.org.example.gestion_des_conges.service.*;
+import art.org.example.gestion_des_conges.support.QueryCounter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Budget de requêtes SQL de chaque route GET : le nombre d'instructions exécutées par un appel
+ * ne doit pas dépasser le budget déclaré, et ne doit pas changer quand les données grossissent
+ * (membres d'équipe, équipes, utilisateurs, types de congés et soldes, mouvements du journal).
+ * Une requête par élément (chargement paresseux dans une boucle) fait échouer le test avec la liste des instructions.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(QueryCounter.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryBudgetTests {
+
+    // Éléments ajoutés à chaque dimension entre les deux mesures
+    private static final int GROWTH = 3;
+
+    private static final int YEAR = LocalDate.now().getYear();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TeamService teamService;
+
+    @Autowired
+    private LeaveTypeService leaveTypeService;
+
+    @Autowired
+    private LeaveTypeCatalog leaveTypeCatalog;
+
+    @Autowired
+    private LeaveBalanceService leaveBalanceService;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    private Long teamId;
+    private Long validatorId;
+    private Long employeeId;
+    private Long leaveTypeId;
+    private UserDetails admin;
+    private UserDetails employee;
+    private String employeeToken;
+    private int created;
+
+    private record Endpoint(String name, int budget, Supplier<MockHttpServletRequestBuilder> request) {
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    List<Endpoint> endpoints() {
+        return List.of(
+                // Utilisateurs
+                new Endpoint("GET /api/users?search=", 1, () -> asAdmin(get("/api/users")
+                        .param("search", "budget").param("limit", "200"))),
+                new Endpoint("GET /api/users?teamId=", 1, () -> asAdmin(get("/api/users")
+                        .param("teamId", teamId.toString()).param("limit", "200"))),
+                new Endpoint("GET /api/users/search", 1, () -> asAdmin(get("/api/users/search").param("q", "budget"))),
+                new Endpoint("GET /api/users/{id}", 1, () -> asAdmin(get("/api/users/{id}", employeeId))),
+                new Endpoint("GET /api/users/team/{teamId}", 2, () -> asAdmin(get("/api/users/team/{id}", teamId))),
+                new Endpoint("GET /api/users/without-team", 1, () -> asAdmin(get("/api/users/without-team"))),
+                new Endpoint("GET /api/users/available-validators", 1,
+                        () -> asAdmin(get("/api/users/available-validators"))),
+                new Endpoint("GET /api/users/me", 2, () -> asEmployee(get("/api/users/me"))),
+                new Endpoint("GET /api/users/profile/{id}", 1, () -> asAdmin(get("/api/users/profile/{id}", employeeId))),
+                new Endpoint("GET /api/users/check-email-availability", 1, () -> asAdmin(
+                        get("/api/users/check-email-availability").param("email", "libre@example.com"))),
+                new Endpoint("GET /api/users/check-username-availability", 1, () -> asAdmin(
+                        get("/api/users/check-username-availability").param("username", "libre"))),
+
+                // Équipes
+                new Endpoint("GET /api/teams", 3, () -> asAdmin(get("/api/teams"))),
+                new Endpoint("GET /api/teams?view=summary", 3, () -> asAdmin(get("/api/teams")
+                        .param("view", "summary").param("preview", "2"))),
+                new Endpoint("GET /api/teams/{id}", 1, () -> asAdmin(get("/api/teams/{id}", teamId))),
+                new Endpoint("GET /api/teams/without-validator", 2, () -> asAdmin(get("/api/teams/without-validator"))),
+                new Endpoint("GET /api/teams/empty", 1, () -> asAdmin(get("/api/teams/empty"))),
+                new Endpoint("GET /api/teams/validator/{id}", 2,
+                        () -> asAdmin(get("/api/teams/validator/{id}", validatorId))),
+                new Endpoint("GET /api/teams/with-member-count", 1, () -> asAdmin(get("/api/teams/with-member-count"))),
+                new Endpoint("GET /api/teams/check-name-availability", 1, () -> asAdmin(
+                        get("/api/teams/check-name-availability").param("name", "Libre"))),
+
+                // Types de congés (catalogue en mémoire)
+                new Endpoint("GET /api/leave-types", 0, () -> asEmployee(get("/api/leave-types"))),
+                new Endpoint("GET /api/leave-types/{id}", 0, () -> asEmployee(get("/api/leave-types/{id}", leaveTypeId))),
+                new Endpoint("GET /api/leave-types/check-name-availability", 0, () -> asAdmin(
+                        get("/api/leave-types/check-name-availability").param("name", "LIBRE"))),
+
+                // Soldes et journal
+                new Endpoint("GET /api/leave-balances/me", 2, () -> asEmployee(get("/api/leave-balances/me"))),
+                new Endpoint("GET /api/leave-balances/user/{id}", 2,
+                        () -> asAdmin(get("/api/leave-balances/user/{id}", employeeId))),
+                new Endpoint("GET /api/leave-balances/ledger/{id}", 2,
+                        () -> asAdmin(get("/api/leave-balances/ledger/{id}", employeeId))),
+
+                // Authentification (token : version de l'utilisateur relue à chaque requête, jwt.stamp-cache-ttl-ms=0)
+                new Endpoint("GET /api/auth/me", 0, () -> asEmployee(get("/api/auth/me"))),
+                new Endpoint("GET /api/auth/validate", 1, () -> get("/api/auth/validate")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + employeeToken))
+        );
+    }
+
+    @BeforeAll
+    void createFixture() {
+        validatorId = saveUser("budget.validateur", "Budget", "Validateur", User.Role.VALIDATEUR);
+        teamId = teamService.createTeam("Budget Équipe", "Équipe des tests de budget de requêtes").getId();
+        teamService.addMember(teamId, validatorId);
+        teamService.setValidator(teamId, validatorId);
+        employeeId = saveUser("budget.employe", "Budget", "Employe", User.Role.EMPLOYE);
+        teamService.addMember(teamId, employeeId);
+        leaveBalanceService.initializeUserBalances(employeeId, YEAR);
+        leaveTypeId = leaveTypeCatalog.findActive().get(0).getId();
+
+        admin = userDetailsService.loadUserByUsername("admin");
+        employee = userDetailsService.loadUserByUsername("budget.employe");
+        employeeToken = tokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(employee, null, employee.getAuthorities()));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("endpoints")
+    void queryCountStaysWithinBudgetAsDataGrows(Endpoint endpoint) throws Exception {
+        grow();
+        QueryCounter.Recorded small = measure(endpoint);
+        grow();
+        QueryCounter.Recorded large = measure(endpoint);
+
+        assertEquals(small.count(), large.count(), () -> endpoint + " : le nombre de requêtes augmente avec les données"
+                + "\navant : " + small + "\naprès : " + large);
+        assertTrue(large.count() <= endpoint.budget(),
+                () -> endpoint + " : budget de " + endpoint.budget() + " dépassé, " + large);
+    }
+
+    private QueryCounter.Recorded measure(Endpoint endpoint) throws Exception {
+        MockHttpServletRequestBuilder request = endpoint.request().get();
+        ResultActions result;
+        QueryCounter.Recorded recorded;
+        QueryCounter.start();
+        try {
+            result = mockMvc.perform(request);
+        } finally {
+            recorded = QueryCounter.stop();
+        }
+        result.andExpect(status().is2xxSuccessful());
+        return recorded;
+    }
+
+    /**
+     * Ajoute GROWTH éléments à chaque dimension lue par les routes : membres de l'équipe, utilisateurs sans équipe
+     * (validateurs disponibles), équipes avec validateur et équipes vides sans validateur, type de congé avec un solde
+     * de l'employé (désactivé ensuite, pour ne pas changer les types actifs des autres tests), mouvements du journal
+     */
+    private void grow() {
+        for (int i = 0; i < GROWTH; i++) {
+            int n = created++;
+            teamService.addMember(teamId, saveUser("budget.membre" + n, "Budget", "Membre" + n, User.Role.EMPLOYE));
+            saveUser("budget.libre" + n, "Budget", "Libre" + n, User.Role.VALIDATEUR);
+
+            Long validated = teamService.createTeam("Budget Validée " + n, null).getId();
+            Long validator = saveUser("budget.validateur" + n, "Budget", "Validateur" + n, User.Role.VALIDATEUR);
+            teamService.addMember(validated, validator);
+            teamService.setValidator(validated, validator);
+            teamService.createTeam("Budget Sans Validateur " + n, null);
+
+            CreateLeaveTypeRequest leaveType = new CreateLeaveTypeRequest();
+            leaveType.setName("BUDGET_" + n);
+            Long typeId = leaveTypeService.createLeaveType(leaveType).getId();
+            leaveBalanceService.initializeUserBalances(employeeId, YEAR);
+            leaveTypeService.toggleLeaveTypeStatus(typeId);
+
+            leaveBalanceService.updateBalanceAfterRequest(employeeId, leaveTypeId, YEAR, LeaveDays.of(1), "PENDING");
+            leaveBalanceService.updateBalanceAfterRequest(employeeId, leaveTypeId, YEAR, LeaveDays.of(1), "REJECTED");
+        }
+    }
+
+    private Long saveUser(String username, String firstName, String lastName, User.Role role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("x");
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setRole(role);
+        User saved = userRepository.save(user);
+        searchIndexService.userChanged(saved);
+        return saved.getId();
+    }
+
+    private MockHttpServletRequestBuilder asAdmin(MockHttpServletRequestBuilder request) {
+        return request.with(user(admin));
+    }
+
+    private MockHttpServletRequestBuilder asEmployee(MockHttpServletRequestBuilder request) {
+        return request.with(user(employee));
+    }
+}
@@ -0,0 +1,38 @@
+package art.org.example.gestion_des_conges.entity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaveDaysTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void fractionsOfADayAddUpExactly() {
+        LeaveDays total = LeaveDays.ZERO;
+        for (int i = 0; i < 10; i++) {
+            total = total.plus(LeaveDays.of(0.25)).plus(LeaveDays.of(0.5));
+        }
+        assertEquals(LeaveDays.of(7.5), total);
+        assertEquals(30, total.quarters());
+        assertEquals(LeaveDays.of(25), LeaveDays.of(32.5).minus(total));
+        assertTrue(LeaveDays.of(1).minus(LeaveDays.of(1.25)).isNegative());
+    }
+
+    @Test
+    void onlyWholeQuartersAreAccepted() {
+        assertThrows(IllegalArgumentException.class, () -> LeaveDays.of(0.1));
+        assertThrows(IllegalArgumentException.class, () -> LeaveDays.of(Double.NaN));
+        assertEquals(LeaveDays.of(2.25), LeaveDays.rounded(2.2));
+    }
+
+    @Test
+    void jsonKeepsANumberOfDays() throws Exception {
+        assertEquals("2.5", objectMapper.writeValueAsString(LeaveDays.of(2.5)));
+        assertEquals(LeaveDays.of(31), objectMapper.readValue("31", LeaveDays.class));
+        assertEquals(LeaveDays.of(0.75), objectMapper.readValue("0.75", LeaveDays.class));
+        assertThrows(Exception.class, () -> objectMapper.readValue("0.3", LeaveDays.class));
+    }
+}
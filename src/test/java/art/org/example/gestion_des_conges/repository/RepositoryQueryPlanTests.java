@@ -0,0 +1,250 @@
+package art.org.example.gestion_des_conges.repository;
+
+import art.org.example.gestion_des_conges.entity.LeaveType;
+import art.org.example.gestion_des_conges.entity.Team;
+import art.org.example.gestion_des_conges.entity.User;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Plan d'exécution de chaque requête des repositories : appelle toutes les méthodes déclarées,
+ * récupère le SQL généré par Hibernate et échoue si EXPLAIN montre un parcours complet d'une grande table.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:conges_plans;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;" +
+                "DEFAULT_NULL_ORDERING=HIGH;NON_KEYWORDS=YEAR,VALUE",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+                "art.org.example.gestion_des_conges.repository.RepositoryQueryPlanTests$RecordingInspector"
+})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RepositoryQueryPlanTests {
+
+    // Tables qui grossissent avec le nombre d'utilisateurs (les autres tiennent en quelques pages)
+    private static final Set<String> LARGE_TABLES = Set.of("users", "leave_balances", "leave_ledger",
+            "outbound_emails", "revoked_tokens");
+
+    // Parcours complets voulus : la requête lit toute la table (ou presque) par construction
+    private static final Map<String, String> ALLOWED_SCANS = Map.of(
+            "UserRepository.findUserPage", "liste complète sans filtre, lue dans l'ordre de idx_users_name_id",
+            "UserRepository.countUsers", "compte de toute la liste sans filtre",
+            "UserRepository.findByActive", "booléen peu sélectif : la plupart des utilisateurs sont actifs",
+            "UserRepository.findUsersByCriteria", "recherche LIKE '%...%' (la recherche passe par SearchIndexService)",
+            "LeaveBalanceRepository.insertMissingBalancesForYear", "initialise une année pour tous les utilisateurs"
+    );
+
+    private static final List<Class<?>> REPOSITORIES = List.of(
+            UserRepository.class, TeamRepository.class, LeaveTypeRepository.class,
+            LeaveBalanceRepository.class, OutboundEmailRepository.class, CarryOverJobRepository.class);
+
+    /**
+     * Enregistre le SQL envoyé par Hibernate pendant l'appel d'une méthode de repository
+     */
+    public static class RecordingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private LeaveTypeRepository leaveTypeRepository;
+
+    @BeforeAll
+    void seedLargeTables() {
+        jdbcTemplate.update("INSERT INTO teams (name, created_at) " +
+                "SELECT 'Equipe ' || r.x, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, 40) AS r(x)");
+        jdbcTemplate.update("INSERT INTO users (username, email, password, first_name, last_name, role, active, " +
+                "team_id, reset_token, created_at) " +
+                "SELECT 'plan' || r.x, 'plan' || r.x || '@example.com', 'x', 'Prenom' || r.x, 'Nom' || r.x, " +
+                "CASE WHEN MOD(r.x, 50) = 0 THEN 'VALIDATEUR' ELSE 'EMPLOYE' END, MOD(r.x, 20) <> 0, " +
+                "(SELECT MIN(t.id) FROM teams t) + MOD(r.x, 40), " +
+                "CASE WHEN MOD(r.x, 1000) = 0 THEN 'token' || r.x END, CURRENT_TIMESTAMP " +
+                "FROM SYSTEM_RANGE(1, 5000) AS r(x)");
+        for (int year : new int[]{2024, 2025}) {
+            jdbcTemplate.update("INSERT INTO leave_balances (user_id, leave_type_id, year, total_allowance_quarters, " +
+                    "used_quarters, pending_quarters, remaining_quarters, carried_over_quarters, created_at) " +
+                    "SELECT u.id, lt.id, ?, 100, MOD(u.id, 100), 0, 100 - MOD(u.id, 100), 0, CURRENT_TIMESTAMP " +
+                    "FROM users u CROSS JOIN leave_types lt " +
+                    "WHERE NOT EXISTS (SELECT 1 FROM leave_balances lb " +
+                    "WHERE lb.user_id = u.id AND lb.leave_type_id = lt.id AND lb.year = ?)", year, year);
+        }
+        // Journal : ouverture de chaque solde (reportée), plus une demande en attente sur un solde sur dix
+        jdbcTemplate.update("INSERT INTO leave_ledger (user_id, leave_type_id, year, movement, allowance_quarters, " +
+                "used_quarters, pending_quarters, carried_over_quarters, folded, created_at) " +
+                "SELECT user_id, leave_type_id, year, 'ALLOCATE', total_allowance_quarters, used_quarters, 0, 0, TRUE, " +
+                "CURRENT_TIMESTAMP FROM leave_balances");
+        jdbcTemplate.update("INSERT INTO leave_ledger (user_id, leave_type_id, year, movement, allowance_quarters, " +
+                "used_quarters, pending_quarters, carried_over_quarters, folded, created_at) " +
+                "SELECT user_id, leave_type_id, year, 'PENDING', 0, 0, 4, 0, FALSE, CURRENT_TIMESTAMP " +
+                "FROM leave_balances WHERE MOD(id, 10) = 0");
+        jdbcTemplate.update("INSERT INTO outbound_emails (recipient, subject, body, status, attempts, " +
+                "next_attempt_at, created_at) " +
+                "SELECT 'plan' || r.x || '@example.com', 'Sujet', NULL, " +
+                "CASE WHEN MOD(r.x, 100) = 0 THEN 'PENDING' ELSE 'SENT' END, 1, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP " +
+                "FROM SYSTEM_RANGE(1, 5000) AS r(x)");
+        jdbcTemplate.update("INSERT INTO revoked_tokens (token_hash, fingerprint, expires_at) " +
+                "SELECT 'hash' || r.x, r.x, DATEADD('HOUR', MOD(r.x, 48), CURRENT_TIMESTAMP) " +
+                "FROM SYSTEM_RANGE(1, 5000) AS r(x)");
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void repositoryQueriesDoNotScanLargeTables() throws Exception {
+        List<String> failures = new ArrayList<>();
+        int explained = 0;
+
+        for (Class<?> repositoryType : REPOSITORIES) {
+            Object repository = context.getBean(repositoryType);
+            Method[] methods = repositoryType.getDeclaredMethods();
+            Arrays.sort(methods, Comparator.comparing(Method::getName));
+            for (Method method : methods) {
+                if (method.isDefault() || Modifier.isStatic(method.getModifiers())) {
+                    continue;
+                }
+                String name = repositoryType.getSimpleName() + "." + method.getName();
+                List<String> statements = record(repository, method);
+                assertFalse(statements.isEmpty(), name + " n'a envoyé aucune requête");
+
+                for (String sql : statements) {
+                    String plan = explain(sql);
+                    explained++;
+                    for (String table : LARGE_TABLES) {
+                        if (plan.contains("public." + table + ".tableScan") && !ALLOWED_SCANS.containsKey(name)) {
+                            failures.add(name + " parcourt toute la table " + table + " :\n" + plan);
+                        }
+                    }
+                }
+            }
+        }
+
+        assertTrue(explained > 0);
+        assertTrue(failures.isEmpty(), String.join("\n\n", failures));
+    }
+
+    // Appelle la méthode dans une transaction annulée (les requêtes de modification ne laissent pas de trace)
+    private List<String> record(Object repository, Method method) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        return transaction.execute(status -> {
+            status.setRollbackOnly();
+            Object[] args = sampleArguments(method);
+            RecordingInspector.STATEMENTS.clear();
+            try {
+                method.invoke(repository, args);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Appel de " + method.getName() + " impossible", e);
+            }
+            return new ArrayList<>(RecordingInspector.STATEMENTS);
+        });
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.execute((java.sql.Connection connection) -> {
+            try (var statement = connection.prepareStatement("EXPLAIN " + sql);
+                 var rs = statement.executeQuery()) {
+                StringBuilder plan = new StringBuilder();
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+                return plan.toString();
+            }
+        });
+    }
+
+    private Object[] sampleArguments(Method method) {
+        Type[] types = method.getGenericParameterTypes();
+        Object[] args = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            args[i] = sampleValue(types[i]);
+        }
+        return args;
+    }
+
+    private Object sampleValue(Type type) {
+        if (type instanceof ParameterizedType parameterized) {
+            Type element = parameterized.getActualTypeArguments()[0];
+            return List.of(sampleValue(element), sampleValue(element));
+        }
+        Class<?> raw = (Class<?>) type;
+        if (raw == Long.class) {
+            return userRepository.findByUsername("plan42").orElseThrow().getId();
+        }
+        if (raw == Integer.class) {
+            return 2025;
+        }
+        if (raw == int.class) {
+            return 3;
+        }
+        if (raw == long.class) {
+            return 20L;
+        }
+        if (raw == Double.class) {
+            return 5.0;
+        }
+        if (raw == Boolean.class) {
+            return Boolean.TRUE;
+        }
+        if (raw == String.class) {
+            return "plan42";
+        }
+        if (raw == LocalDateTime.class) {
+            return LocalDateTime.now();
+        }
+        if (raw.isEnum()) {
+            return raw.getEnumConstants()[0];
+        }
+        if (raw == Pageable.class) {
+            return PageRequest.of(0, 20);
+        }
+        if (raw == User.class) {
+            return userRepository.findByUsername("plan42").orElseThrow();
+        }
+        if (raw == Team.class) {
+            return teamRepository.findByName("Equipe 1").orElseThrow();
+        }
+        if (raw == LeaveType.class) {
+            return leaveTypeRepository.findByIsActiveTrue().get(0);
+        }
+        throw new IllegalArgumentException("Pas de valeur d'exemple pour " + type);
+    }
+}
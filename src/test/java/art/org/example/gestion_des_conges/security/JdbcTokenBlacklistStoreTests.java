@@ -0,0 +1,51 @@
+package art.org.example.gestion_des_conges.security;
+
+import art.org.example.gestion_des_conges.config.JwtConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Deux instances partageant la table revoked_tokens, filtre de Bloom demandé :
+ * une révocation faite par l'une est refusée par l'autre immédiatement, sans attendre la purge périodique
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class JdbcTokenBlacklistStoreTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Test
+    void revocationOnOneInstanceIsSeenByAnotherImmediately() {
+        JwtTokenBlacklist first = newInstance();
+        JwtTokenBlacklist second = newInstance();
+        String token = tokenProvider.generateTokenWithCustomClaims("employe", "ROLE_EMPLOYE", 2L);
+        assertFalse(second.isBlacklisted(token));
+
+        first.addToBlacklist(token);
+
+        try {
+            assertTrue(first.isBlacklisted(token));
+            assertTrue(second.isBlacklisted(token));
+        } finally {
+            first.removeFromBlacklist(token);
+        }
+        assertFalse(second.isBlacklisted(token));
+    }
+
+    private JwtTokenBlacklist newInstance() {
+        JwtConfig config = new JwtConfig();
+        config.getBlacklist().setStore("jdbc");
+        config.getBlacklist().setBloomEnabled(true);
+        return new JwtTokenBlacklist(new JdbcTokenBlacklistStore(jdbcTemplate), tokenProvider, config);
+    }
+}
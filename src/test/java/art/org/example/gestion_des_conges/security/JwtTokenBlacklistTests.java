@@ -0,0 +1,84 @@
+package art.org.example.gestion_des_conges.security;
+
+import art.org.example.gestion_des_conges.config.JwtConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenBlacklistTests {
+
+    private static final String SECRET =
+            "VoiciUneCleSuperLongueEtTresSecureQuiDepasse512BitsPourHS512Algorithm123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    private JwtTokenProvider tokenProvider;
+    private InMemoryTokenBlacklistStore store;
+    private JwtTokenBlacklist blacklist;
+
+    @BeforeEach
+    void setUp() {
+        JwtConfig config = new JwtConfig();
+        config.setSecret(SECRET);
+        config.setExpiration(60_000);
+        tokenProvider = new JwtTokenProvider(config);
+        store = new InMemoryTokenBlacklistStore();
+        blacklist = new JwtTokenBlacklist(store, tokenProvider, config);
+    }
+
+    @Test
+    void blacklistedTokenIsRejectedAndOthersAreNot() {
+        String revoked = tokenProvider.generateTokenWithCustomClaims("employe", "ROLE_EMPLOYE", 2L);
+        String other = tokenProvider.generateTokenWithCustomClaims("admin", "ROLE_ADMIN", 1L);
+
+        blacklist.addToBlacklist(revoked);
+
+        assertTrue(blacklist.isBlacklisted(revoked));
+        assertFalse(blacklist.isBlacklisted(other));
+
+        // La reconstruction du filtre de Bloom ne perd pas l'entrée
+        blacklist.sweepExpired();
+        assertTrue(blacklist.isBlacklisted(revoked));
+
+        blacklist.removeFromBlacklist(revoked);
+        assertFalse(blacklist.isBlacklisted(revoked));
+    }
+
+    @Test
+    void invalidTokenIsNotStored() {
+        blacklist.addToBlacklist("pas.un.token");
+        assertTrue(store.activeFingerprints().isEmpty());
+    }
+
+    @Test
+    void concurrentRevocationsSurviveSweeps() throws Exception {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            tokens.add(tokenProvider.generateTokenWithCustomClaims("user" + i, "ROLE_EMPLOYE", (long) i));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (String token : tokens) {
+                futures.add(executor.submit(() -> blacklist.addToBlacklist(token)));
+                futures.add(executor.submit(blacklist::sweepExpired));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (String token : tokens) {
+            assertTrue(blacklist.isBlacklisted(token));
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package art.org.example.gestion_des_conges.security;
+
+import art.org.example.gestion_des_conges.config.JwtConfig;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Vérification des tokens : cache des tokens déjà vérifiés (jwt.verified-tokens)
+ * et rotation des clés (kid du header)
+ */
+class JwtTokenProviderTests {
+
+    private static final String SECRET =
+            "VoiciUneCleSuperLongueEtTresSecureQuiDepasse512BitsPourHS512Algorithm123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void alreadyVerifiedTokenIsServedFromTheCache() {
+        JwtTokenProvider tokenProvider = new JwtTokenProvider(config(60_000), meterRegistry);
+        String token = tokenProvider.generateTokenWithCustomClaims("employe", "ROLE_EMPLOYE", 2L);
+
+        Claims first = tokenProvider.getValidatedClaims(token);
+        assertEquals(0, cacheHits());
+
+        Claims second = tokenProvider.getValidatedClaims(token);
+        assertEquals(1, cacheHits());
+        assertSame(first, second);
+        assertEquals("employe", second.getSubject());
+    }
+
+    @Test
+    void expiredTokenIsNotServedFromTheCache() throws InterruptedException {
+        // exp est tronqué à la seconde : le token reste valide au moins une seconde
+        JwtTokenProvider tokenProvider = new JwtTokenProvider(config(2_000), meterRegistry);
+        String token = tokenProvider.generateTokenWithCustomClaims("employe", "ROLE_EMPLOYE", 2L);
+        assertNotNull(tokenProvider.getValidatedClaims(token));
+        assertNotNull(tokenProvider.getValidatedClaims(token));
+        assertEquals(1, cacheHits());
+
+        Thread.sleep(2_100);
+
+        assertNull(tokenProvider.getValidatedClaims(token));
+        assertEquals(1, cacheHits());
+        assertEquals(1, validations("expired"));
+    }
+
+    @Test
+    void tokenSignedWithARotatedKeyIsStillAccepted() {
+        JwtTokenProvider legacy = new JwtTokenProvider(config(60_000), meterRegistry);
+        JwtTokenProvider beforeRotation = new JwtTokenProvider(rotatingConfig("k1"), meterRegistry);
+        JwtTokenProvider afterRotation = new JwtTokenProvider(rotatingConfig("k2"), meterRegistry);
+
+        String legacyToken = legacy.generateTokenWithCustomClaims("employe", "ROLE_EMPLOYE", 2L);
+        String k1Token = beforeRotation.generateTokenWithCustomClaims("employe", "ROLE_EMPLOYE", 2L);
+        String k2Token = afterRotation.generateTokenWithCustomClaims("employe", "ROLE_EMPLOYE", 2L);
+
+        // Sans kid : jwt.secret ; avec kid : la clé correspondante, même si ce n'est plus la clé active
+        assertEquals("employe", afterRotation.getValidatedClaims(legacyToken).getSubject());
+        assertEquals("employe", afterRotation.getValidatedClaims(k1Token).getSubject());
+        assertEquals("employe", afterRotation.getValidatedClaims(k2Token).getSubject());
+        assertEquals("employe", beforeRotation.getValidatedClaims(k2Token).getSubject());
+    }
+
+    @Test
+    void unknownKeyIsRejectedEvenWhenTheSubjectIsCached() {
+        JwtTokenProvider tokenProvider = new JwtTokenProvider(rotatingConfig("k1"), meterRegistry);
+        String cached = tokenProvider.generateTokenWithCustomClaims("employe", "ROLE_EMPLOYE", 2L);
+        assertNotNull(tokenProvider.getValidatedClaims(cached));
+
+        JwtConfig unknown = config(60_000);
+        unknown.getKeys().put("k9", key("inconnue"));
+        unknown.setActiveKeyId("k9");
+        String forged = new JwtTokenProvider(unknown, new SimpleMeterRegistry())
+                .generateTokenWithCustomClaims("employe", "ROLE_ADMIN", 2L);
+
+        assertNull(tokenProvider.getValidatedClaims(forged));
+        assertEquals(1, validations("bad_signature"));
+        assertNotNull(tokenProvider.getValidatedClaims(cached));
+    }
+
+    @Test
+    void tamperedSignatureIsRejectedEvenWhenTheTokenIsCached() {
+        JwtTokenProvider tokenProvider = new JwtTokenProvider(rotatingConfig("k1"), meterRegistry);
+        String token = tokenProvider.generateTokenWithCustomClaims("employe", "ROLE_EMPLOYE", 2L);
+        assertNotNull(tokenProvider.getValidatedClaims(token));
+        assertNotNull(tokenProvider.getValidatedClaims(token));
+        assertEquals(1, cacheHits());
+
+        // Un caractère du milieu de la signature (les derniers ne portent parfois que des bits de remplissage)
+        int index = token.lastIndexOf('.') + 10;
+        char replacement = token.charAt(index) == 'A' ? 'B' : 'A';
+        String tampered = token.substring(0, index) + replacement + token.substring(index + 1);
+
+        // Payload modifié (rôle ADMIN) avec la signature d'origine
+        String[] parts = token.split("\\.");
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                        .replace("ROLE_EMPLOYE", "ROLE_ADMIN")
+                        .getBytes(StandardCharsets.UTF_8));
+        String forged = parts[0] + "." + forgedPayload + "." + parts[2];
+
+        assertNull(tokenProvider.getValidatedClaims(tampered));
+        assertNull(tokenProvider.getValidatedClaims(forged));
+        assertEquals(2, validations("bad_signature"));
+        assertEquals(1, cacheHits());
+    }
+
+    /**
+     * Clés k1 et k2 (plus jwt.secret pour les tokens sans kid), signature avec activeKeyId
+     */
+    private static JwtConfig rotatingConfig(String activeKeyId) {
+        JwtConfig config = config(60_000);
+        config.getKeys().put("k1", key("premiere"));
+        config.getKeys().put("k2", key("deuxieme"));
+        config.setActiveKeyId(activeKeyId);
+        return config;
+    }
+
+    private static String key(String seed) {
+        return Base64.getEncoder().encodeToString((seed + "-").repeat(64).substring(0, 64)
+                .getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static JwtConfig config(long expirationMillis) {
+        JwtConfig config = new JwtConfig();
+        config.setSecret(SECRET);
+        config.setExpiration(expirationMillis);
+        return config;
+    }
+
+    private double cacheHits() {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", "jwt.verified-tokens")
+                .tag("result", "hit")
+                .functionCounter()
+                .count();
+    }
+
+    private double validations(String outcome) {
+        return meterRegistry.get("app.jwt.validations").tag("outcome", outcome).counter().count();
+    }
+}
@@ -0,0 +1,126 @@
+package art.org.example.gestion_des_conges.security;
+
+import art.org.example.gestion_des_conges.config.RateLimitConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTests {
+
+    private final RateLimitFilter filter = new RateLimitFilter(new RateLimitConfig(), new ObjectMapper());
+
+    @Test
+    void loginIsLimitedPerUsernameAndBodyIsReplayed() throws Exception {
+        List<String> forwardedBodies = new ArrayList<>();
+        FilterChain chain = (request, response) ->
+                forwardedBodies.add(new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, login("Employe", chain).getStatus());
+        }
+        MockHttpServletResponse limited = login("employe", chain);
+        assertEquals(429, limited.getStatus());
+        assertEquals("12", limited.getHeader("Retry-After"));
+
+        // Même IP, autre utilisateur : seule la limite par IP (20/min) s'applique
+        assertEquals(200, login("admin", chain).getStatus());
+
+        assertEquals(6, forwardedBodies.size());
+        assertEquals("{\"username\":\"admin\",\"password\":\"secret\"}", forwardedBodies.get(5));
+    }
+
+    @Test
+    void paddedBodyIsRejectedInsteadOfSkippingTheUsernameLimit() throws Exception {
+        FilterChain chain = (request, response) -> { };
+        String padded = "{\"username\":\"employe\"," + " ".repeat(16 * 1024) + "\"password\":\"secret\"}";
+
+        assertEquals(413, post(padded, "10.0.0.2", chain).getStatus());
+    }
+
+    @Test
+    void bodiesWithoutTheKeyShareOneBucketPerRule() throws Exception {
+        FilterChain chain = (request, response) -> { };
+
+        // IP différente à chaque requête : seule la règle par utilisateur peut limiter
+        for (int i = 0; i < 5; i++) {
+            String body = i % 2 == 0 ? "pas du json" : "{\"password\":\"secret\"}";
+            assertEquals(200, post(body, "10.0.1." + i, chain).getStatus());
+        }
+        assertEquals(429, post("{\"username\":\"  \"}", "10.0.1.9", chain).getStatus());
+        assertEquals(200, login("employe", chain).getStatus());
+    }
+
+    @Test
+    void replayedBodyNotifiesAReadListener() throws Exception {
+        List<String> events = new ArrayList<>();
+        FilterChain chain = (request, response) -> {
+            ServletInputStream input = request.getInputStream();
+            input.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    events.add(new String(input.readAllBytes(), StandardCharsets.UTF_8));
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    events.add("fin");
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    events.add("erreur");
+                }
+            });
+        };
+
+        assertEquals(200, login("employe", chain).getStatus());
+        assertEquals(List.of("{\"username\":\"employe\",\"password\":\"secret\"}", "fin"), events);
+    }
+
+    @Test
+    void otherRoutesAreNotLimited() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        assertTrue(filter.shouldNotFilter(request));
+    }
+
+    @Test
+    void tokenBucketRefillsOverTime() {
+        long period = TimeUnit.SECONDS.toNanos(60);
+        TokenBucket bucket = new TokenBucket(3, period, 0);
+
+        assertEquals(0, bucket.tryConsume(0));
+        assertEquals(0, bucket.tryConsume(0));
+        assertEquals(0, bucket.tryConsume(0));
+        assertEquals(TimeUnit.SECONDS.toNanos(20), bucket.tryConsume(0));
+
+        // Un jeton regagné toutes les 20 secondes
+        assertEquals(0, bucket.tryConsume(TimeUnit.SECONDS.toNanos(20)));
+        assertTrue(bucket.tryConsume(TimeUnit.SECONDS.toNanos(20)) > 0);
+    }
+
+    private MockHttpServletResponse login(String username, FilterChain chain) throws Exception {
+        return post("{\"username\":\"" + username + "\",\"password\":\"secret\"}", "10.0.0.1", chain);
+    }
+
+    private MockHttpServletResponse post(String body, String remoteAddr, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setRemoteAddr(remoteAddr);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
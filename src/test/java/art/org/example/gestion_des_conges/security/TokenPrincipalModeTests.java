@@ -0,0 +1,121 @@
+package art.org.example.gestion_des_conges.security;
+
+import art.org.example.gestion_des_conges.entity.User;
+import art.org.example.gestion_des_conges.repository.UserRepository;
+import art.org.example.gestion_des_conges.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Mode jwt.principal-mode=token : principal reconstruit depuis les claims tant que la version
+ * de l'utilisateur en base (users.token_version) est celle du token, rechargé sinon.
+ * Versions relues à chaque requête (jwt.stamp-cache-ttl-ms=0) : un incrément fait directement en base
+ * simule une autre instance ou un redémarrage.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {"jwt.principal-mode=token", "jwt.stamp-cache-ttl-ms=0"})
+class TokenPrincipalModeTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void principalIsBuiltFromClaimsWhileVersionIsCurrent() throws Exception {
+        User user = createUser("token.claims");
+        String token = tokenFor(user);
+
+        // Modification sans changement de version : le principal vient toujours du token
+        jdbcTemplate.update("UPDATE users SET first_name = 'Modifié' WHERE id = ?", user.getId());
+
+        authMe(token)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value("Token"))
+                .andExpect(jsonPath("$.role").value("EMPLOYE"));
+        mockMvc.perform(get("/api/users/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("token.claims"));
+    }
+
+    @Test
+    void staleTokenReloadsTheUserAfterARoleChange() throws Exception {
+        User user = createUser("token.role");
+        String token = tokenFor(user);
+
+        userService.changeUserRole(user.getId(), User.Role.VALIDATEUR);
+
+        authMe(token)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.role").value("VALIDATEUR"));
+    }
+
+    @Test
+    void staleTokenIsRejectedAfterDeactivation() throws Exception {
+        User user = createUser("token.inactif");
+        String token = tokenFor(user);
+        authMe(token).andExpect(status().isOk());
+
+        userService.toggleUserStatus(user.getId());
+
+        authMe(token).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void versionChangedElsewhereIsSeenByThisInstance() throws Exception {
+        User user = createUser("token.ailleurs");
+        String token = tokenFor(user);
+
+        // Désactivation par une autre instance (ou avant un redémarrage) : seule la base le sait
+        jdbcTemplate.update("UPDATE users SET active = FALSE, token_version = token_version + 1 WHERE id = ?",
+                user.getId());
+
+        authMe(token).andExpect(status().isUnauthorized());
+    }
+
+    private User createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("x");
+        user.setFirstName("Token");
+        user.setLastName("Principal");
+        user.setRole(User.Role.EMPLOYE);
+        userRepository.save(user);
+        // Relu pour obtenir la version attribuée par la base
+        return userRepository.findByUsername(username).orElseThrow();
+    }
+
+    private String tokenFor(User user) {
+        return tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    private ResultActions authMe(String token) throws Exception {
+        return mockMvc.perform(get("/api/auth/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+    }
+}
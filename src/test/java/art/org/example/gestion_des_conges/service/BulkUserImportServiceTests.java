@@ -0,0 +1,79 @@
+package art.org.example.gestion_des_conges.service;
+
+import art.org.example.gestion_des_conges.dto.BulkUserImportResult;
+import art.org.example.gestion_des_conges.dto.BulkUserImportRowResult;
+import art.org.example.gestion_des_conges.entity.User;
+import art.org.example.gestion_des_conges.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "app.bulk-import.chunk-size=2")
+class BulkUserImportServiceTests {
+
+    @Autowired
+    private BulkUserImportService bulkUserImportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void csvImportCreatesValidRowsAndReportsRejectedOnes() throws Exception {
+        String csv = String.join("\n",
+                "nom;prenom;username;email;role;teamId",
+                "Martin;Alice;bulk.alice;bulk.alice@conges.com;VALIDATEUR;",
+                "Durand;Bob;bulk.bob;bulk.bob@conges.com;;",
+                "Petit;Bob;bulk.bob;bulk.bob2@conges.com;;",
+                "Admin;Autre;bulk.admin;admin@conges.com;;",
+                "Sans;Email;bulk.noemail;pas-un-email;;",
+                "Sans;Equipe;bulk.noteam;bulk.noteam@conges.com;;999999",
+                "\"Le Gall\";Chloé;bulk.chloe;bulk.chloe@conges.com;employe;");
+
+        BulkUserImportResult result = bulkUserImportService.importCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(7, result.getTotal());
+        assertEquals(3, result.getCreated());
+        assertEquals(4, result.getRejected());
+
+        List<BulkUserImportRowResult> rows = result.getRows();
+        assertEquals(List.of(2, 3, 4, 5, 6, 7, 8), rows.stream().map(BulkUserImportRowResult::getLine).toList());
+        assertEquals(List.of("CREATED", "CREATED", "REJECTED", "REJECTED", "REJECTED", "REJECTED", "CREATED"),
+                rows.stream().map(BulkUserImportRowResult::getStatus).toList());
+
+        User alice = userRepository.findByUsername("bulk.alice").orElseThrow();
+        assertEquals(rows.get(0).getUserId(), alice.getId());
+        assertEquals(User.Role.VALIDATEUR, alice.getRole());
+        assertTrue(alice.getActive());
+        assertTrue(alice.getPassword().startsWith("$2"));
+
+        assertEquals("Le Gall", userRepository.findByUsername("bulk.chloe").orElseThrow().getLastName());
+        assertEquals("bulk.bob@conges.com", userRepository.findByUsername("bulk.bob").orElseThrow().getEmail());
+    }
+
+    @Test
+    void jsonImportRejectsRowsWithInvalidFormat() throws Exception {
+        String json = "[" +
+                "{\"nom\":\"Roux\",\"prenom\":\"Dan\",\"username\":\"bulk.dan\",\"email\":\"bulk.dan@conges.com\"}," +
+                "{\"nom\":\"Roux\",\"prenom\":\"Eve\",\"username\":\"bulk.eve\",\"email\":\"bulk.eve@conges.com\",\"role\":\"CHEF\"}" +
+                "]";
+
+        BulkUserImportResult result = bulkUserImportService.importJson(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(1, result.getCreated());
+        assertEquals("REJECTED", result.getRows().get(1).getStatus());
+        assertEquals("bulk.eve", result.getRows().get(1).getUsername());
+        assertTrue(userRepository.findByUsername("bulk.dan").isPresent());
+    }
+}
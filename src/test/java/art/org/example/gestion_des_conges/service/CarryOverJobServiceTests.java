@@ -0,0 +1,74 @@
+package art.org.example.gestion_des_conges.service;
+
+import art.org.example.gestion_des_conges.dto.CarryOverJobDTO;
+import art.org.example.gestion_des_conges.entity.CarryOverJob;
+import art.org.example.gestion_des_conges.entity.LeaveBalance;
+import art.org.example.gestion_des_conges.entity.LeaveDays;
+import art.org.example.gestion_des_conges.repository.LeaveBalanceRepository;
+import art.org.example.gestion_des_conges.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "app.carry-over.page-size=2")
+class CarryOverJobServiceTests {
+
+    @Autowired
+    private CarryOverJobService carryOverJobService;
+
+    @Autowired
+    private LeaveBalanceService leaveBalanceService;
+
+    @Autowired
+    private LeaveBalanceRepository leaveBalanceRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void carryOverJobCompletesAndRerunDoesNotCreditTwice() throws Exception {
+        leaveBalanceService.initializeAllUsersForYear(2095);
+        long users = userRepository.count();
+        Long userId = userRepository.findByUsername("employe").orElseThrow().getId();
+
+        CarryOverJobDTO job = awaitCompletion(carryOverJobService.startCarryOver(2095, 2096));
+        assertEquals(users, job.getCarriedOverCount().longValue());
+        assertEquals(users, job.getProcessedCount().longValue());
+        assertCongePaye2096(userId);
+
+        // Relancer le report ne doit pas cumuler les jours reportés
+        CarryOverJobDTO rerun = awaitCompletion(carryOverJobService.startCarryOver(2095, 2096));
+        assertNotEquals(job.getId(), rerun.getId());
+        assertCongePaye2096(userId);
+    }
+
+    private void assertCongePaye2096(Long userId) {
+        List<LeaveBalance> balances = leaveBalanceRepository.findByUserIdAndYear(userId, 2096);
+        assertEquals(1, balances.size());
+        LeaveBalance balance = balances.get(0);
+        assertEquals(LeaveDays.of(10).quarters(), balance.getCarriedOverQuarters());
+        assertEquals(LeaveDays.of(35).quarters(), balance.getTotalAllowanceQuarters());
+        assertEquals(LeaveDays.of(35).quarters(), balance.getRemainingQuarters());
+    }
+
+    private CarryOverJobDTO awaitCompletion(CarryOverJobDTO job) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            CarryOverJobDTO current = carryOverJobService.getJob(job.getId());
+            if (current.getStatus() != CarryOverJob.Status.RUNNING) {
+                assertEquals(CarryOverJob.Status.COMPLETED, current.getStatus(), current.getError());
+                return current;
+            }
+            Thread.sleep(100);
+        }
+        fail("Le job de report ne s'est pas terminé");
+        return null;
+    }
+}
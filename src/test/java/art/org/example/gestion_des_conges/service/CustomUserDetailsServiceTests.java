@@ -0,0 +1,126 @@
+package art.org.example.gestion_des_conges.service;
+
+import art.org.example.gestion_des_conges.dto.ResetPasswordRequest;
+import art.org.example.gestion_des_conges.entity.User;
+import art.org.example.gestion_des_conges.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cache des utilisateurs : copies distinctes à chaque appel, et rechargement après toute modification,
+ * locale (invalidateUser) ou faite par une autre instance (version users.token_version)
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CustomUserDetailsServiceTests {
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TeamService teamService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void cachedUserIsACopyPerCall() {
+        User user = createUser("cache.copie");
+
+        User first = load(user);
+        User second = load(user);
+
+        assertNotSame(first, second);
+        first.setActive(false);
+        first.setRole(User.Role.ADMIN);
+        assertTrue(load(user).isEnabled());
+        assertEquals(User.Role.EMPLOYE, load(user).getRole());
+    }
+
+    @Test
+    void toggleUserStatusEvictsTheCachedUser() {
+        User user = createUser("cache.statut");
+        assertTrue(load(user).isEnabled());
+
+        userService.toggleUserStatus(user.getId());
+
+        assertFalse(load(user).isEnabled());
+    }
+
+    @Test
+    void changeUserRoleEvictsTheCachedUser() {
+        User user = createUser("cache.role");
+        assertEquals(User.Role.EMPLOYE, load(user).getRole());
+
+        userService.changeUserRole(user.getId(), User.Role.VALIDATEUR);
+
+        assertEquals("ROLE_VALIDATEUR", load(user).getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void addMemberEvictsTheCachedUser() {
+        User user = createUser("cache.equipe");
+        assertNull(load(user).getTeam());
+
+        Long teamId = teamService.createTeam("Equipe Cache Utilisateurs", null).getId();
+        teamService.addMember(teamId, user.getId());
+
+        assertEquals(teamId, load(user).getTeam().getId());
+    }
+
+    @Test
+    void resetPasswordEvictsTheCachedUser() {
+        User user = createUser("cache.motdepasse");
+        assertFalse(passwordEncoder.matches("nouveau123", load(user).getPassword()));
+
+        String resetToken = authService.requestPasswordReset(user.getEmail());
+        authService.resetPassword(new ResetPasswordRequest(resetToken, "nouveau123"));
+
+        assertTrue(passwordEncoder.matches("nouveau123", load(user).getPassword()));
+    }
+
+    @Test
+    void changeMadeByAnotherInstanceEvictsTheCachedUser() {
+        User user = createUser("cache.ailleurs");
+        assertTrue(load(user).isEnabled());
+
+        // Autre instance : seule la base est modifiée, le cache local n'est pas invalidé
+        jdbcTemplate.update("UPDATE users SET active = FALSE, token_version = token_version + 1 WHERE id = ?",
+                user.getId());
+
+        assertFalse(load(user).isEnabled());
+    }
+
+    private User createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword(passwordEncoder.encode("ancien123"));
+        user.setFirstName("Cache");
+        user.setLastName("Utilisateur");
+        user.setRole(User.Role.EMPLOYE);
+        return userRepository.save(user);
+    }
+
+    private User load(User user) {
+        return (User) userDetailsService.loadUserByUsername(user.getUsername());
+    }
+}
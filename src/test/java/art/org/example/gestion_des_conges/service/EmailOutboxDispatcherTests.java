@@ -0,0 +1,174 @@
+package art.org.example.gestion_des_conges.service;
+
+import art.org.example.gestion_des_conges.dto.CreateUserRequest;
+import art.org.example.gestion_des_conges.entity.OutboundEmail;
+import art.org.example.gestion_des_conges.repository.OutboundEmailRepository;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class EmailOutboxDispatcherTests {
+
+    @TestConfiguration
+    static class GreenMailSenderConfig {
+        @Bean
+        @Primary
+        JavaMailSender greenMailSender() {
+            JavaMailSenderImpl sender = new JavaMailSenderImpl();
+            sender.setHost("localhost");
+            sender.setPort(ServerSetupTest.SMTP.getPort());
+            return sender;
+        }
+    }
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EmailOutboxDispatcher dispatcher;
+
+    @Autowired
+    private OutboundEmailRepository outboundEmailRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private GreenMail greenMail;
+
+    @BeforeEach
+    void setUp() {
+        outboundEmailRepository.deleteAll();
+        greenMail = new GreenMail(ServerSetupTest.SMTP);
+        greenMail.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        greenMail.stop();
+    }
+
+    @Test
+    void welcomeEmailIsQueuedThenSentByTheDispatcher() throws Exception {
+        userService.createUser(newUser("outbox.ok"));
+
+        // Rien n'est envoyé pendant la requête : l'email attend dans l'outbox
+        assertEquals(0, greenMail.getReceivedMessages().length);
+        assertEquals(1, outboundEmailRepository.countByStatus(OutboundEmail.Status.PENDING));
+
+        assertEquals(1, dispatcher.dispatchPending());
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(1, received.length);
+        assertEquals("outbox.ok@conges.com", received[0].getAllRecipients()[0].toString());
+
+        OutboundEmail sent = outboundEmailRepository.findAll().get(0);
+        assertEquals(OutboundEmail.Status.SENT, sent.getStatus());
+        assertNull(sent.getBody());
+    }
+
+    @Test
+    void failedSendIsRescheduledWithBackoff() {
+        greenMail.stop();
+        userService.createUser(newUser("outbox.ko"));
+
+        assertEquals(1, dispatcher.dispatchPending());
+
+        List<OutboundEmail> emails = outboundEmailRepository.findAll();
+        OutboundEmail email = emails.get(0);
+        assertEquals(OutboundEmail.Status.PENDING, email.getStatus());
+        assertEquals(1, email.getAttempts());
+        assertNotNull(email.getLastError());
+
+        // Pas encore dû : le passage suivant ne le reprend pas
+        assertEquals(0, dispatcher.dispatchPending());
+    }
+
+    @Test
+    void deadLetteredEmailLosesItsBody() {
+        greenMail.stop();
+        userService.createUser(newUser("outbox.abandon"));
+
+        // Dernière tentative autorisée (app.mail.outbox.max-attempts=5), due maintenant
+        OutboundEmail email = outboundEmailRepository.findAll().get(0);
+        assertNotNull(email.getBody());
+        email.setAttempts(4);
+        email.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        outboundEmailRepository.save(email);
+
+        assertEquals(1, dispatcher.dispatchPending());
+
+        OutboundEmail dead = outboundEmailRepository.findAll().get(0);
+        assertEquals(OutboundEmail.Status.DEAD, dead.getStatus());
+        assertEquals(5, dead.getAttempts());
+        assertNull(dead.getBody());
+        assertNotNull(dead.getLastError());
+    }
+
+    @Test
+    void emailsBeingClaimedByAnotherInstanceAreSkipped() throws Exception {
+        userService.createUser(newUser("outbox.autre"));
+        userService.createUser(newUser("outbox.autre2"));
+
+        // Autre instance au milieu de sa réservation : les emails dus restent verrouillés jusqu'à son commit
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<List<Long>> other = CompletableFuture.supplyAsync(() ->
+                new TransactionTemplate(transactionManager).execute(status -> {
+                    List<Long> ids = outboundEmailRepository.lockDueIds(LocalDateTime.now(), 10);
+                    locked.countDown();
+                    try {
+                        release.await(30, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return ids;
+                }));
+        assertTrue(locked.await(30, TimeUnit.SECONDS));
+
+        // Lignes sautées sans attendre le verrou
+        try {
+            assertEquals(0, dispatcher.dispatchPending());
+        } finally {
+            release.countDown();
+        }
+        assertEquals(2, other.get(30, TimeUnit.SECONDS).size());
+        assertEquals(0, greenMail.getReceivedMessages().length);
+
+        // L'autre instance n'a rien réservé : les emails sont repris au passage suivant
+        assertEquals(2, dispatcher.dispatchPending());
+        assertEquals(2, greenMail.getReceivedMessages().length);
+        assertEquals(2, outboundEmailRepository.countByStatus(OutboundEmail.Status.SENT));
+    }
+
+    private CreateUserRequest newUser(String username) {
+        CreateUserRequest request = new CreateUserRequest();
+        request.setNom("Test");
+        request.setPrenom("Outbox");
+        request.setUsername(username);
+        request.setEmail(username + "@conges.com");
+        return request;
+    }
+}
@@ -0,0 +1,212 @@
+package art.org.example.gestion_des_conges.service;
+
+import art.org.example.gestion_des_conges.dto.LeaveBalanceDTO;
+import art.org.example.gestion_des_conges.dto.LeaveMovementDTO;
+import art.org.example.gestion_des_conges.entity.LeaveBalance;
+import art.org.example.gestion_des_conges.entity.LeaveDays;
+import art.org.example.gestion_des_conges.entity.User;
+import art.org.example.gestion_des_conges.repository.LeaveBalanceRepository;
+import art.org.example.gestion_des_conges.repository.LeaveTypeRepository;
+import art.org.example.gestion_des_conges.repository.UserRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Validations parallèles sur un même solde : aucune mise à jour perdue,
+ * et remaining = total - used - pending, avant comme après le report du journal dans la projection
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class LeaveBalanceConcurrencyTests {
+
+    private static final int THREADS = 8;
+    private static final int REQUESTS_PER_THREAD = 40;
+    private static final LeaveDays ALLOWANCE = LeaveDays.of(1000);
+    private static final LeaveDays ONE_DAY = LeaveDays.of(1);
+
+    @Autowired
+    private LeaveBalanceService leaveBalanceService;
+
+    @Autowired
+    private LeaveBalanceRepository leaveBalanceRepository;
+
+    @Autowired
+    private LeaveTypeRepository leaveTypeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LeaveLedger leaveLedger;
+
+    @Test
+    void parallelApprovalsKeepTheBalanceConsistent() throws Exception {
+        int year = 2093;
+        Long userId = userRepository.findByUsername("employe").orElseThrow().getId();
+        Long leaveTypeId = leaveTypeRepository.findByIsActiveTrue().get(0).getId();
+        leaveBalanceService.setUserBalance(userId, leaveTypeId, year, ALLOWANCE);
+
+        AtomicInteger approved = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                        // Une demande sur quatre refusée, les autres validées
+                        leaveBalanceService.updateBalanceAfterRequest(userId, leaveTypeId, year, ONE_DAY, "PENDING");
+                        if (i % 4 == 0) {
+                            leaveBalanceService.updateBalanceAfterRequest(userId, leaveTypeId, year, ONE_DAY, "REJECTED");
+                        } else {
+                            leaveBalanceService.updateBalanceAfterRequest(userId, leaveTypeId, year, ONE_DAY, "APPROVED");
+                            approved.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            // Un administrateur redéfinit les droits pendant les validations
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 20; i++) {
+                    leaveBalanceService.setUserBalance(userId, leaveTypeId, year, ALLOWANCE);
+                }
+                return null;
+            }));
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Solde courant (projection + mouvements non reportés)
+        LeaveBalanceDTO current = leaveBalanceService.getUserBalanceForType(userId, leaveTypeId, year);
+        assertEquals(LeaveDays.ZERO, current.getPendingDays());
+        assertEquals(LeaveDays.of(approved.get()), current.getUsedDays());
+        assertEquals(ALLOWANCE, current.getTotalAllowance());
+        assertEquals(ALLOWANCE.minus(LeaveDays.of(approved.get())), current.getRemainingDays());
+
+        // Une ligne de journal par écriture
+        Map<String, Long> movements = leaveLedger.history(userId, year).stream()
+                .collect(Collectors.groupingBy(LeaveMovementDTO::getMovement, Collectors.counting()));
+        assertEquals(THREADS * REQUESTS_PER_THREAD, movements.get("PENDING"));
+        assertEquals(approved.get(), movements.get("APPROVED"));
+        assertEquals(THREADS * REQUESTS_PER_THREAD - approved.get(), movements.get("REJECTED"));
+
+        // Même solde une fois le journal reporté dans la projection
+        leaveLedger.foldAll();
+        LeaveBalance balance = balance(userId, leaveTypeId, year);
+        assertEquals(0, balance.getPendingQuarters());
+        assertEquals(LeaveDays.of(approved.get()).quarters(), balance.getUsedQuarters());
+        assertEquals(ALLOWANCE.quarters(), balance.getTotalAllowanceQuarters());
+        assertEquals(balance.getTotalAllowanceQuarters() - balance.getUsedQuarters() - balance.getPendingQuarters(),
+                balance.getRemainingQuarters());
+    }
+
+    @Test
+    void parallelFirstReadsInitializeTheBalancesOnce() throws Exception {
+        int year = 2095;
+        Long userId = createUser("premiere.lecture");
+        int activeTypes = leaveTypeRepository.findByIsActiveTrue().size();
+
+        // Premières lectures simultanées (GET /me en parallèle) : aucune ne voit encore de solde
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<List<LeaveBalanceDTO>>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return leaveBalanceService.getUserBalances(userId, year);
+                }));
+            }
+            start.countDown();
+            for (Future<List<LeaveBalanceDTO>> future : futures) {
+                assertEquals(activeTypes, future.get(60, TimeUnit.SECONDS).size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Un seul mouvement d'ouverture par solde
+        assertEquals(activeTypes, leaveLedger.history(userId, year).size());
+    }
+
+    @Test
+    void yearInitializationRunsAlongsideFirstReads() throws Exception {
+        int year = 2096;
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            userIds.add(createUser("initialisation.annee" + i));
+        }
+        int activeTypes = leaveTypeRepository.findByIsActiveTrue().size();
+
+        // Initialisation de l'année lancée pendant les premières lectures des nouveaux utilisateurs
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            futures.add(executor.submit(() -> {
+                start.await();
+                return leaveBalanceService.initializeAllUsersForYear(year);
+            }));
+            for (Long userId : userIds) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return leaveBalanceService.getUserBalances(userId, year);
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (Long userId : userIds) {
+            assertEquals(activeTypes, leaveLedger.history(userId, year).size());
+        }
+    }
+
+    @Test
+    void unknownBalanceIsReported() {
+        Long userId = userRepository.findByUsername("employe").orElseThrow().getId();
+        Long leaveTypeId = leaveTypeRepository.findByIsActiveTrue().get(0).getId();
+        assertThrows(EntityNotFoundException.class, () ->
+                leaveBalanceService.updateBalanceAfterRequest(userId, leaveTypeId, 2094, ONE_DAY, "PENDING"));
+        assertThrows(IllegalArgumentException.class, () ->
+                leaveBalanceService.updateBalanceAfterRequest(userId, leaveTypeId, 2093, ONE_DAY, "UNKNOWN"));
+    }
+
+    private Long createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("x");
+        user.setFirstName("Premiere");
+        user.setLastName("Lecture");
+        return userRepository.save(user).getId();
+    }
+
+    private LeaveBalance balance(Long userId, Long leaveTypeId, Integer year) {
+        return leaveBalanceRepository.findByUserIdAndLeaveTypeIdAndYear(userId, leaveTypeId, year).orElseThrow();
+    }
+}
@@ -0,0 +1,83 @@
+package art.org.example.gestion_des_conges.service;
+
+import art.org.example.gestion_des_conges.dto.LeaveBalanceDTO;
+import art.org.example.gestion_des_conges.entity.LeaveBalance;
+import art.org.example.gestion_des_conges.entity.LeaveDays;
+import art.org.example.gestion_des_conges.entity.LeaveType;
+import art.org.example.gestion_des_conges.repository.LeaveBalanceRepository;
+import art.org.example.gestion_des_conges.repository.LeaveTypeRepository;
+import art.org.example.gestion_des_conges.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class LeaveBalanceServiceTests {
+
+    @Autowired
+    private LeaveBalanceService leaveBalanceService;
+
+    @Autowired
+    private LeaveBalanceRepository leaveBalanceRepository;
+
+    @Autowired
+    private LeaveTypeRepository leaveTypeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void initializeAllUsersForYearCreatesMissingBalancesOnlyOnce() {
+        int year = 2091;
+        Long userId = userRepository.findByUsername("employe").orElseThrow().getId();
+        leaveBalanceService.initializeUserBalances(userId, year);
+        int alreadyInitialized = leaveBalanceRepository.findByUserIdAndYear(userId, year).size();
+
+        List<LeaveType> activeTypes = leaveTypeRepository.findByIsActiveTrue();
+        long expected = userRepository.count() * activeTypes.size();
+
+        int created = leaveBalanceService.initializeAllUsersForYear(year);
+        assertEquals(expected - alreadyInitialized, created);
+        assertEquals(0, leaveBalanceService.initializeAllUsersForYear(year));
+
+        LeaveType type = activeTypes.get(0);
+        LeaveBalance balance = leaveBalanceRepository.findByUserIdAndYear(userId, year).stream()
+                .filter(b -> b.getLeaveType().getId().equals(type.getId()))
+                .findFirst()
+                .orElseThrow();
+        long allowance = LeaveDays.of(type.getDefaultAnnualAllowance()).quarters();
+        assertEquals(allowance, balance.getTotalAllowanceQuarters());
+        assertEquals(allowance, balance.getRemainingQuarters());
+        assertEquals(0, balance.getUsedQuarters());
+        assertNotNull(balance.getCreatedAt());
+    }
+
+    @Test
+    void userBalancesAreServedFromTheReadModelUntilTheyChange() {
+        int year = 2092;
+        Long userId = userRepository.findByUsername("employe").orElseThrow().getId();
+        List<LeaveBalanceDTO> first = leaveBalanceService.getUserBalances(userId, year);
+        assertFalse(first.isEmpty());
+        assertSame(first, leaveBalanceService.getUserBalances(userId, year));
+
+        LeaveBalanceDTO balance = first.get(0);
+        assertEquals(leaveTypeRepository.findById(balance.getLeaveTypeId()).orElseThrow().getName(),
+                balance.getLeaveTypeName());
+        assertEquals("Jean Dupont", balance.getUserName());
+
+        leaveBalanceService.setUserBalance(userId, balance.getLeaveTypeId(), year, LeaveDays.of(42));
+        List<LeaveBalanceDTO> updated = leaveBalanceService.getUserBalances(userId, year);
+        assertNotSame(first, updated);
+        assertEquals(LeaveDays.of(42), updated.stream()
+                .filter(b -> b.getId().equals(balance.getId()))
+                .findFirst()
+                .orElseThrow()
+                .getTotalAllowance());
+    }
+}
@@ -0,0 +1,94 @@
+package art.org.example.gestion_des_conges.service;
+
+import art.org.example.gestion_des_conges.dto.LeaveBalanceDTO;
+import art.org.example.gestion_des_conges.dto.LeaveMovementDTO;
+import art.org.example.gestion_des_conges.entity.LeaveDays;
+import art.org.example.gestion_des_conges.repository.LeaveTypeRepository;
+import art.org.example.gestion_des_conges.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class LeaveLedgerTests {
+
+    @Autowired
+    private LeaveLedger leaveLedger;
+
+    @Autowired
+    private LeaveBalanceService leaveBalanceService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LeaveTypeRepository leaveTypeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void movementsAreReadBeforeAndAfterFolding() {
+        int year = 2095;
+        Long userId = userRepository.findByUsername("employe").orElseThrow().getId();
+        Long leaveTypeId = leaveTypeRepository.findByIsActiveTrue().get(0).getId();
+        leaveBalanceService.setUserBalance(userId, leaveTypeId, year, LeaveDays.of(25));
+        leaveBalanceService.updateBalanceAfterRequest(userId, leaveTypeId, year, LeaveDays.of(3), "PENDING");
+        leaveBalanceService.updateBalanceAfterRequest(userId, leaveTypeId, year, LeaveDays.of(3), "APPROVED");
+        leaveBalanceService.setUserBalance(userId, leaveTypeId, year, LeaveDays.of(30));
+
+        // Mouvements non reportés : projection inchangée, solde courant à jour
+        assertEquals(LeaveDays.of(25), projected(userId, leaveTypeId, year, "remaining_quarters"));
+        assertBalance(leaveBalanceService.getUserBalanceForType(userId, leaveTypeId, year), 30, 3, 27);
+
+        leaveLedger.foldAll();
+        assertEquals(LeaveDays.of(27), projected(userId, leaveTypeId, year, "remaining_quarters"));
+        assertBalance(leaveBalanceService.getUserBalanceForType(userId, leaveTypeId, year), 30, 3, 27);
+
+        List<String> movements = leaveBalanceService.getUserLedger(userId, year).stream()
+                .filter(movement -> movement.getLeaveTypeId().equals(leaveTypeId))
+                .map(LeaveMovementDTO::getMovement)
+                .toList();
+        assertEquals(List.of("ALLOCATE", "PENDING", "APPROVED", "ALLOCATE"), movements);
+    }
+
+    @Test
+    void rebuildRestoresABalanceFromTheLedger() {
+        int year = 2096;
+        Long userId = userRepository.findByUsername("admin").orElseThrow().getId();
+        leaveBalanceService.initializeUserBalances(userId, year);
+        Long leaveTypeId = leaveTypeRepository.findByIsActiveTrue().get(0).getId();
+        leaveBalanceService.updateBalanceAfterRequest(userId, leaveTypeId, year, LeaveDays.of(0.5), "PENDING");
+        LeaveBalanceDTO before = leaveBalanceService.getUserBalanceForType(userId, leaveTypeId, year);
+        assertEquals(0, leaveBalanceService.rebuildBalances(year));
+
+        // Projection altérée hors du journal
+        jdbcTemplate.update("UPDATE leave_balances SET used_quarters = 99, remaining_quarters = -99 " +
+                "WHERE user_id = ? AND leave_type_id = ? AND year = ?", userId, leaveTypeId, year);
+        assertEquals(1, leaveBalanceService.rebuildBalances(year));
+
+        LeaveBalanceDTO after = leaveBalanceService.getUserBalanceForType(userId, leaveTypeId, year);
+        assertEquals(before, after);
+        assertEquals(LeaveDays.of(0.5), after.getPendingDays());
+    }
+
+    private LeaveDays projected(Long userId, Long leaveTypeId, int year, String column) {
+        return LeaveDays.ofQuarters(jdbcTemplate.queryForObject("SELECT " + column + " FROM leave_balances " +
+                "WHERE user_id = ? AND leave_type_id = ? AND year = ?", Long.class, userId, leaveTypeId, year));
+    }
+
+    private static void assertBalance(LeaveBalanceDTO balance, double total, double used, double remaining) {
+        assertEquals(LeaveDays.of(total), balance.getTotalAllowance());
+        assertEquals(LeaveDays.of(used), balance.getUsedDays());
+        assertEquals(LeaveDays.of(remaining), balance.getRemainingDays());
+        assertEquals(balance.getTotalAllowance().minus(balance.getUsedDays()).minus(balance.getPendingDays()),
+                balance.getRemainingDays());
+    }
+}
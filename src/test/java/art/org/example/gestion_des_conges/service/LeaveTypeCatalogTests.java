@@ -0,0 +1,70 @@
+package art.org.example.gestion_des_conges.service;
+
+import art.org.example.gestion_des_conges.dto.CreateLeaveTypeRequest;
+import art.org.example.gestion_des_conges.dto.LeaveTypeDTO;
+import art.org.example.gestion_des_conges.entity.LeaveType;
+import art.org.example.gestion_des_conges.repository.LeaveTypeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class LeaveTypeCatalogTests {
+
+    @Autowired
+    private LeaveTypeCatalog leaveTypeCatalog;
+
+    @Autowired
+    private LeaveTypeService leaveTypeService;
+
+    @Autowired
+    private LeaveTypeRepository leaveTypeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void writesThroughServiceAreVisibleImmediately() {
+        long version = leaveTypeCatalog.version();
+
+        CreateLeaveTypeRequest request = new CreateLeaveTypeRequest();
+        request.setName("Catalogue Test");
+        LeaveTypeDTO created = leaveTypeService.createLeaveType(request);
+        assertEquals(version + 1, leaveTypeCatalog.version());
+        assertEquals("Catalogue Test", leaveTypeCatalog.findByName("catalogue TEST").orElseThrow().getName());
+        assertTrue(leaveTypeService.getActiveLeaveTypes().stream().anyMatch(t -> t.getId().equals(created.getId())));
+        assertFalse(leaveTypeService.isLeaveTypeNameAvailable("Catalogue Test", null));
+        assertTrue(leaveTypeService.isLeaveTypeNameAvailable("catalogue test", created.getId()));
+
+        // Désactivé pour ne pas fausser l'initialisation des soldes des autres tests
+        leaveTypeService.toggleLeaveTypeStatus(created.getId());
+        assertEquals(version + 2, leaveTypeCatalog.version());
+        assertTrue(leaveTypeService.getActiveLeaveTypes().stream().noneMatch(t -> t.getId().equals(created.getId())));
+        assertThrows(UnsupportedOperationException.class, () -> leaveTypeCatalog.findAll().clear());
+    }
+
+    @Test
+    void otherInstanceChangesArePickedUpByVersionPolling() {
+        leaveTypeCatalog.refreshIfChanged();
+        LeaveType leaveType = leaveTypeRepository.findByIsActiveTrue().get(0);
+        String description = leaveType.getDescription();
+
+        // Modification faite par une autre instance : données et version, sans passer par ce catalogue
+        leaveType.setDescription("Modifié ailleurs");
+        leaveTypeRepository.save(leaveType);
+        assertEquals(description, leaveTypeCatalog.findById(leaveType.getId()).orElseThrow().getDescription());
+
+        jdbcTemplate.update("UPDATE catalog_versions SET version = version + 1 WHERE name = 'leave_types'");
+        leaveTypeCatalog.refreshIfChanged();
+        assertEquals("Modifié ailleurs", leaveTypeCatalog.findById(leaveType.getId()).orElseThrow().getDescription());
+
+        leaveType.setDescription(description);
+        leaveTypeRepository.save(leaveType);
+        leaveTypeCatalog.reload();
+    }
+}
@@ -0,0 +1,90 @@
+package art.org.example.gestion_des_conges.service;
+
+import art.org.example.gestion_des_conges.dto.TeamDTO;
+import art.org.example.gestion_des_conges.dto.UserDTO;
+import art.org.example.gestion_des_conges.entity.User;
+import art.org.example.gestion_des_conges.repository.UserRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TeamServiceTests {
+
+    @Autowired
+    private TeamService teamService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long teamId;
+
+    @BeforeAll
+    void createTeam() {
+        teamId = teamService.createTeam("Equipe Vues", "Equipe des tests de vues").getId();
+        for (String name : List.of("Durand", "Bernard", "Petit")) {
+            User user = new User();
+            user.setUsername("vues-" + name.toLowerCase());
+            user.setEmail("vues-" + name.toLowerCase() + "@example.com");
+            user.setPassword("x");
+            user.setFirstName("Test");
+            user.setLastName(name);
+            user.setRole(name.equals("Petit") ? User.Role.VALIDATEUR : User.Role.EMPLOYE);
+            Long userId = userRepository.save(user).getId();
+            teamService.addMember(teamId, userId);
+            if (user.getRole() == User.Role.VALIDATEUR) {
+                teamService.setValidator(teamId, userId);
+            }
+        }
+    }
+
+    @Test
+    void summaryViewHasCountAndValidatorWithoutMembers() {
+        TeamDTO team = find(teamService.getAllTeams(TeamService.View.SUMMARY, 0));
+        assertEquals(3, team.getNombreMembres());
+        assertEquals("Test Petit", team.getValidateurNom());
+        assertNull(team.getMembres());
+
+        assertEquals(team, find(teamService.getAllTeamsWithMemberCount()));
+    }
+
+    @Test
+    void previewKeepsFirstMembersInAlphabeticalOrder() {
+        TeamDTO team = find(teamService.getAllTeams(TeamService.View.SUMMARY, 2));
+        assertEquals(3, team.getNombreMembres());
+        assertEquals(List.of("Bernard", "Durand"), team.getMembres().stream().map(UserDTO::getNom).toList());
+        assertEquals(User.Role.EMPLOYE, team.getMembres().get(0).getRole());
+    }
+
+    @Test
+    void fullViewMatchesSingleTeamDetails() {
+        TeamDTO team = find(teamService.getAllTeams(TeamService.View.FULL, 0));
+        assertEquals(List.of("Bernard", "Durand", "Petit"), team.getMembres().stream().map(UserDTO::getNom).toList());
+
+        TeamDTO details = teamService.getTeamById(teamId);
+        assertEquals(details.getValidateurId(), team.getValidateurId());
+        assertEquals(details.getMembres().stream().map(UserDTO::getId).sorted().toList(),
+                team.getMembres().stream().map(UserDTO::getId).sorted().toList());
+
+        assertTrue(teamService.getEmptyTeams().stream().noneMatch(t -> t.getId().equals(teamId)));
+        assertTrue(teamService.getTeamsWithoutValidator().stream().noneMatch(t -> t.getId().equals(teamId)));
+        assertEquals(List.of(teamId), teamService.getTeamsByValidator(team.getValidateurId()).stream()
+                .map(TeamDTO::getId).toList());
+    }
+
+    private TeamDTO find(List<TeamDTO> teams) {
+        return teams.stream()
+                .filter(team -> team.getId().equals(teamId))
+                .findFirst()
+                .orElseThrow();
+    }
+}
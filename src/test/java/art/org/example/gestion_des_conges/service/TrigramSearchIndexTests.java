@@ -0,0 +1,115 @@
+package art.org.example.gestion_des_conges.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramSearchIndexTests {
+
+    private TrigramSearchIndex<String> index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramSearchIndex<>();
+        Map<Long, TrigramSearchIndex.Document<String>> documents = new HashMap<>();
+        documents.put(1L, user("Martin", "Jean", "jmartin", "EMPLOYE"));
+        documents.put(2L, user("Martinez", "Lucie", "lmartinez", "VALIDATEUR"));
+        documents.put(3L, user("Dupont", "Hélène", "hdupont", "EMPLOYE"));
+        documents.put(4L, user("Bernard", "Marc", "mbernard", "ADMIN"));
+        index.replaceAll(documents);
+    }
+
+    @Test
+    void exactWordRanksBeforeLongerWord() {
+        assertEquals(List.of(1L, 2L), index.search("martin", null, 10));
+    }
+
+    @Test
+    void matchesPrefixesTyposAndAccents() {
+        assertEquals(List.of(1L, 2L), index.search("mart", null, 10));
+        assertEquals(1L, index.search("martni", null, 10).get(0));
+        assertEquals(List.of(3L), index.search("helene", null, 10));
+        assertEquals(List.of(3L), index.search("HÉLÈNE dup", null, 10));
+        assertTrue(index.search("zzz", null, 10).isEmpty());
+        assertTrue(index.search("  ", null, 10).isEmpty());
+    }
+
+    @Test
+    void filtersOnAttributesAndFollowsUpdates() {
+        assertEquals(List.of(2L), index.search("martin", "VALIDATEUR"::equals, 10));
+
+        index.put(3L, user("Martin", "Hélène", "hmartin", "EMPLOYE"));
+        // Ex aequo départagés par nom puis prénom
+        assertEquals(List.of(3L, 1L, 2L), index.search("martin", null, 10));
+        assertTrue(index.search("dupont", null, 10).isEmpty());
+
+        index.remove(1L);
+        assertEquals(List.of(3L, 2L), index.search("martin", null, 10));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void totalCountsEveryMatchBeyondTheLimit() {
+        Map<Long, TrigramSearchIndex.Document<String>> documents = new HashMap<>();
+        for (long id = 1; id <= SearchIndexService.MAX_RESULTS + 500; id++) {
+            documents.put(id, user("Durand", "Paul" + id, "pdurand" + id, "EMPLOYE"));
+        }
+        index.replaceAll(documents);
+
+        TrigramSearchIndex.Results results = index.rank("durand", null, SearchIndexService.MAX_RESULTS);
+        assertEquals(SearchIndexService.MAX_RESULTS, results.ids().size());
+        assertEquals(SearchIndexService.MAX_RESULTS + 500, results.total());
+
+        TrigramSearchIndex.Results deeper = index.rank("durand", null, SearchIndexService.MAX_RESULTS + 10);
+        assertEquals(results.ids(), deeper.ids().subList(0, SearchIndexService.MAX_RESULTS));
+        assertEquals(SearchIndexService.MAX_RESULTS + 10, deeper.ids().size());
+    }
+
+    @Test
+    void changesMadeDuringARebuildAreNotLost() {
+        // Chargement lu avant les écritures suivantes : Dupont (3) et Bernard (4) y sont encore
+        Map<Long, TrigramSearchIndex.Document<String>> staleSnapshot = new HashMap<>();
+        staleSnapshot.put(1L, user("Martin", "Jean", "jmartin", "EMPLOYE"));
+        staleSnapshot.put(3L, user("Dupont", "Hélène", "hdupont", "EMPLOYE"));
+        staleSnapshot.put(4L, user("Bernard", "Marc", "mbernard", "ADMIN"));
+
+        index.rebuild(() -> {
+            index.put(3L, user("Martin", "Hélène", "hmartin", "EMPLOYE"));
+            index.put(5L, user("Petit", "Louise", "lpetit", "EMPLOYE"));
+            index.remove(4L);
+            return staleSnapshot;
+        });
+
+        assertEquals(List.of(3L, 1L), index.search("martin", null, 10));
+        assertTrue(index.search("dupont", null, 10).isEmpty());
+        assertEquals(List.of(5L), index.search("petit", null, 10));
+        assertTrue(index.search("bernard", null, 10).isEmpty());
+
+        // Les écritures ne sont plus rejouées par les reconstructions suivantes
+        index.replaceAll(staleSnapshot);
+        assertEquals(List.of(3L), index.search("dupont", null, 10));
+    }
+
+    @Test
+    void failedRebuildKeepsTheCurrentIndex() {
+        assertThrows(IllegalStateException.class, () -> index.rebuild(() -> {
+            index.put(5L, user("Petit", "Louise", "lpetit", "EMPLOYE"));
+            throw new IllegalStateException("base indisponible");
+        }));
+
+        assertEquals(List.of(1L, 2L), index.search("martin", null, 10));
+        assertEquals(List.of(5L), index.search("petit", null, 10));
+        assertEquals(5, index.size());
+    }
+
+    private static TrigramSearchIndex.Document<String> user(String lastName, String firstName,
+                                                            String username, String role) {
+        return TrigramSearchIndex.document(role, lastName + " " + firstName,
+                firstName, lastName, username, username + "@example.com");
+    }
+}
@@ -0,0 +1,138 @@
+package art.org.example.gestion_des_conges.service;
+
+import art.org.example.gestion_des_conges.dto.UpdateUserRequest;
+import art.org.example.gestion_des_conges.dto.UserDTO;
+import art.org.example.gestion_des_conges.dto.UserPageDTO;
+import art.org.example.gestion_des_conges.entity.User;
+import art.org.example.gestion_des_conges.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserServiceTests {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TeamService teamService;
+
+    @Test
+    void listUsersWalksAllPagesWithStableOrder() {
+        List<UserDTO> collected = new ArrayList<>();
+        String cursor = null;
+        UserPageDTO page;
+        do {
+            page = userService.listUsers(null, null, null, cursor, 2, cursor == null);
+            if (cursor == null) {
+                assertEquals(userRepository.count(), page.getTotal());
+            } else {
+                assertNull(page.getTotal());
+            }
+            assertTrue(page.getItems().size() <= 2);
+            collected.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (page.isHasMore());
+
+        List<Long> expectedIds = userRepository.findAll().stream()
+                .sorted(Comparator.comparing(User::getLastName)
+                        .thenComparing(User::getFirstName)
+                        .thenComparing(User::getId))
+                .map(User::getId)
+                .toList();
+        assertEquals(expectedIds, collected.stream().map(UserDTO::getId).toList());
+    }
+
+    @Test
+    void listUsersFiltersInDatabase() {
+        UserPageDTO admins = userService.listUsers("ADMIN", User.Role.ADMIN, null, null, 50, true);
+        assertEquals(1L, admins.getTotal());
+        assertEquals("admin", admins.getItems().get(0).getUsername());
+        assertFalse(admins.isHasMore());
+        assertNull(admins.getNextCursor());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.listUsers(null, null, null, "pas-un-curseur", 10, false));
+    }
+
+    @Test
+    void searchPagesThroughRankedResults() {
+        UserPageDTO first = userService.listUsers("admni", null, null, null, 1, true);
+        assertEquals("admin", first.getItems().get(0).getUsername());
+
+        List<Long> ranked = new ArrayList<>(first.getItems().stream().map(UserDTO::getId).toList());
+        UserPageDTO page = first;
+        while (page.isHasMore()) {
+            page = userService.listUsers("admni", null, null, page.getNextCursor(), 1, false);
+            ranked.addAll(page.getItems().stream().map(UserDTO::getId).toList());
+        }
+        assertEquals(first.getTotal(), (long) ranked.size());
+        assertEquals(ranked, userService.searchUsers("admni", null, null).stream().map(UserDTO::getId).toList());
+    }
+
+    @Test
+    void searchRejectsACursorPastTheLastMatch() {
+        long total = userService.listUsers("admni", null, null, null, 1, true).getTotal();
+
+        for (long offset : new long[]{total + 1, Integer.MAX_VALUE - 1, Integer.MAX_VALUE}) {
+            String cursor = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(String.valueOf(offset).getBytes(StandardCharsets.UTF_8));
+            assertThrows(IllegalArgumentException.class,
+                    () -> userService.listUsers("admni", null, null, cursor, 100, false));
+        }
+    }
+
+    @Test
+    void onlyChangesShownInTheTeamListBumpTheTeamsVersion() {
+        User loner = createUser("version.sans.equipe");
+        User member = createUser("version.membre");
+        Long teamId = teamService.createTeam("Equipe Version", null).getId();
+        teamService.addMember(teamId, member.getId());
+
+        long version = teamService.getTeamsVersion();
+        userService.updateUser(loner.getId(), rename("Renommé", null));
+        userService.changeUserRole(loner.getId(), User.Role.VALIDATEUR);
+        userService.toggleUserStatus(loner.getId());
+        userService.updateUser(member.getId(), rename(member.getFirstName(), teamId));
+        assertEquals(version, teamService.getTeamsVersion());
+
+        userService.updateUser(member.getId(), rename("Renommé", teamId));
+        assertEquals(version + 1, teamService.getTeamsVersion());
+        userService.toggleUserStatus(member.getId());
+        assertEquals(version + 2, teamService.getTeamsVersion());
+        userService.updateUser(member.getId(), rename("Renommé", null));
+        assertEquals(version + 3, teamService.getTeamsVersion());
+    }
+
+    private User createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("x");
+        user.setFirstName("Version");
+        user.setLastName("Equipes");
+        user.setRole(User.Role.EMPLOYE);
+        return userRepository.save(user);
+    }
+
+    private static UpdateUserRequest rename(String firstName, Long teamId) {
+        UpdateUserRequest request = new UpdateUserRequest();
+        request.setPrenom(firstName);
+        request.setTeamId(teamId);
+        return request;
+    }
+}
@@ -0,0 +1,90 @@
+package art.org.example.gestion_des_conges.support;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Compte les instructions SQL exécutées par le thread courant (JPA, requêtes natives et JdbcTemplate) :
+ * la DataSource est enveloppée par datasource-proxy. Un lot JDBC compte pour une instruction (un aller-retour).
+ * Les tâches planifiées et asynchrones, sur d'autres threads, ne sont pas comptées.
+ *
+ * À importer dans le test (@Import(QueryCounter.class)), puis : QueryCounter.start() ... QueryCounter.stop()
+ */
+@TestConfiguration
+public class QueryCounter {
+
+    private static final ThreadLocal<List<String>> RECORDED = new ThreadLocal<>();
+
+    @Bean
+    static BeanPostProcessor queryCountingDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new Listener())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Commence l'enregistrement des instructions du thread courant
+     */
+    public static void start() {
+        RECORDED.set(new ArrayList<>());
+    }
+
+    /**
+     * Arrête l'enregistrement et retourne les instructions exécutées depuis start()
+     */
+    public static Recorded stop() {
+        List<String> statements = RECORDED.get();
+        RECORDED.remove();
+        if (statements == null) {
+            throw new IllegalStateException("QueryCounter.start() n'a pas été appelé");
+        }
+        return new Recorded(List.copyOf(statements));
+    }
+
+    public record Recorded(List<String> statements) {
+
+        public int count() {
+            return statements.size();
+        }
+
+        @Override
+        public String toString() {
+            return count() + " instruction(s) :\n  " + String.join("\n  ", statements);
+        }
+    }
+
+    private static class Listener implements QueryExecutionListener {
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            List<String> statements = RECORDED.get();
+            if (statements != null) {
+                String sql = queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+                statements.add(execInfo.isBatch() ? "[lot de " + execInfo.getBatchSize() + "] " + sql : sql);
+            }
+        }
+    }
+}